@@ -0,0 +1,22 @@
+package com.flightapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class PnrExecutorConfig {
+
+    // reserves the next PNR block off the booking path. one reservation at a time is all
+    // PnrGenerator asks for, a rejected one is retried when the block runs out
+    @Bean(name = "pnrExecutor")
+    public ThreadPoolTaskExecutor pnrExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("pnr-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,83 @@
+package com.flightapp.config;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// replicas trail the primary a little. reads for a PNR or email that was just written are sent
+// to the primary for a short window, so a customer always sees the booking they just made
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private final ConcurrentHashMap<String, Long> writtenAt = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final Clock clock;
+
+    @Autowired
+    public ReadYourWrites(@Value("${app.datasource.replica.read-your-writes-ms:5000}") long windowMillis) {
+        this(Duration.ofMillis(windowMillis), Clock.systemUTC());
+    }
+
+    public ReadYourWrites(Duration window, Clock clock) {
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    // checked by ReplicaRoutingDataSource when the connection is fetched
+    static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_ONLY.get());
+    }
+
+    public void recordWrite(String... keys) {
+        long now = clock.millis();
+        for (String key : keys) {
+            if (key != null) {
+                writtenAt.put(normalize(key), now);
+            }
+        }
+    }
+
+    public boolean recentlyWritten(String key) {
+        if (key == null) {
+            return false;
+        }
+        Long at = writtenAt.get(normalize(key));
+        return at != null && at + windowMillis > clock.millis();
+    }
+
+    // runs the query on the primary when key was written within the window
+    public <T> T read(String key, Supplier<T> query) {
+        return onPrimaryIf(recentlyWritten(key), query);
+    }
+
+    public <T> T onPrimaryIf(boolean primary, Supplier<T> query) {
+        if (!primary || isPrimaryForced()) {
+            return query.get();
+        }
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return query.get();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.read-your-writes-ms:5000}")
+    public void purge() {
+        long cutoff = clock.millis() - windowMillis;
+        writtenAt.values().removeIf(at -> at <= cutoff);
+    }
+
+    private static String normalize(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+}
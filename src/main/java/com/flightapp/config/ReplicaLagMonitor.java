@@ -0,0 +1,30 @@
+package com.flightapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// e.g. with pt-heartbeat on the primary:
+// app.datasource.replica.lag-query=SELECT TIMESTAMPDIFF(SECOND, MAX(ts), UTC_TIMESTAMP()) FROM heartbeat.heartbeat
+@Component
+@ConditionalOnProperty(name = {"app.datasource.replica.urls", "app.datasource.replica.lag-query"})
+public class ReplicaLagMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource,
+                             @Value("${app.datasource.replica.lag-query}") String lagQuery,
+                             @Value("${app.datasource.replica.max-lag-seconds:5}") long maxLagSeconds) {
+        this.routingDataSource = routingDataSource;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:5000}")
+    public void check() {
+        routingDataSource.checkLag(lagQuery, maxLagSeconds);
+    }
+}
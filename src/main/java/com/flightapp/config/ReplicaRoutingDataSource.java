@@ -0,0 +1,104 @@
+package com.flightapp.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// read-only transactions go to a healthy replica (round robin), everything else to the primary.
+// must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only known once the
+// transaction has started, after the transaction manager asked for its connection.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final List<DataSource> replicas;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private volatile boolean[] healthy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.replicas = List.copyOf(replicas);
+        boolean[] allHealthy = new boolean[replicas.size()];
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            targets.put(key, replicas.get(i));
+            replicaKeys.add(key);
+            allHealthy[i] = true;
+        }
+        this.healthy = allHealthy;
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPrimaryForced()) {
+            return PRIMARY;
+        }
+        boolean[] current = healthy;
+        int size = replicaKeys.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (current[candidate]) {
+                return replicaKeys.get(candidate);
+            }
+        }
+        return PRIMARY;
+    }
+
+    // lagQuery returns the replica's delay in seconds as its first column. a replica that is
+    // too far behind, or can't answer, leaves the rotation until a later check passes
+    public void checkLag(String lagQuery, long maxLagSeconds) {
+        boolean[] previous = healthy;
+        boolean[] checked = new boolean[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean ok;
+            try (Connection connection = replicas.get(i).getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                ok = rs.next() && rs.getObject(1) != null && rs.getLong(1) <= maxLagSeconds;
+            } catch (SQLException e) {
+                ok = false;
+            }
+            if (previous[i] != ok) {
+                log.warn("Read replica {} {} the rotation", replicaKeys.get(i), ok ? "rejoined" : "left");
+            }
+            checked[i] = ok;
+        }
+        healthy = checked;
+    }
+
+    public boolean isHealthy(int replica) {
+        return healthy[replica];
+    }
+
+    // the replica pools are not beans, the primary is closed by the context
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.flightapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ScheduleExecutorConfig {
+
+    // expands recurring schedules in parallel, one schedule per task. every task holds a
+    // connection for its batch insert, so this stays a small slice of the pool
+    @Bean(name = "scheduleExecutor")
+    public ThreadPoolTaskExecutor scheduleExecutor(@Value("${inventory.schedule.expand-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("schedule-expand-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,24 @@
+package com.flightapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class WaitlistExecutorConfig {
+
+    // promotes waitlists after seats are released, one flight per task, so a cancellation never
+    // waits for the waitlist behind it. a full queue is fine, the sweep picks those flights up
+    @Bean(name = "waitlistExecutor")
+    public ThreadPoolTaskExecutor waitlistExecutor(@Value("${waitlist.promotion.threads:2}") int threads,
+                                                   @Value("${waitlist.promotion.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("waitlist-");
+        executor.initialize();
+        return executor;
+    }
+}
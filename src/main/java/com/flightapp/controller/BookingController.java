@@ -3,9 +3,12 @@ package com.flightapp.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
-import com.flightapp.model.Booking;
 import com.flightapp.request.BookingRequest;
+import com.flightapp.response.HoldDetails;
+import com.flightapp.response.TicketDetails;
+import com.flightapp.service.BookingIdempotency;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatHoldService;
 
 import jakarta.validation.Valid;
 
@@ -16,11 +19,42 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private BookingIdempotency bookingIdempotency;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
     @PostMapping("/booking/{flightId}")
-    public Booking bookFlight(
+    public TicketDetails bookFlight(
             @PathVariable Long flightId,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody BookingRequest req) {
 
-        return bookingService.bookFlight(flightId, req);
+        // clients that retry after a timeout send the same key and get the first booking back
+        if (idempotencyKey != null) {
+            return bookingIdempotency.bookFlight(idempotencyKey, flightId, req);
+        }
+        return TicketDetails.of(bookingService.bookFlight(flightId, req));
+    }
+
+    // checkout: seats are held until expiresAt, then confirmed or released
+    @PostMapping("/booking/hold/{flightId}")
+    public HoldDetails holdFlight(
+            @PathVariable Long flightId,
+            @Valid @RequestBody BookingRequest req) {
+
+        return seatHoldService.hold(flightId, req);
+    }
+
+    @PostMapping("/booking/confirm/{pnr}")
+    public TicketDetails confirmHold(@PathVariable String pnr) {
+        return seatHoldService.confirm(pnr);
+    }
+
+    @DeleteMapping("/booking/hold/{pnr}")
+    public String releaseHold(@PathVariable String pnr) {
+        seatHoldService.release(pnr);
+        return "Seat hold released";
     }
 }
@@ -1,11 +1,20 @@
 package com.flightapp.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
-import com.flightapp.model.FlightInventory;
 import com.flightapp.request.AddInventory;
+import com.flightapp.request.AddSchedule;
+import com.flightapp.response.BulkInventoryResult;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.response.ScheduleSummary;
 import com.flightapp.service.FlightInventoryService;
+import com.flightapp.service.FlightScheduleService;
+import com.flightapp.service.InventoryBulkLoader;
 
 import jakarta.validation.Valid;
 
@@ -16,8 +25,31 @@ public class FlightInventoryController {
     @Autowired
     private FlightInventoryService inventoryService;
 
+    @Autowired
+    private InventoryBulkLoader bulkLoader;
+
+    @Autowired
+    private FlightScheduleService scheduleService;
+
     @PostMapping("/airline/inventory/add")
-    public FlightInventory addInventory(@Valid @RequestBody AddInventory req) {
-        return inventoryService.addInventory(req);
+    public FlightSummary addInventory(@Valid @RequestBody AddInventory req) {
+        return FlightSummary.of(inventoryService.addInventory(req));
+    }
+
+    // a season's schedule in one request, read from the body as it arrives
+    @PostMapping(value = "/airline/inventory/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkInventoryResult addInventoryBulkJson(InputStream body) throws IOException {
+        return bulkLoader.loadJson(body);
+    }
+
+    @PostMapping(value = "/airline/inventory/bulk", consumes = "text/csv")
+    public BulkInventoryResult addInventoryBulkCsv(InputStream body) throws IOException {
+        return bulkLoader.loadCsv(body);
+    }
+
+    // a recurring flight, its days are added to the inventory as they enter the booking window
+    @PostMapping("/airline/schedule/add")
+    public ScheduleSummary addSchedule(@Valid @RequestBody AddSchedule req) {
+        return scheduleService.addSchedule(req);
     }
 }
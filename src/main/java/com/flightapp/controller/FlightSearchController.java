@@ -5,8 +5,14 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
-import com.flightapp.model.FlightInventory;
 import com.flightapp.request.FlightSearchRequest;
+import com.flightapp.response.DayFare;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.response.Itinerary;
+import com.flightapp.response.RoundTripSearchResponse;
+import com.flightapp.response.SearchCacheStats;
+import com.flightapp.service.CoalescingFlightSearchService;
+import com.flightapp.service.FlightSearchCache;
 import com.flightapp.service.FlightSearchService;
 
 import jakarta.validation.Valid;
@@ -18,8 +24,35 @@ public class FlightSearchController {
     @Autowired
     private FlightSearchService searchService;
 
+    @Autowired
+    private CoalescingFlightSearchService coalescingSearchService;
+
+    @Autowired
+    private FlightSearchCache searchCache;
+
     @PostMapping("/search")
-    public List<FlightInventory> searchFlights(@Valid @RequestBody FlightSearchRequest req) {
-        return searchService.searchFlights(req);
+    public List<FlightSummary> searchFlights(@Valid @RequestBody FlightSearchRequest req) {
+        return coalescingSearchService.searchFlights(req);
+    }
+
+    @PostMapping("/search/round-trip")
+    public RoundTripSearchResponse searchRoundTrip(@Valid @RequestBody FlightSearchRequest req) {
+        return searchService.searchRoundTrip(req);
+    }
+
+    @PostMapping("/search/flexible")
+    public List<DayFare> searchFlexibleDates(@Valid @RequestBody FlightSearchRequest req) {
+        return searchService.searchFlexibleDates(req);
+    }
+
+    // one- and two-stop connections as well as direct flights, for routes without a nonstop
+    @PostMapping("/search/connections")
+    public List<Itinerary> searchConnections(@Valid @RequestBody FlightSearchRequest req) {
+        return searchService.searchConnections(req);
+    }
+
+    @GetMapping("/search/cache/stats")
+    public SearchCacheStats searchCacheStats() {
+        return searchCache.stats();
     }
 }
@@ -1,32 +1,83 @@
 package com.flightapp.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.flightapp.model.Booking;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.flightapp.response.BookingHistoryPage;
+import com.flightapp.response.BookingSummary;
+import com.flightapp.response.TicketDetails;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.TicketService;
 
 @RestController
 @RequestMapping("/api/v1.0/flight")
 public class TicketController {
 
-    
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private BookingService bookingService;
 
-    public TicketController(BookingService bookingService) {
+    private TicketService ticketService;
+
+    private ObjectWriter summaryWriter;
+
+    public TicketController(BookingService bookingService, TicketService ticketService, ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.ticketService = ticketService;
+        this.summaryWriter = objectMapper.writerFor(BookingSummary.class);
     }
 
+    // outbound or return PNR
     @GetMapping("/ticket/{pnr}")
-    public Booking getTicket(@PathVariable String pnr) {
-        return bookingService.getTicket(pnr);
+    public TicketDetails getTicket(@PathVariable String pnr) {
+        return ticketService.getTicketDetails(pnr);
     }
 
     @GetMapping("/booking/history/{email}")
-    public List<Booking> getHistory(@PathVariable String email) {
+    public List<BookingSummary> getHistory(@PathVariable String email) {
         return bookingService.getHistory(email);
     }
 
+    @GetMapping("/booking/history/{email}/page")
+    public BookingHistoryPage getHistoryPage(@PathVariable String email,
+                                             @RequestParam(required = false) Long after,
+                                             @RequestParam(defaultValue = "20") int size) {
+        return bookingService.getHistoryPage(email, after, size);
+    }
+
+    // one BookingSummary per line, written as the pages come back from the database
+    @GetMapping("/booking/history/{email}/stream")
+    public ResponseEntity<StreamingResponseBody> streamHistory(@PathVariable String email) {
+        Stream<BookingSummary> history = bookingService.streamHistory(email);
+
+        StreamingResponseBody body = out -> {
+            try (history) {
+                history.forEach(summary -> {
+                    try {
+                        out.write(summaryWriter.writeValueAsBytes(summary));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
     @DeleteMapping("/booking/cancel/{pnr}")
     public String cancelTicket(@PathVariable String pnr) {
         bookingService.cancelTicket(pnr);
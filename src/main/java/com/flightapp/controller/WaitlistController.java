@@ -0,0 +1,39 @@
+package com.flightapp.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import com.flightapp.request.BookingRequest;
+import com.flightapp.response.WaitlistDetails;
+import com.flightapp.service.WaitlistService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/v1.0/flight")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    // only for sold out flights, promoted in join order. poll the entry until it is PROMOTED,
+    // its hold pnr then has to be confirmed before the hold expires
+    @PostMapping("/waitlist/join/{flightId}")
+    public WaitlistDetails join(
+            @PathVariable Long flightId,
+            @Valid @RequestBody BookingRequest req) {
+
+        return waitlistService.join(flightId, req);
+    }
+
+    @GetMapping("/waitlist/entry/{entryId}")
+    public WaitlistDetails getEntry(@PathVariable Long entryId) {
+        return waitlistService.get(entryId);
+    }
+
+    @DeleteMapping("/waitlist/entry/{entryId}")
+    public String withdraw(@PathVariable Long entryId) {
+        waitlistService.withdraw(entryId);
+        return "Waitlist entry withdrawn";
+    }
+}
@@ -0,0 +1,7 @@
+package com.flightapp.event;
+
+import java.util.List;
+
+// a booking changed status (cancelled, confirmed, released, expired), keyed by its PNRs
+public record BookingChangedEvent(List<String> pnrs) {
+}
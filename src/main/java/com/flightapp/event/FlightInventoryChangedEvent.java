@@ -0,0 +1,7 @@
+package com.flightapp.event;
+
+import com.flightapp.model.FlightInventory;
+
+// published whenever a flight is added or its seat count changes
+public record FlightInventoryChangedEvent(FlightInventory flight) {
+}
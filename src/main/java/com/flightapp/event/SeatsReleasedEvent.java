@@ -0,0 +1,5 @@
+package com.flightapp.event;
+
+// seats went back to a flight (cancellation, released or expired hold), waitlisted customers may fit now
+public record SeatsReleasedEvent(Long flightId, int seats) {
+}
@@ -0,0 +1,8 @@
+package com.flightapp.event;
+
+import java.time.Instant;
+
+// a waitlisted customer got seats, held under pnr until holdExpiresAt. WaitlistNotifier tells them
+public record WaitlistPromotedEvent(Long entryId, Long flightId, String contactEmail, String pnr,
+                                    Instant holdExpiresAt) {
+}
@@ -12,7 +12,6 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import com.flightapp.model.CityEnum;
 import com.flightapp.model.MealType;
 import com.flightapp.model.TripType;
 
@@ -55,11 +54,6 @@ public class GlobalErrorHandler {
 
             Class<?> targetType = invalidEx.getTargetType();
 
-            if (targetType == CityEnum.class) {
-                error.put(errorMessage, "Invalid city. Allowed values: " + Arrays.toString(CityEnum.values()));
-                return error;
-            }
-
             if (targetType == TripType.class) {
                 error.put(errorMessage, "Invalid trip type. Allowed values: " + Arrays.toString(TripType.values()));
                 return error;
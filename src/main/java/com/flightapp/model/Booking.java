@@ -1,23 +1,33 @@
 package com.flightapp.model;
 
 import jakarta.persistence.*;
+import java.time.Instant;
 
 @Entity
-@Table(name = "booking")
+@Table(name = "booking",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_booking_pnr_outbound", columnNames = "pnrOutbound"),
+                @UniqueConstraint(name = "uk_booking_pnr_return", columnNames = "pnrReturn")
+        },
+        indexes = {
+                @Index(name = "idx_booking_contact_email", columnList = "contactEmail, bookingId"),
+                @Index(name = "idx_booking_status_hold", columnList = "status, holdExpiresAt")
+        })
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long bookingId;
 
     @Enumerated(EnumType.STRING)
     private TripType tripType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "outbound_flight_id", nullable = false)
     private FlightInventory outboundFlight;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "return_flight_id")
     private FlightInventory returnFlight;
 
@@ -34,6 +44,9 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    // only set while the booking is HELD
+    private Instant holdExpiresAt;
+
 	public Long getBookingId() {
 		return bookingId;
 	}
@@ -114,6 +127,14 @@ public class Booking {
 		this.status = status;
 	}
 
+	public Instant getHoldExpiresAt() {
+		return holdExpiresAt;
+	}
+
+	public void setHoldExpiresAt(Instant holdExpiresAt) {
+		this.holdExpiresAt = holdExpiresAt;
+	}
+
     
     
 }
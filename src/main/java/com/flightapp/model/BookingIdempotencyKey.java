@@ -0,0 +1,56 @@
+package com.flightapp.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// an Idempotency-Key already used for a booking, see BookingIdempotency
+@Entity
+@Table(name = "booking_idempotency",
+        indexes = @Index(name = "idx_booking_idempotency_created", columnList = "createdAt"))
+public class BookingIdempotencyKey {
+
+    @Id
+    private String idempotencyKey;
+
+    // sha-256 of the flight id and request body, a key reused for another booking is refused
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // set in the booking transaction, so it is never null once the row is visible to others
+    private String pnr;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+
+	public void setIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+	}
+
+	public String getRequestHash() {
+		return requestHash;
+	}
+
+	public void setRequestHash(String requestHash) {
+		this.requestHash = requestHash;
+	}
+
+	public String getPnr() {
+		return pnr;
+	}
+
+	public void setPnr(String pnr) {
+		this.pnr = pnr;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+}
@@ -1,6 +1,7 @@
 package com.flightapp.model;
 
+// HELD keeps the seats until holdExpiresAt, then becomes CONFIRMED, or EXPIRED if nobody confirmed it
 public enum BookingStatus {
-	CONFIRMED,CANCELLED
+	CONFIRMED,CANCELLED,HELD,EXPIRED
 
 }
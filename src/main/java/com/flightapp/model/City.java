@@ -0,0 +1,44 @@
+package com.flightapp.model;
+
+import jakarta.persistence.*;
+
+// a city flights leave from or arrive at. flights store the city code, the city table holds the
+// valid codes (V9 adds the foreign keys)
+@Entity
+@Table(name = "city")
+public class City {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long cityId;
+
+    @Column(nullable = false, unique = true)
+    private String cityCode;
+
+    @Column(nullable = false)
+    private String cityName;
+
+	public Long getCityId() {
+		return cityId;
+	}
+
+	public void setCityId(Long cityId) {
+		this.cityId = cityId;
+	}
+
+	public String getCityCode() {
+		return cityCode;
+	}
+
+	public void setCityCode(String cityCode) {
+		this.cityCode = cityCode;
+	}
+
+	public String getCityName() {
+		return cityName;
+	}
+
+	public void setCityName(String cityName) {
+		this.cityName = cityName;
+	}
+}
@@ -1,9 +0,0 @@
-package com.flightapp.model;
-
-public enum CityEnum {
-    DELHI,
-    MUMBAI,
-    CHENNAI,
-    BANGALORE,
-    KOLKATA
-}
@@ -5,27 +5,30 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "flight_inventory")
+@Table(name = "flight_inventory",
+        uniqueConstraints = @UniqueConstraint(name = "uk_flight_number_date", columnNames = {"flight_number", "departure_date"}),
+        indexes = {
+                @Index(name = "idx_flight_route_date", columnList = "source_city, destination_city, departure_date"),
+                @Index(name = "idx_flight_departure_date", columnList = "departure_date")
+        })
 public class FlightInventory {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long flightId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "airline_id", nullable = false)
     private Airline airline;
 
     @Column(name = "flight_number", nullable = false)
     private String flightNumber;
 
-    @Enumerated(EnumType.STRING)
     @Column(name = "source_city", nullable = false)
-    private CityEnum sourceCity;
+    private String sourceCity;
 
-    @Enumerated(EnumType.STRING)
     @Column(name = "destination_city", nullable = false)
-    private CityEnum destinationCity;
+    private String destinationCity;
 
     @Column(name = "departure_date", nullable = false)
     private LocalDate departureDate;
@@ -76,19 +79,19 @@ public class FlightInventory {
 		this.flightNumber = flightNumber;
 	}
 
-	public CityEnum getSourceCity() {
+	public String getSourceCity() {
 		return sourceCity;
 	}
 
-	public void setSourceCity(CityEnum sourceCity) {
+	public void setSourceCity(String sourceCity) {
 		this.sourceCity = sourceCity;
 	}
 
-	public CityEnum getDestinationCity() {
+	public String getDestinationCity() {
 		return destinationCity;
 	}
 
-	public void setDestinationCity(CityEnum destinationCity) {
+	public void setDestinationCity(String destinationCity) {
 		this.destinationCity = destinationCity;
 	}
 
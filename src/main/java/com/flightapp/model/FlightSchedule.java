@@ -0,0 +1,195 @@
+package com.flightapp.model;
+
+import jakarta.persistence.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// "flight X operates Mon/Wed/Fri from A to B". rows in flight_inventory are created from it as
+// the days enter the booking window, see FlightScheduleService
+@Entity
+@Table(name = "flight_schedule",
+        indexes = {
+                @Index(name = "idx_flight_schedule_number", columnList = "flight_number, valid_from"),
+                @Index(name = "idx_flight_schedule_materialized", columnList = "materialized_through")
+        })
+public class FlightSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long scheduleId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "airline_id", nullable = false)
+    private Airline airline;
+
+    @Column(name = "flight_number", nullable = false)
+    private String flightNumber;
+
+    @Column(name = "source_city", nullable = false)
+    private String sourceCity;
+
+    @Column(name = "destination_city", nullable = false)
+    private String destinationCity;
+
+    // one bit per ISO weekday, monday = 1 << 0 ... sunday = 1 << 6
+    @Column(name = "days_of_week", nullable = false)
+    private int daysOfWeek;
+
+    @Column(name = "valid_from", nullable = false)
+    private LocalDate validFrom;
+
+    @Column(name = "valid_to", nullable = false)
+    private LocalDate validTo;
+
+    @Column(name = "departure_time", nullable = false)
+    private LocalTime departureTime;
+
+    @Column(name = "arrival_time", nullable = false)
+    private LocalTime arrivalTime;
+
+    // days between departure and arrival, 1 for a flight landing after midnight
+    @Column(name = "arrival_day_offset", nullable = false)
+    private int arrivalDayOffset;
+
+    @Column(name = "meal_available", nullable = false)
+    private boolean mealAvailable;
+
+    @Column(name = "total_seats", nullable = false)
+    private int totalSeats;
+
+    @Column(name = "price", nullable = false)
+    private double price;
+
+    // last day already expanded into flight_inventory
+    @Column(name = "materialized_through", nullable = false)
+    private LocalDate materializedThrough;
+
+    public static int bit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    public boolean operatesOn(DayOfWeek day) {
+        return (daysOfWeek & bit(day)) != 0;
+    }
+
+	public Long getScheduleId() {
+		return scheduleId;
+	}
+
+	public void setScheduleId(Long scheduleId) {
+		this.scheduleId = scheduleId;
+	}
+
+	public Airline getAirline() {
+		return airline;
+	}
+
+	public void setAirline(Airline airline) {
+		this.airline = airline;
+	}
+
+	public String getFlightNumber() {
+		return flightNumber;
+	}
+
+	public void setFlightNumber(String flightNumber) {
+		this.flightNumber = flightNumber;
+	}
+
+	public String getSourceCity() {
+		return sourceCity;
+	}
+
+	public void setSourceCity(String sourceCity) {
+		this.sourceCity = sourceCity;
+	}
+
+	public String getDestinationCity() {
+		return destinationCity;
+	}
+
+	public void setDestinationCity(String destinationCity) {
+		this.destinationCity = destinationCity;
+	}
+
+	public int getDaysOfWeek() {
+		return daysOfWeek;
+	}
+
+	public void setDaysOfWeek(int daysOfWeek) {
+		this.daysOfWeek = daysOfWeek;
+	}
+
+	public LocalDate getValidFrom() {
+		return validFrom;
+	}
+
+	public void setValidFrom(LocalDate validFrom) {
+		this.validFrom = validFrom;
+	}
+
+	public LocalDate getValidTo() {
+		return validTo;
+	}
+
+	public void setValidTo(LocalDate validTo) {
+		this.validTo = validTo;
+	}
+
+	public LocalTime getDepartureTime() {
+		return departureTime;
+	}
+
+	public void setDepartureTime(LocalTime departureTime) {
+		this.departureTime = departureTime;
+	}
+
+	public LocalTime getArrivalTime() {
+		return arrivalTime;
+	}
+
+	public void setArrivalTime(LocalTime arrivalTime) {
+		this.arrivalTime = arrivalTime;
+	}
+
+	public int getArrivalDayOffset() {
+		return arrivalDayOffset;
+	}
+
+	public void setArrivalDayOffset(int arrivalDayOffset) {
+		this.arrivalDayOffset = arrivalDayOffset;
+	}
+
+	public boolean isMealAvailable() {
+		return mealAvailable;
+	}
+
+	public void setMealAvailable(boolean mealAvailable) {
+		this.mealAvailable = mealAvailable;
+	}
+
+	public int getTotalSeats() {
+		return totalSeats;
+	}
+
+	public void setTotalSeats(int totalSeats) {
+		this.totalSeats = totalSeats;
+	}
+
+	public double getPrice() {
+		return price;
+	}
+
+	public void setPrice(double price) {
+		this.price = price;
+	}
+
+	public LocalDate getMaterializedThrough() {
+		return materializedThrough;
+	}
+
+	public void setMaterializedThrough(LocalDate materializedThrough) {
+		this.materializedThrough = materializedThrough;
+	}
+}
@@ -6,11 +6,13 @@ import jakarta.persistence.*;
 @Table(name = "passenger")
 public class Passenger {
 
+    // pooled ids instead of IDENTITY so inserts can be batched (mysql emulates the sequence with a table)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "passenger_seq")
+    @SequenceGenerator(name = "passenger_seq", sequenceName = "passenger_seq", allocationSize = 50)
     private Long passengerId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id", nullable = false)
     private Booking booking;
 
@@ -0,0 +1,31 @@
+package com.flightapp.model;
+
+import jakarta.persistence.*;
+
+// high water mark of the PNR sequence, instances reserve blocks of it under a row lock
+@Entity
+@Table(name = "pnr_sequence")
+public class PnrSequence {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long nextValue;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public long getNextValue() {
+		return nextValue;
+	}
+
+	public void setNextValue(long nextValue) {
+		this.nextValue = nextValue;
+	}
+}
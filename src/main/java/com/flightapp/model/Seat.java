@@ -3,14 +3,16 @@ package com.flightapp.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "seat_map")
+@Table(name = "seat_map",
+        uniqueConstraints = @UniqueConstraint(name = "uk_seat_map_flight_seat", columnNames = {"flight_id", "seatNo"}))
 public class Seat {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_map_seq")
+    @SequenceGenerator(name = "seat_map_seq", sequenceName = "seat_map_seq", allocationSize = 50)
     private Long seatId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "flight_id", nullable = false)
     private FlightInventory flight;
 
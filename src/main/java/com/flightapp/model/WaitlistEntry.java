@@ -0,0 +1,116 @@
+package com.flightapp.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+// a customer waiting for seats on a sold out flight. promoted in priority order (higher first),
+// then first come first served
+@Entity
+@Table(name = "waitlist_entry",
+        indexes = @Index(name = "idx_waitlist_flight_status", columnList = "flight_id, status, priority, entryId"))
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long entryId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "flight_id", nullable = false)
+    private FlightInventory flight;
+
+    @Column(nullable = false)
+    private int priority;
+
+    @Column(nullable = false)
+    private int passengers;
+
+    @Column(nullable = false)
+    private String contactEmail;
+
+    // the BookingRequest as JSON, booked as a hold on promotion with the seats free at that time
+    @Lob
+    @Column(nullable = false)
+    private String request;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WaitlistStatus status;
+
+    // the held booking once promoted
+    private String pnr;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+	public Long getEntryId() {
+		return entryId;
+	}
+
+	public void setEntryId(Long entryId) {
+		this.entryId = entryId;
+	}
+
+	public FlightInventory getFlight() {
+		return flight;
+	}
+
+	public void setFlight(FlightInventory flight) {
+		this.flight = flight;
+	}
+
+	public int getPriority() {
+		return priority;
+	}
+
+	public void setPriority(int priority) {
+		this.priority = priority;
+	}
+
+	public int getPassengers() {
+		return passengers;
+	}
+
+	public void setPassengers(int passengers) {
+		this.passengers = passengers;
+	}
+
+	public String getContactEmail() {
+		return contactEmail;
+	}
+
+	public void setContactEmail(String contactEmail) {
+		this.contactEmail = contactEmail;
+	}
+
+	public String getRequest() {
+		return request;
+	}
+
+	public void setRequest(String request) {
+		this.request = request;
+	}
+
+	public WaitlistStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(WaitlistStatus status) {
+		this.status = status;
+	}
+
+	public String getPnr() {
+		return pnr;
+	}
+
+	public void setPnr(String pnr) {
+		this.pnr = pnr;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+}
@@ -0,0 +1,6 @@
+package com.flightapp.model;
+
+public enum WaitlistStatus {
+	WAITING,PROMOTED,WITHDRAWN
+
+}
@@ -0,0 +1,32 @@
+package com.flightapp.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.flightapp.model.BookingIdempotencyKey;
+
+public interface BookingIdempotencyRepository extends JpaRepository<BookingIdempotencyKey, String> {
+
+	// a plain insert instead of save(), which would select first. a key already taken fails on
+	// the primary key, one still being booked elsewhere blocks until that transaction ends
+	@Modifying
+	@Query(value = "INSERT INTO booking_idempotency (idempotencyKey, requestHash, createdAt) "
+	        + "VALUES (:key, :requestHash, :createdAt)", nativeQuery = true)
+	int claim(@Param("key") String key,
+	          @Param("requestHash") String requestHash,
+	          @Param("createdAt") Instant createdAt);
+
+	@Modifying
+	@Query("UPDATE BookingIdempotencyKey k SET k.pnr = :pnr WHERE k.idempotencyKey = :key")
+	int recordPnr(@Param("key") String key, @Param("pnr") String pnr);
+
+	@Transactional
+	@Modifying
+	@Query("DELETE FROM BookingIdempotencyKey k WHERE k.createdAt < :cutoff")
+	int deleteCreatedBefore(@Param("cutoff") Instant cutoff);
+}
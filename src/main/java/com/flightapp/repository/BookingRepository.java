@@ -1,15 +1,95 @@
 package com.flightapp.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import com.flightapp.model.Booking;
+import com.flightapp.response.BookingSummary;
+import com.flightapp.response.TicketDetails;
+
+import jakarta.persistence.LockModeType;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    Optional<Booking> findByPnrOutbound(String pnr);
-    Optional<Booking> findByPnrReturn(String pnr);
+    // a PNR names the booking through either leg. one statement for both columns, the OR over two
+    // unique keys is planned as an index merge. associations are lazy, ticket lookups and
+    // cancellation use both legs so they come in the same select
+    String BY_PNR = "(b.pnrOutbound = :pnr OR b.pnrReturn = :pnr)";
+
+    @EntityGraph(attributePaths = {"outboundFlight", "returnFlight"})
+    @Query("SELECT b FROM Booking b WHERE " + BY_PNR)
+    Optional<Booking> findByPnr(@Param("pnr") String pnr);
+
+    String SELECT_SUMMARY = "SELECT new com.flightapp.response.BookingSummary(b.bookingId, b.pnrOutbound, "
+            + "b.pnrReturn, b.tripType, b.status, b.totalPassengers, o.flightNumber, o.departureDate, "
+            + "r.flightNumber, r.departureDate) "
+            + "FROM Booking b JOIN b.outboundFlight o LEFT JOIN b.returnFlight r ";
+
+    // the ticket with both legs and their airlines in one statement, no entities loaded
+    @Query("SELECT new com.flightapp.response.TicketDetails(b.bookingId, b.pnrOutbound, b.pnrReturn, "
+            + "b.tripType, b.status, b.contactName, b.contactEmail, b.totalPassengers, "
+            + "o.flightId, o.flightNumber, oa.airlineName, o.sourceCity, o.destinationCity, "
+            + "o.departureDate, o.departureTime, o.arrivalDate, o.arrivalTime, "
+            + "r.flightId, r.flightNumber, ra.airlineName, r.sourceCity, r.destinationCity, "
+            + "r.departureDate, r.departureTime, r.arrivalDate, r.arrivalTime) "
+            + "FROM Booking b JOIN b.outboundFlight o JOIN o.airline oa "
+            + "LEFT JOIN b.returnFlight r LEFT JOIN r.airline ra "
+            + "WHERE " + BY_PNR)
+    Optional<TicketDetails> findTicket(@Param("pnr") String pnr);
+
+    @Query(SELECT_SUMMARY + "WHERE b.contactEmail = :email ORDER BY b.bookingId DESC")
+    List<BookingSummary> findHistory(@Param("email") String email);
+
+    // newest first, keyset on bookingId so deep pages cost the same as the first one
+    @Query(SELECT_SUMMARY + "WHERE b.contactEmail = :email AND b.bookingId < :before "
+            + "ORDER BY b.bookingId DESC")
+    List<BookingSummary> findHistoryPage(@Param("email") String email,
+                                         @Param("before") Long before,
+                                         Pageable page);
+
+    // seat holds. the expiry timer wheel is in memory, it is refilled from the open holds on startup
+    @Query("SELECT b.pnrOutbound AS pnr, b.holdExpiresAt AS expiresAt FROM Booking b "
+            + "WHERE b.status = com.flightapp.model.BookingStatus.HELD")
+    List<HoldDeadline> findOpenHolds();
+
+    // holds past their expiry that no timer released, e.g. placed by an instance that went away
+    @Query("SELECT b.pnrOutbound FROM Booking b WHERE b.status = com.flightapp.model.BookingStatus.HELD "
+            + "AND b.holdExpiresAt <= :now ORDER BY b.holdExpiresAt")
+    List<String> findExpiredHolds(@Param("now") Instant now, Pageable page);
+
+    // locked, so a confirm or release racing the expiry waits for it and then finds the hold gone
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = {"outboundFlight", "returnFlight"})
+    @Query("SELECT b FROM Booking b WHERE b.pnrOutbound IN :pnrs "
+            + "AND b.status = com.flightapp.model.BookingStatus.HELD AND b.holdExpiresAt <= :now "
+            + "ORDER BY b.bookingId")
+    List<Booking> lockExpiredHolds(@Param("pnrs") Collection<String> pnrs, @Param("now") Instant now);
+
+    // conditional, 0 means the hold had already expired or was released
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.flightapp.model.BookingStatus.CONFIRMED, b.holdExpiresAt = null "
+            + "WHERE b.pnrOutbound = :pnr AND b.status = com.flightapp.model.BookingStatus.HELD "
+            + "AND b.holdExpiresAt > :now")
+    int confirmHold(@Param("pnr") String pnr, @Param("now") Instant now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.flightapp.model.BookingStatus.CANCELLED, b.holdExpiresAt = null "
+            + "WHERE b.bookingId = :bookingId AND b.status = com.flightapp.model.BookingStatus.HELD")
+    int releaseHold(@Param("bookingId") Long bookingId);
 
-    List<Booking> findByContactEmail(String email);
+    // conditional, 0 means a concurrent cancel got there first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.flightapp.model.BookingStatus.CANCELLED "
+            + "WHERE b.bookingId = :bookingId AND b.status = com.flightapp.model.BookingStatus.CONFIRMED")
+    int cancelConfirmed(@Param("bookingId") Long bookingId);
 }
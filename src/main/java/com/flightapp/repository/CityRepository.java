@@ -0,0 +1,7 @@
+package com.flightapp.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.flightapp.model.City;
+
+public interface CityRepository extends JpaRepository<City, Long> {
+}
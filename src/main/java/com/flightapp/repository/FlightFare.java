@@ -0,0 +1,14 @@
+package com.flightapp.repository;
+
+import java.time.LocalDate;
+
+public interface FlightFare {
+
+    Long getFlightId();
+
+    LocalDate getDepartureDate();
+
+    double getPrice();
+
+    int getAvailableSeats();
+}
@@ -1,20 +1,84 @@
 package com.flightapp.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import com.flightapp.model.CityEnum;
 import com.flightapp.model.FlightInventory;
+import com.flightapp.response.FlightSummary;
 
 public interface FlightInventoryRepository extends JpaRepository<FlightInventory, Long> {
-	List<FlightInventory> findBySourceCityAndDestinationCityAndDepartureDate(
-	        CityEnum sourceCity,
-	        CityEnum destinationCity,
-	        LocalDate departureDate
-	);
+
+	String SELECT_SUMMARY = "SELECT new com.flightapp.response.FlightSummary(f.flightId, f.flightNumber, "
+	        + "a.airlineCode, a.airlineName, f.sourceCity, f.destinationCity, f.departureDate, f.departureTime, "
+	        + "f.arrivalDate, f.arrivalTime, f.mealAvailable, f.availableSeats, f.price) "
+	        + "FROM FlightInventory f JOIN f.airline a ";
+
+	// search results with their airline in one statement
+	@Query(SELECT_SUMMARY + "WHERE f.sourceCity = :source AND f.destinationCity = :destination "
+	        + "AND f.departureDate = :date")
+	List<FlightSummary> findFlights(@Param("source") String source,
+	                                @Param("destination") String destination,
+	                                @Param("date") LocalDate date);
+
+	// only what the fare calendar keeps per flight
+	@Query("SELECT f.flightId AS flightId, f.departureDate AS departureDate, f.price AS price, "
+	        + "f.availableSeats AS availableSeats FROM FlightInventory f "
+	        + "WHERE f.sourceCity = :source AND f.destinationCity = :destination "
+	        + "AND f.departureDate BETWEEN :from AND :to")
+	List<FlightFare> findFaresBetween(@Param("source") String source,
+	                                  @Param("destination") String destination,
+	                                  @Param("from") LocalDate from,
+	                                  @Param("to") LocalDate to);
+
 	boolean existsByFlightNumberAndDepartureDate(String flightNumber, LocalDate departureDate);
 
+	// duplicate check for a chunk of an upload, a superset of the pairs asked for (every number on
+	// every date), the caller keeps the exact matches. served by uk_flight_number_date
+	@Query("SELECT f.flightNumber AS flightNumber, f.departureDate AS departureDate FROM FlightInventory f "
+	        + "WHERE f.flightNumber IN :flightNumbers AND f.departureDate IN :dates")
+	List<FlightKey> findExistingKeys(@Param("flightNumbers") Collection<String> flightNumbers,
+	                                 @Param("dates") Collection<LocalDate> dates);
+
+	// both legs of a round trip in one round trip to the database
+	@Query(SELECT_SUMMARY + "WHERE "
+	        + "(f.sourceCity = :source AND f.destinationCity = :destination AND f.departureDate = :travelDate) "
+	        + "OR (f.sourceCity = :destination AND f.destinationCity = :source AND f.departureDate = :returnDate)")
+	List<FlightSummary> findRoundTripLegs(@Param("source") String source,
+	                                        @Param("destination") String destination,
+	                                        @Param("travelDate") LocalDate travelDate,
+	                                        @Param("returnDate") LocalDate returnDate);
+
+	// every route at once, the connection graph is built a few days at a time from these.
+	// served by idx_flight_departure_date
+	@Query(SELECT_SUMMARY + "WHERE f.departureDate BETWEEN :from AND :to")
+	List<FlightSummary> findFlightsDepartingBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Query("SELECT f.availableSeats FROM FlightInventory f WHERE f.flightId = :flightId")
+	Optional<Integer> findAvailableSeats(@Param("flightId") Long flightId);
+
+	@Query("SELECT f.flightId AS flightId, f.availableSeats AS availableSeats "
+	        + "FROM FlightInventory f WHERE f.departureDate >= :from")
+	List<FlightSeatCount> findSeatCountsDepartingFrom(@Param("from") LocalDate from);
+
+	// conditional seat updates, return the number of rows changed (0 means the condition failed)
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE FlightInventory f SET f.availableSeats = f.availableSeats - :seats "
+	        + "WHERE f.flightId = :flightId AND f.availableSeats >= :seats")
+	int decrementAvailableSeats(@Param("flightId") Long flightId, @Param("seats") int seats);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE FlightInventory f SET f.availableSeats = f.availableSeats + :seats "
+	        + "WHERE f.flightId = :flightId AND f.availableSeats + :seats <= f.totalSeats")
+	int incrementAvailableSeats(@Param("flightId") Long flightId, @Param("seats") int seats);
 
 }
@@ -0,0 +1,10 @@
+package com.flightapp.repository;
+
+import java.time.LocalDate;
+
+public interface FlightKey {
+
+    String getFlightNumber();
+
+    LocalDate getDepartureDate();
+}
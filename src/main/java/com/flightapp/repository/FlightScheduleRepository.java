@@ -0,0 +1,35 @@
+package com.flightapp.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.flightapp.model.FlightSchedule;
+
+public interface FlightScheduleRepository extends JpaRepository<FlightSchedule, Long> {
+
+	// schedules with days left to expand before the end of the booking window
+	@Query("SELECT s.scheduleId FROM FlightSchedule s "
+	        + "WHERE s.materializedThrough < s.validTo AND s.materializedThrough < :horizon")
+	List<Long> findDueForExpansion(@Param("horizon") LocalDate horizon);
+
+	// two schedules for one flight number on the same days would clash on uk_flight_number_date
+	@Query("SELECT COUNT(s) > 0 FROM FlightSchedule s WHERE s.flightNumber = :flightNumber "
+	        + "AND s.validFrom <= :validTo AND s.validTo >= :validFrom")
+	boolean existsOverlapping(@Param("flightNumber") String flightNumber,
+	                          @Param("validFrom") LocalDate validFrom,
+	                          @Param("validTo") LocalDate validTo);
+
+	// claims the days after :from for the caller, 0 means another instance expanded them first.
+	// the row stays locked until the caller's transaction ends
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE FlightSchedule s SET s.materializedThrough = :through "
+	        + "WHERE s.scheduleId = :scheduleId AND s.materializedThrough = :from")
+	int advanceMaterialized(@Param("scheduleId") Long scheduleId,
+	                        @Param("from") LocalDate from,
+	                        @Param("through") LocalDate through);
+}
@@ -0,0 +1,8 @@
+package com.flightapp.repository;
+
+public interface FlightSeatCount {
+
+    Long getFlightId();
+
+    int getAvailableSeats();
+}
@@ -0,0 +1,10 @@
+package com.flightapp.repository;
+
+import java.time.Instant;
+
+public interface HoldDeadline {
+
+    String getPnr();
+
+    Instant getExpiresAt();
+}
@@ -1,7 +1,15 @@
 package com.flightapp.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.flightapp.model.Passenger;
 
 public interface PassengerRepository extends JpaRepository<Passenger, Long> {
+
+    List<Passenger> findByBookingBookingId(Long bookingId);
+
+    // passengers of a batch of expired holds in one select
+    List<Passenger> findByBookingBookingIdIn(Collection<Long> bookingIds);
 }
@@ -0,0 +1,26 @@
+package com.flightapp.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.flightapp.model.PnrSequence;
+
+import jakarta.persistence.LockModeType;
+
+public interface PnrSequenceRepository extends JpaRepository<PnrSequence, String> {
+
+    // locked until the reserving transaction ends, so no other instance or thread reads the same value
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PnrSequence s WHERE s.name = :name")
+    Optional<PnrSequence> lockByName(@Param("name") String name);
+
+    // conditional, 0 means the row moved on since it was read
+    @Modifying
+    @Query("UPDATE PnrSequence s SET s.nextValue = :next WHERE s.name = :name AND s.nextValue = :current")
+    int advance(@Param("name") String name, @Param("current") long current, @Param("next") long next);
+}
@@ -1,7 +1,22 @@
 package com.flightapp.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import com.flightapp.model.Seat;
 
 public interface SeatRepository extends JpaRepository<Seat, Long> {
+
+    List<Seat> findByFlightFlightId(Long flightId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.flight.flightId = :flightId AND s.seatNo IN :seatNos")
+    int deleteByFlightIdAndSeatNos(@Param("flightId") Long flightId, @Param("seatNos") Collection<String> seatNos);
 }
@@ -0,0 +1,41 @@
+package com.flightapp.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.flightapp.model.WaitlistEntry;
+
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+	// next in line that would fit in the seats left, highest priority first, then oldest
+	@Query("SELECT w FROM WaitlistEntry w WHERE w.flight.flightId = :flightId "
+	        + "AND w.status = com.flightapp.model.WaitlistStatus.WAITING AND w.passengers <= :seats "
+	        + "ORDER BY w.priority DESC, w.entryId")
+	List<WaitlistEntry> findWaiting(@Param("flightId") Long flightId, @Param("seats") int seats, Pageable page);
+
+	// flights where someone waiting would fit, for the sweep
+	@Query("SELECT DISTINCT f.flightId FROM WaitlistEntry w JOIN w.flight f "
+	        + "WHERE w.status = com.flightapp.model.WaitlistStatus.WAITING AND w.passengers <= f.availableSeats")
+	List<Long> findFlightsToPromote();
+
+	// conditional status changes, 0 means the entry was no longer waiting. claim keeps the row
+	// locked, a second promotion pass for the same entry waits and then gets 0
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE WaitlistEntry w SET w.status = com.flightapp.model.WaitlistStatus.PROMOTED "
+	        + "WHERE w.entryId = :entryId AND w.status = com.flightapp.model.WaitlistStatus.WAITING")
+	int claim(@Param("entryId") Long entryId);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE WaitlistEntry w SET w.pnr = :pnr WHERE w.entryId = :entryId")
+	int recordPnr(@Param("entryId") Long entryId, @Param("pnr") String pnr);
+
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE WaitlistEntry w SET w.status = com.flightapp.model.WaitlistStatus.WITHDRAWN "
+	        + "WHERE w.entryId = :entryId AND w.status = com.flightapp.model.WaitlistStatus.WAITING")
+	int withdraw(@Param("entryId") Long entryId);
+}
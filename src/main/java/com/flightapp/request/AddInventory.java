@@ -4,7 +4,6 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import com.flightapp.model.CityEnum;
 
 public class AddInventory {
 
@@ -14,11 +13,11 @@ public class AddInventory {
     @NotBlank
     private String flightNumber;
 
-    @NotNull
-    private CityEnum sourceCity;
+    @NotBlank
+    private String sourceCity;
 
-    @NotNull
-    private CityEnum destinationCity;
+    @NotBlank
+    private String destinationCity;
 
     @NotNull
     private LocalDate departureDate;
@@ -55,17 +54,17 @@ public class AddInventory {
     	this.flightNumber = flightNumber; 
     }
 
-    public CityEnum getSourceCity() { 
+    public String getSourceCity() { 
     	return sourceCity; 
     }
-    public void setSourceCity(CityEnum sourceCity) { 
+    public void setSourceCity(String sourceCity) { 
     	this.sourceCity = sourceCity; 
     }
 
-    public CityEnum getDestinationCity() { 
+    public String getDestinationCity() { 
     	return destinationCity; 
     }
-    public void setDestinationCity(CityEnum destinationCity) { 
+    public void setDestinationCity(String destinationCity) { 
     	this.destinationCity = destinationCity; 
     }
 
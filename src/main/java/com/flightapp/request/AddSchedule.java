@@ -0,0 +1,155 @@
+package com.flightapp.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotBlank;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+// a flight that repeats on the given weekdays between validFrom and validTo (inclusive)
+public class AddSchedule {
+
+    @NotNull
+    private Long airlineId;
+
+    @NotBlank
+    private String flightNumber;
+
+    @NotBlank
+    private String sourceCity;
+
+    @NotBlank
+    private String destinationCity;
+
+    @NotEmpty
+    private Set<DayOfWeek> daysOfWeek;
+
+    @NotNull
+    private LocalDate validFrom;
+
+    @NotNull
+    private LocalDate validTo;
+
+    @NotNull
+    private LocalTime departureTime;
+
+    @NotNull
+    private LocalTime arrivalTime;
+
+    // 1 when the flight lands the day after it departs
+    private int arrivalDayOffset;
+
+    @NotNull
+    private Integer totalSeats;
+
+    @NotNull
+    private Double price;
+
+    private boolean mealAvailable;
+
+    public Long getAirlineId() {
+        return airlineId;
+    }
+
+    public void setAirlineId(Long airlineId) {
+        this.airlineId = airlineId;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public void setFlightNumber(String flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+
+    public String getSourceCity() {
+        return sourceCity;
+    }
+
+    public void setSourceCity(String sourceCity) {
+        this.sourceCity = sourceCity;
+    }
+
+    public String getDestinationCity() {
+        return destinationCity;
+    }
+
+    public void setDestinationCity(String destinationCity) {
+        this.destinationCity = destinationCity;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        return daysOfWeek;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(LocalTime departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public LocalTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(LocalTime arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public int getArrivalDayOffset() {
+        return arrivalDayOffset;
+    }
+
+    public void setArrivalDayOffset(int arrivalDayOffset) {
+        this.arrivalDayOffset = arrivalDayOffset;
+    }
+
+    public Integer getTotalSeats() {
+        return totalSeats;
+    }
+
+    public void setTotalSeats(Integer totalSeats) {
+        this.totalSeats = totalSeats;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public boolean isMealAvailable() {
+        return mealAvailable;
+    }
+
+    public void setMealAvailable(boolean mealAvailable) {
+        this.mealAvailable = mealAvailable;
+    }
+}
@@ -2,18 +2,21 @@ package com.flightapp.request;
 
 import java.time.LocalDate;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import com.flightapp.model.CityEnum;
+import com.flightapp.model.ItinerarySort;
 import com.flightapp.model.TripType;
 
 public class FlightSearchRequest {
 
-    @NotNull(message = "Source city is required")
-    private CityEnum sourceCity;
+    @NotBlank(message = "Source city is required")
+    private String sourceCity;  // a city code from the city registry
 
-    @NotNull(message = "Destination city is required")
-    private CityEnum destinationCity;
+    @NotBlank(message = "Destination city is required")
+    private String destinationCity;
 
     @NotNull(message = "Travel date is required")
     private LocalDate travelDate;
@@ -23,21 +26,31 @@ public class FlightSearchRequest {
 
     private LocalDate returnDate;  // only required for round-trip
 
+    @Min(value = 0, message = "Flexible days cannot be negative")
+    @Max(value = 7, message = "Flexible days cannot be more than 7")
+    private Integer flexibleDays;  // only used by the flexible date search, defaults to 3
+
+    @Min(value = 0, message = "Max stops cannot be negative")
+    @Max(value = 2, message = "Max stops cannot be more than 2")
+    private Integer maxStops;  // only used by the connection search, defaults to 2
+
+    private ItinerarySort sortBy;  // only used by the connection search, defaults to DURATION
+
 
     // Getters & Setters
-    public CityEnum getSourceCity() {
+    public String getSourceCity() {
         return sourceCity;
     }
 
-    public void setSourceCity(CityEnum sourceCity) {
+    public void setSourceCity(String sourceCity) {
         this.sourceCity = sourceCity;
     }
 
-    public CityEnum getDestinationCity() {
+    public String getDestinationCity() {
         return destinationCity;
     }
 
-    public void setDestinationCity(CityEnum destinationCity) {
+    public void setDestinationCity(String destinationCity) {
         this.destinationCity = destinationCity;
     }
 
@@ -64,4 +77,28 @@ public class FlightSearchRequest {
     public void setReturnDate(LocalDate returnDate) {
         this.returnDate = returnDate;
     }
+
+    public Integer getFlexibleDays() {
+        return flexibleDays;
+    }
+
+    public void setFlexibleDays(Integer flexibleDays) {
+        this.flexibleDays = flexibleDays;
+    }
+
+    public Integer getMaxStops() {
+        return maxStops;
+    }
+
+    public void setMaxStops(Integer maxStops) {
+        this.maxStops = maxStops;
+    }
+
+    public ItinerarySort getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(ItinerarySort sortBy) {
+        this.sortBy = sortBy;
+    }
 }
@@ -0,0 +1,7 @@
+package com.flightapp.response;
+
+import java.util.List;
+
+// nextCursor is the bookingId to pass as "after" for the next page, null on the last page
+public record BookingHistoryPage(List<BookingSummary> bookings, Long nextCursor) {
+}
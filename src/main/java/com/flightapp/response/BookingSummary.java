@@ -0,0 +1,19 @@
+package com.flightapp.response;
+
+import java.time.LocalDate;
+
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.TripType;
+
+public record BookingSummary(
+        Long bookingId,
+        String pnrOutbound,
+        String pnrReturn,
+        TripType tripType,
+        BookingStatus status,
+        int totalPassengers,
+        String outboundFlightNumber,
+        LocalDate outboundDepartureDate,
+        String returnFlightNumber,
+        LocalDate returnDepartureDate) {
+}
@@ -0,0 +1,11 @@
+package com.flightapp.response;
+
+import java.util.List;
+
+// row numbers count flights in upload order from 1 (the CSV header is not a row). errors holds
+// the first rejected rows only, rejected is the full count
+public record BulkInventoryResult(int rows, int inserted, int rejected, List<RowError> errors) {
+
+    public record RowError(int row, String flightNumber, String message) {
+    }
+}
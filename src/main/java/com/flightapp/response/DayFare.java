@@ -0,0 +1,7 @@
+package com.flightapp.response;
+
+import java.time.LocalDate;
+
+// lowestPrice is null when nothing with free seats flies that day
+public record DayFare(LocalDate date, Double lowestPrice, int availableSeats, int flightCount) {
+}
@@ -0,0 +1,34 @@
+package com.flightapp.response;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.flightapp.model.FlightInventory;
+
+public record FlightLeg(
+        Long flightId,
+        String flightNumber,
+        String airlineName,
+        String sourceCity,
+        String destinationCity,
+        LocalDate departureDate,
+        LocalTime departureTime,
+        LocalDate arrivalDate,
+        LocalTime arrivalTime) {
+
+    public static FlightLeg of(FlightInventory flight) {
+        if (flight == null) {
+            return null;
+        }
+        return new FlightLeg(
+                flight.getFlightId(),
+                flight.getFlightNumber(),
+                flight.getAirline() == null ? null : flight.getAirline().getAirlineName(),
+                flight.getSourceCity(),
+                flight.getDestinationCity(),
+                flight.getDepartureDate(),
+                flight.getDepartureTime(),
+                flight.getArrivalDate(),
+                flight.getArrivalTime());
+    }
+}
@@ -0,0 +1,48 @@
+package com.flightapp.response;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.flightapp.model.Airline;
+import com.flightapp.model.FlightInventory;
+
+// what a search result shows for one flight, selected straight into this record so no entity
+// (and no eager airline fetch) is loaded for it
+public record FlightSummary(
+        Long flightId,
+        String flightNumber,
+        String airlineCode,
+        String airlineName,
+        String sourceCity,
+        String destinationCity,
+        LocalDate departureDate,
+        LocalTime departureTime,
+        LocalDate arrivalDate,
+        LocalTime arrivalTime,
+        boolean mealAvailable,
+        int availableSeats,
+        double price) {
+
+    public static FlightSummary of(FlightInventory flight) {
+        Airline airline = flight.getAirline();
+        return new FlightSummary(
+                flight.getFlightId(),
+                flight.getFlightNumber(),
+                airline == null ? null : airline.getAirlineCode(),
+                airline == null ? null : airline.getAirlineName(),
+                flight.getSourceCity(),
+                flight.getDestinationCity(),
+                flight.getDepartureDate(),
+                flight.getDepartureTime(),
+                flight.getArrivalDate(),
+                flight.getArrivalTime(),
+                flight.isMealAvailable(),
+                flight.getAvailableSeats(),
+                flight.getPrice());
+    }
+
+    public FlightSummary withAvailableSeats(int seats) {
+        return new FlightSummary(flightId, flightNumber, airlineCode, airlineName, sourceCity, destinationCity,
+                departureDate, departureTime, arrivalDate, arrivalTime, mealAvailable, seats, price);
+    }
+}
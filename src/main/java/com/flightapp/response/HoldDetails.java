@@ -0,0 +1,7 @@
+package com.flightapp.response;
+
+import java.time.Instant;
+
+// a HELD booking, the seats are released at expiresAt unless it is confirmed before
+public record HoldDetails(TicketDetails ticket, Instant expiresAt) {
+}
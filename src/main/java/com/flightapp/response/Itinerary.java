@@ -0,0 +1,15 @@
+package com.flightapp.response;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// one to three flights, each leaving at least the minimum layover after the one before lands.
+// durationMinutes runs from the first departure to the last arrival, layovers included
+public record Itinerary(
+        List<FlightSummary> legs,
+        int stops,
+        LocalDateTime departure,
+        LocalDateTime arrival,
+        long durationMinutes,
+        double totalPrice) {
+}
@@ -0,0 +1,4 @@
+package com.flightapp.response;
+
+public record RoundTripOption(Long outboundFlightId, Long returnFlightId, double totalPrice) {
+}
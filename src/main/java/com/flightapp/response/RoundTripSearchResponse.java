@@ -0,0 +1,9 @@
+package com.flightapp.response;
+
+import java.util.List;
+
+public record RoundTripSearchResponse(
+        List<FlightSummary> outboundFlights,
+        List<FlightSummary> returnFlights,
+        List<RoundTripOption> cheapestOptions) {
+}
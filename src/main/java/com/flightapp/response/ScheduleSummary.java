@@ -0,0 +1,48 @@
+package com.flightapp.response;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.flightapp.model.FlightSchedule;
+
+// flightsCreated counts the flight_inventory rows the call added, later days follow as the
+// booking window moves forward. materializedThrough is the last day expanded so far
+public record ScheduleSummary(
+        Long scheduleId,
+        String flightNumber,
+        String sourceCity,
+        String destinationCity,
+        Set<DayOfWeek> daysOfWeek,
+        LocalDate validFrom,
+        LocalDate validTo,
+        LocalTime departureTime,
+        LocalTime arrivalTime,
+        int arrivalDayOffset,
+        LocalDate materializedThrough,
+        int flightsCreated) {
+
+    public static ScheduleSummary of(FlightSchedule schedule, int flightsCreated) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (schedule.operatesOn(day)) {
+                days.add(day);
+            }
+        }
+        return new ScheduleSummary(
+                schedule.getScheduleId(),
+                schedule.getFlightNumber(),
+                schedule.getSourceCity(),
+                schedule.getDestinationCity(),
+                days,
+                schedule.getValidFrom(),
+                schedule.getValidTo(),
+                schedule.getDepartureTime(),
+                schedule.getArrivalTime(),
+                schedule.getArrivalDayOffset(),
+                schedule.getMaterializedThrough(),
+                flightsCreated);
+    }
+}
@@ -0,0 +1,12 @@
+package com.flightapp.response;
+
+public record SearchCacheStats(
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions,
+        long expirations,
+        long invalidations,
+        int size,
+        int maxEntries) {
+}
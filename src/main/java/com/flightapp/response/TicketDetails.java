@@ -0,0 +1,57 @@
+package com.flightapp.response;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.flightapp.model.Booking;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.TripType;
+
+public record TicketDetails(
+        Long bookingId,
+        String pnrOutbound,
+        String pnrReturn,
+        TripType tripType,
+        BookingStatus status,
+        String contactName,
+        String contactEmail,
+        int totalPassengers,
+        FlightLeg outboundFlight,
+        FlightLeg returnFlight) {
+
+    // flat form for the JPQL constructor expression in BookingRepository.findTicket,
+    // the return leg columns are all null for one-way bookings
+    public TicketDetails(Long bookingId, String pnrOutbound, String pnrReturn, TripType tripType,
+                         BookingStatus status, String contactName, String contactEmail, int totalPassengers,
+                         Long outboundFlightId, String outboundFlightNumber, String outboundAirlineName,
+                         String outboundSource, String outboundDestination,
+                         LocalDate outboundDepartureDate, LocalTime outboundDepartureTime,
+                         LocalDate outboundArrivalDate, LocalTime outboundArrivalTime,
+                         Long returnFlightId, String returnFlightNumber, String returnAirlineName,
+                         String returnSource, String returnDestination,
+                         LocalDate returnDepartureDate, LocalTime returnDepartureTime,
+                         LocalDate returnArrivalDate, LocalTime returnArrivalTime) {
+        this(bookingId, pnrOutbound, pnrReturn, tripType, status, contactName, contactEmail, totalPassengers,
+                new FlightLeg(outboundFlightId, outboundFlightNumber, outboundAirlineName,
+                        outboundSource, outboundDestination,
+                        outboundDepartureDate, outboundDepartureTime, outboundArrivalDate, outboundArrivalTime),
+                returnFlightId == null ? null
+                        : new FlightLeg(returnFlightId, returnFlightNumber, returnAirlineName,
+                                returnSource, returnDestination,
+                                returnDepartureDate, returnDepartureTime, returnArrivalDate, returnArrivalTime));
+    }
+
+    public static TicketDetails of(Booking booking) {
+        return new TicketDetails(
+                booking.getBookingId(),
+                booking.getPnrOutbound(),
+                booking.getPnrReturn(),
+                booking.getTripType(),
+                booking.getStatus(),
+                booking.getContactName(),
+                booking.getContactEmail(),
+                booking.getTotalPassengers(),
+                FlightLeg.of(booking.getOutboundFlight()),
+                FlightLeg.of(booking.getReturnFlight()));
+    }
+}
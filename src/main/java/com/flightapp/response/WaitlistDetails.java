@@ -0,0 +1,28 @@
+package com.flightapp.response;
+
+import java.time.Instant;
+
+import com.flightapp.model.WaitlistEntry;
+import com.flightapp.model.WaitlistStatus;
+
+// pnr is set once the entry is PROMOTED, it is a HELD booking to confirm before it expires
+public record WaitlistDetails(
+        Long entryId,
+        Long flightId,
+        WaitlistStatus status,
+        int priority,
+        int passengers,
+        String pnr,
+        Instant createdAt) {
+
+    public static WaitlistDetails of(WaitlistEntry entry) {
+        return new WaitlistDetails(
+                entry.getEntryId(),
+                entry.getFlight().getFlightId(),
+                entry.getStatus(),
+                entry.getPriority(),
+                entry.getPassengers(),
+                entry.getPnr(),
+                entry.getCreatedAt());
+    }
+}
@@ -0,0 +1,128 @@
+package com.flightapp.service;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.flightapp.model.Airline;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.repository.AirlineRepository;
+
+// every airline in memory, by id and by code. airlines change a few times a year, so the whole
+// table is reloaded into a new immutable snapshot on a slow timer instead of being read per
+// request. an id or code that is not in the snapshot reloads it early (at most once per
+// miss-refresh-ms), so an airline added a moment ago is found without waiting for the timer
+@Component
+public class AirlineRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(AirlineRegistry.class);
+
+    private record Snapshot(Map<Long, Airline> byId, Map<String, Airline> byCode, long loadedAt) {
+    }
+
+    private final AirlineRepository airlineRepository;
+    private final long missRefreshMillis;
+    private final Clock clock;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public AirlineRegistry(AirlineRepository airlineRepository,
+                           @Value("${airline.registry.miss-refresh-ms:10000}") long missRefreshMillis) {
+        this(airlineRepository, missRefreshMillis, Clock.systemUTC());
+    }
+
+    public AirlineRegistry(AirlineRepository airlineRepository, long missRefreshMillis, Clock clock) {
+        this.airlineRepository = airlineRepository;
+        this.missRefreshMillis = missRefreshMillis;
+        this.clock = clock;
+    }
+
+    public Optional<Airline> findById(Long airlineId) {
+        if (airlineId == null) {
+            return Optional.empty();
+        }
+        Airline airline = current().byId().get(airlineId);
+        if (airline == null && refreshAfterMiss()) {
+            airline = current().byId().get(airlineId);
+        }
+        return Optional.ofNullable(airline);
+    }
+
+    public Optional<Airline> findByCode(String airlineCode) {
+        if (airlineCode == null) {
+            return Optional.empty();
+        }
+        String code = airlineCode.trim().toUpperCase();
+        Airline airline = current().byCode().get(code);
+        if (airline == null && refreshAfterMiss()) {
+            airline = current().byCode().get(code);
+        }
+        return Optional.ofNullable(airline);
+    }
+
+    // swaps the lazy airline of a loaded flight for the registry's copy, so mapping the flight to
+    // a response reads the name from memory. the foreign key stays the same, nothing is written
+    public void attach(FlightInventory flight) {
+        Airline lazy = flight.getAirline();
+        if (lazy == null || Hibernate.isInitialized(lazy)) {
+            return;
+        }
+        findById(lazy.getAirlineId()).ifPresent(flight::setAirline);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${airline.registry.refresh-interval-ms:300000}",
+            initialDelayString = "${airline.registry.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        Map<Long, Airline> byId = new HashMap<>();
+        Map<String, Airline> byCode = new HashMap<>();
+        for (Airline row : airlineRepository.findAll()) {
+            // copies, not attached to the persistence context that read them
+            Airline airline = new Airline();
+            airline.setAirlineId(row.getAirlineId());
+            airline.setAirlineCode(row.getAirlineCode());
+            airline.setAirlineName(row.getAirlineName());
+            byId.put(airline.getAirlineId(), airline);
+            byCode.put(airline.getAirlineCode().toUpperCase(), airline);
+        }
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byCode), clock.millis());
+        log.debug("Airline registry loaded {} airlines", byId.size());
+    }
+
+    public int size() {
+        return current().byId().size();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private synchronized boolean refreshAfterMiss() {
+        if (snapshot.loadedAt() + missRefreshMillis > clock.millis()) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+}
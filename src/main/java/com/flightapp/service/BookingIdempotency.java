@@ -0,0 +1,229 @@
+package com.flightapp.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.config.ReadYourWrites;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.Booking;
+import com.flightapp.model.BookingIdempotencyKey;
+import com.flightapp.repository.BookingIdempotencyRepository;
+import com.flightapp.request.BookingRequest;
+import com.flightapp.response.TicketDetails;
+
+// Idempotency-Key on POST /booking: a client retrying after a timeout gets the ticket of the
+// first attempt instead of a second booking. results are kept in memory for the TTL (bounded,
+// oldest key dropped first). with booking.idempotency.persist the key is also written in the
+// booking transaction, so retries reaching another instance or arriving after a restart are
+// answered from the pnr stored with it. failed bookings are not remembered, a retry runs again
+@Component
+public class BookingIdempotency {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final String REUSED = "Idempotency-Key was already used for a different booking request";
+
+    private static final class Entry {
+
+        final String requestHash;
+        final long expiresAt;
+        final CompletableFuture<TicketDetails> result = new CompletableFuture<>();
+
+        Entry(String requestHash, long expiresAt) {
+            this.requestHash = requestHash;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // thrown out of the booking transaction to roll it back when the key row already exists
+    private static final class KeyTaken extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        KeyTaken() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final BookingService bookingService;
+    private final BookingIdempotencyRepository repository;
+    private final ReadYourWrites readYourWrites;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean persist;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    // insertion ordered, guarded by itself
+    private final Map<String, Entry> entries;
+
+    @Autowired
+    public BookingIdempotency(BookingService bookingService,
+                              BookingIdempotencyRepository repository,
+                              ReadYourWrites readYourWrites,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${booking.idempotency.persist:false}") boolean persist,
+                              @Value("${booking.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${booking.idempotency.max-entries:100000}") int maxEntries) {
+        this(bookingService, repository, readYourWrites, objectMapper, transactionManager, persist,
+                Duration.ofHours(ttlHours), maxEntries, Clock.systemUTC());
+    }
+
+    public BookingIdempotency(BookingService bookingService,
+                              BookingIdempotencyRepository repository,
+                              ReadYourWrites readYourWrites,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              boolean persist,
+                              Duration ttl,
+                              int maxEntries,
+                              Clock clock) {
+        this.bookingService = bookingService;
+        this.repository = repository;
+        this.readYourWrites = readYourWrites;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.persist = persist;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public TicketDetails bookFlight(String key, Long flightId, BookingRequest req) {
+
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = requestHash(flightId, req);
+
+        Entry entry;
+        boolean first;
+        synchronized (entries) {
+            entry = entries.get(key);
+            first = entry == null || entry.expiresAt <= clock.millis();
+            if (first) {
+                entry = new Entry(requestHash, clock.millis() + ttlMillis);
+                entries.remove(key);
+                entries.put(key, entry);
+            }
+        }
+
+        if (!entry.requestHash.equals(requestHash)) {
+            throw new ValidationException(REUSED);
+        }
+        if (!first) {
+            // a retry of a booking still running here waits for it instead of booking again
+            return await(entry);
+        }
+
+        try {
+            TicketDetails details = persist
+                    ? bookPersisted(key, requestHash, flightId, req)
+                    : TicketDetails.of(bookingService.bookFlight(flightId, req));
+            entry.result.complete(details);
+            return details;
+        } catch (RuntimeException e) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private TicketDetails bookPersisted(String key, String requestHash, Long flightId, BookingRequest req) {
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    repository.claim(key, requestHash, Instant.now(clock));
+                } catch (DataIntegrityViolationException e) {
+                    throw new KeyTaken();
+                }
+                Booking booking = bookingService.bookFlight(flightId, req);
+                repository.recordPnr(key, booking.getPnrOutbound());
+                return TicketDetails.of(booking);
+            });
+        } catch (KeyTaken e) {
+            return replay(key, requestHash);
+        }
+    }
+
+    // booked earlier by this key on another instance or before a restart. read from the
+    // primary, a replica may not have the key or the booking yet
+    private TicketDetails replay(String key, String requestHash) {
+        return readYourWrites.onPrimaryIf(true, () -> {
+            BookingIdempotencyKey stored = repository.findById(key)
+                    .orElseThrow(() -> new ValidationException("Idempotency-Key expired while in use, retry the request"));
+            if (!stored.getRequestHash().equals(requestHash)) {
+                throw new ValidationException(REUSED);
+            }
+            return bookingService.getTicketDetails(stored.getPnr());
+        });
+    }
+
+    private static TicketDetails await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String requestHash(Long flightId, BookingRequest req) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(flightId).getBytes());
+            digest.update(objectMapper.writeValueAsBytes(req));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash booking request", e);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.idempotency.purge-interval-ms:600000}")
+    public void purge() {
+        long now = clock.millis();
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.expiresAt <= now && entry.result.isDone());
+        }
+        if (persist) {
+            repository.deleteCreatedBefore(Instant.ofEpochMilli(now - ttlMillis));
+        }
+    }
+}
@@ -2,11 +2,29 @@ package com.flightapp.service;
 
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import jakarta.validation.Valid;
 
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.flightapp.config.ReadYourWrites;
+import com.flightapp.event.BookingChangedEvent;
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.event.SeatsReleasedEvent;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.exceptions.ValidationException;
 
@@ -24,6 +42,10 @@ import com.flightapp.repository.PassengerRepository;
 import com.flightapp.request.BookingRequest;
 import com.flightapp.request.PassengerRequest;
 
+import com.flightapp.response.BookingHistoryPage;
+import com.flightapp.response.BookingSummary;
+import com.flightapp.response.TicketDetails;
+
 @Service
 public class BookingService {
 
@@ -37,6 +59,24 @@ public class BookingService {
 	@Autowired
 	private PassengerRepository passengerRepository;
 
+	@Autowired
+	private SeatAvailabilityStore availabilityStore;
+
+	@Autowired
+	private SeatMapService seatMapService;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PnrGenerator pnrGenerator;
+
+	@Autowired
+	private ReadYourWrites readYourWrites;
+
+	@Autowired
+	private AirlineRegistry airlineRegistry;
+
 
   
     //helper functions
@@ -52,6 +92,61 @@ public class BookingService {
         }
     }
 
+    // sold out in memory is turned away before the flight row is read
+    private void checkCachedAvailability(Long flightId, int passengerCount, String type) {
+        if (!availabilityStore.hasSeats(flightId, passengerCount)) {
+            throw new ValidationException("Not enough seats available in " + type + " flight");
+        }
+    }
+
+    // takes the seats from the in-memory counter first, so parallel bookings of a hot flight are
+    // settled here and only the winners go on to lock the flight row
+    private void holdSeats(FlightInventory flight, int passengerCount, String type) {
+        if (!availabilityStore.tryReserve(flight.getFlightId(), passengerCount)) {
+            throw new ValidationException("Not enough seats available in " + type + " flight");
+        }
+    }
+
+    // seats are taken with a conditional update so concurrent bookings cannot oversell.
+    // this locks the flight row until commit, so it is the last statement of the booking
+    private void takeSeats(FlightInventory flight, int passengerCount, String type) {
+        int updated = inventoryRepository.decrementAvailableSeats(flight.getFlightId(), passengerCount);
+        if (updated == 0) {
+            availabilityStore.evict(flight.getFlightId());
+            throw new ValidationException("Not enough seats available in " + type + " flight");
+        }
+    }
+
+    private void releaseSeats(FlightInventory flight, int passengerCount) {
+        int updated = inventoryRepository.incrementAvailableSeats(flight.getFlightId(), passengerCount);
+        if (updated > 0) {
+            flight.setAvailableSeats(flight.getAvailableSeats() + passengerCount);
+            TransactionCallbacks.afterCommit(() -> availabilityStore.release(flight.getFlightId(), passengerCount));
+            eventPublisher.publishEvent(new SeatsReleasedEvent(flight.getFlightId(), passengerCount));
+        }
+    }
+
+    // lowest flight id first, so two round trips over the same pair of flights can't deadlock
+    private static boolean returnFlightFirst(FlightInventory outbound, FlightInventory returning) {
+        return returning != null && outbound.getFlightId() != null && returning.getFlightId() != null
+                && returning.getFlightId() < outbound.getFlightId();
+    }
+
+    private static <T> List<String> seatNumbers(List<T> passengers, Function<T, String> seat) {
+        List<String> seats = new ArrayList<>(passengers.size());
+        for (T p : passengers) {
+            String seatNo = seat.apply(p);
+            if (seatNo != null && !seatNo.isBlank()) {
+                seats.add(seatNo);
+            }
+        }
+        return seats;
+    }
+
+    private static List<String> pnrs(Booking booking) {
+        return Stream.of(booking.getPnrOutbound(), booking.getPnrReturn()).filter(Objects::nonNull).toList();
+    }
+
     private void validateTripType(BookingRequest req) {
         if (req.getTripType() == TripType.ROUND_TRIP && req.getReturnFlightId() == null) {
             throw new ValidationException("Return flight ID is required for round-trip booking");
@@ -83,15 +178,34 @@ public class BookingService {
     }
 
 
-    @SuppressWarnings("null")
+    @Transactional
     public Booking bookFlight(Long flightId, @Valid BookingRequest req) {
+        return book(req, BookingStatus.CONFIRMED, null);
+    }
+
+    // takes the seats like bookFlight, the booking stays HELD until confirmHold or the expiry
+    @Transactional
+    public Booking holdFlight(Long flightId, @Valid BookingRequest req, Instant expiresAt) {
+        return book(req, BookingStatus.HELD, expiresAt);
+    }
+
+    @SuppressWarnings("null")
+    private Booking book(BookingRequest req, BookingStatus status, Instant holdExpiresAt) {
 
         validatePassengersExist(req);
         validateTripType(req);
 
+        checkCachedAvailability(req.getOutboundFlightId(), req.getPassengers().size(), "outbound");
+        if (req.getReturnFlightId() != null) {
+            checkCachedAvailability(req.getReturnFlightId(), req.getPassengers().size(), "return");
+        }
+
         FlightInventory outbound = inventoryRepository.findById(req.getOutboundFlightId())
                 .orElseThrow(() -> new ResourceNotFoundException("Outbound flight not found"));
+        // the response names the airline, take it from the registry instead of loading it
+        airlineRegistry.attach(outbound);
 
+        availabilityStore.track(outbound.getFlightId(), outbound.getAvailableSeats());
         validateSeatAvailability(outbound, req.getPassengers().size(), "outbound");
 
         FlightInventory returning = null;
@@ -100,65 +214,149 @@ public class BookingService {
 
             returning = inventoryRepository.findById(req.getReturnFlightId())
                     .orElseThrow(() -> new ResourceNotFoundException("Return flight not found"));
+            airlineRegistry.attach(returning);
 
+            availabilityStore.track(returning.getFlightId(), returning.getAvailableSeats());
             validateSeatAvailability(returning, req.getPassengers().size(), "return");
         }
 
-        String pnr = UUID.randomUUID().toString()
-                .replace("-", "")
-                .substring(0, 6)
-                .toUpperCase();
+        boolean isRoundTrip = (returning != null);
+
+        for (PassengerRequest p : req.getPassengers()) {
+            validatePassengerFields(p, isRoundTrip);
+        }
+
+        int passengerCount = req.getPassengers().size();
+        List<String> outboundSeats = seatNumbers(req.getPassengers(), PassengerRequest::getSeatOutbound);
+        List<String> returnSeats = isRoundTrip
+                ? seatNumbers(req.getPassengers(), PassengerRequest::getSeatReturn)
+                : List.of();
+
+        seatMapService.validateSeatNumbers(outbound, outboundSeats);
+        if (isRoundTrip) {
+            seatMapService.validateSeatNumbers(returning, returnSeats);
+        }
 
+        // everything above only reads. from here on the database work is rolled back as one
+        // transaction, in-memory holds push their undo and are given back when it does not commit
+        Deque<Runnable> undo = new ArrayDeque<>();
+        boolean undoOnRollback = TransactionCallbacks.afterRollback(() -> undo.forEach(Runnable::run));
         Booking booking = new Booking();
-        booking.setOutboundFlight(outbound);
-        booking.setReturnFlight(returning);
-        booking.setContactName(req.getContactName());
-        booking.setContactEmail(req.getContactEmail());
-        booking.setTotalPassengers(req.getPassengers().size());
-        booking.setStatus(BookingStatus.CONFIRMED);
-        booking.setPnrOutbound(pnr);
 
-        booking = bookingRepository.save(booking);
+        try {
+            holdSeats(outbound, passengerCount, "outbound");
+            undo.push(() -> availabilityStore.release(outbound.getFlightId(), passengerCount));
 
-        boolean isRoundTrip = (returning != null);
+            if (isRoundTrip) {
+                FlightInventory returnFlight = returning;
 
-        for (PassengerRequest p : req.getPassengers()) {
+                holdSeats(returnFlight, passengerCount, "return");
+                undo.push(() -> availabilityStore.release(returnFlight.getFlightId(), passengerCount));
+            }
 
-            validatePassengerFields(p, isRoundTrip);
+            seatMapService.assignSeats(outbound, outboundSeats);
+            if (isRoundTrip) {
+                seatMapService.assignSeats(returning, returnSeats);
+            }
+
+            String pnr = pnrGenerator.next();
+
+            booking.setOutboundFlight(outbound);
+            booking.setReturnFlight(returning);
+            booking.setContactName(req.getContactName());
+            booking.setContactEmail(req.getContactEmail());
+            booking.setTotalPassengers(passengerCount);
+            booking.setStatus(status);
+            booking.setHoldExpiresAt(holdExpiresAt);
+            booking.setPnrOutbound(pnr);
 
-            Passenger ps = new Passenger();
-            ps.setName(p.getName());
-            ps.setAge(p.getAge());
-            ps.setGender(p.getGender());
-            ps.setSeatOutbound(p.getSeatOutbound());
-            ps.setSeatReturn(p.getSeatReturn());
+            booking = bookingRepository.save(booking);
 
-            if (p.getMeal() != null) {
-                ps.setMeal(MealType.valueOf(p.getMeal().toUpperCase()));
+            List<Passenger> passengers = new ArrayList<>(passengerCount);
+            for (PassengerRequest p : req.getPassengers()) {
+
+                Passenger ps = new Passenger();
+                ps.setName(p.getName());
+                ps.setAge(p.getAge());
+                ps.setGender(p.getGender());
+                ps.setSeatOutbound(p.getSeatOutbound());
+                ps.setSeatReturn(p.getSeatReturn());
+
+                if (p.getMeal() != null) {
+                    ps.setMeal(MealType.valueOf(p.getMeal().toUpperCase()));
+                }
+
+                ps.setBooking(booking);
+                passengers.add(ps);
             }
+            passengerRepository.saveAll(passengers);
 
-            ps.setBooking(booking);
-            passengerRepository.save(ps);
+            // the conditional updates flush the queued inserts in one go, the flight rows
+            // stay locked only from here to the commit
+            try {
+                if (returnFlightFirst(outbound, returning)) {
+                    takeSeats(returning, passengerCount, "return");
+                    takeSeats(outbound, passengerCount, "outbound");
+                } else {
+                    takeSeats(outbound, passengerCount, "outbound");
+                    if (isRoundTrip) {
+                        takeSeats(returning, passengerCount, "return");
+                    }
+                }
+            } catch (DataIntegrityViolationException e) {
+                // seat_map already had one of the seats, this instance's seat map is out of date
+                seatMapService.evict(outbound);
+                if (isRoundTrip) {
+                    seatMapService.evict(returning);
+                }
+                throw new ValidationException("One or more selected seats are already taken");
+            }
+        } catch (RuntimeException e) {
+            if (!undoOnRollback) {
+                undo.forEach(Runnable::run);
+            }
+            throw e;
         }
 
-        outbound.setAvailableSeats(outbound.getAvailableSeats() - req.getPassengers().size());
-        inventoryRepository.save(outbound);
-
-        if (returning != null) {
-            returning.setAvailableSeats(returning.getAvailableSeats() - req.getPassengers().size());
-            inventoryRepository.save(returning);
+        outbound.setAvailableSeats(outbound.getAvailableSeats() - passengerCount);
+        eventPublisher.publishEvent(new FlightInventoryChangedEvent(outbound));
+        if (isRoundTrip) {
+            returning.setAvailableSeats(returning.getAvailableSeats() - passengerCount);
+            eventPublisher.publishEvent(new FlightInventoryChangedEvent(returning));
         }
 
+        // the customer will look this booking up next, keep those reads off the replicas for a moment
+        String bookedPnr = booking.getPnrOutbound();
+        TransactionCallbacks.afterCommit(() -> readYourWrites.recordWrite(bookedPnr, req.getContactEmail()));
+
         return booking;
     }
 
     
 
+    // by outbound or return PNR. anything that is not shaped like a PNR cannot exist, no query for it
+    @Transactional(readOnly = true)
     public Booking getTicket(String pnr) {
-        return bookingRepository.findByPnrOutbound(pnr)
-                .orElseThrow(() -> new ResourceNotFoundException("PNR not found"));
+        String code = PnrFormat.normalize(pnr);
+        if (code == null) {
+            throw new ResourceNotFoundException("PNR not found");
+        }
+        return readYourWrites.read(code, () -> bookingRepository.findByPnr(code)
+                .orElseThrow(() -> new ResourceNotFoundException("PNR not found")));
+    }
+
+    // what GET /ticket shows, read as one row instead of the booking entity and its flights
+    @Transactional(readOnly = true)
+    public TicketDetails getTicketDetails(String pnr) {
+        String code = PnrFormat.normalize(pnr);
+        if (code == null) {
+            throw new ResourceNotFoundException("PNR not found");
+        }
+        return readYourWrites.read(code, () -> bookingRepository.findTicket(code)
+                .orElseThrow(() -> new ResourceNotFoundException("PNR not found")));
     }
 
+    @Transactional
     public void cancelTicket(String pnr) {
 
         Booking booking = getTicket(pnr);
@@ -167,22 +365,123 @@ public class BookingService {
             throw new ValidationException("Ticket is already cancelled");
         }
 
+        if (booking.getStatus() == BookingStatus.EXPIRED) {
+            throw new ValidationException("Seat hold has already expired");
+        }
+
+        if (booking.getStatus() == BookingStatus.HELD) {
+            releaseHold(booking);
+            return;
+        }
+
+        // conditional like releaseHold, of two concurrent cancels only one gives the seats back
+        if (bookingRepository.cancelConfirmed(booking.getBookingId()) == 0) {
+            throw new ValidationException("Ticket is already cancelled");
+        }
         booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        releaseBookings(List.of(booking));
+    }
+
+    @Transactional
+    public void confirmHold(String pnr) {
+        String code = PnrFormat.normalize(pnr);
+        if (code == null || bookingRepository.confirmHold(code, Instant.now()) == 0) {
+            Booking booking = getTicket(pnr);
+            throw new ValidationException(booking.getStatus() == BookingStatus.CONFIRMED
+                    ? "Booking is already confirmed"
+                    : "Seat hold has expired or was released");
+        }
+        eventPublisher.publishEvent(new BookingChangedEvent(List.of(code)));
+        TransactionCallbacks.afterCommit(() -> readYourWrites.recordWrite(code));
+    }
+
+    @Transactional
+    public void releaseHold(String pnr) {
+        Booking booking = getTicket(pnr);
+        if (booking.getStatus() != BookingStatus.HELD) {
+            throw new ValidationException("Booking is not on hold");
+        }
+        releaseHold(booking);
+    }
+
+    private void releaseHold(Booking booking) {
+        // conditional, the expiry may have released it a moment ago
+        if (bookingRepository.releaseHold(booking.getBookingId()) == 0) {
+            throw new ValidationException("Seat hold has expired or was released");
+        }
+        releaseBookings(List.of(booking));
+    }
+
+    // expires the given holds that are due and still HELD, returns how many. one transaction
+    // per batch, the seats of all its bookings go back with one update per flight
+    @Transactional
+    public int expireHolds(Collection<String> pnrs) {
+        List<Booking> expired = bookingRepository.lockExpiredHolds(pnrs, Instant.now());
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        for (Booking booking : expired) {
+            booking.setStatus(BookingStatus.EXPIRED);
+            booking.setHoldExpiresAt(null);
+        }
+        releaseBookings(expired);
+        return expired.size();
+    }
+
+    // gives the seats of bookings that no longer hold them back to seat_map and the flight
+    // counts. flights in id order, the same lock order as bookFlight
+    private void releaseBookings(List<Booking> bookings) {
+        List<Long> bookingIds = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            bookingIds.add(booking.getBookingId());
+        }
+        Map<Long, List<Passenger>> passengers = new HashMap<>();
+        for (Passenger p : passengerRepository.findByBookingBookingIdIn(bookingIds)) {
+            passengers.computeIfAbsent(p.getBooking().getBookingId(), id -> new ArrayList<>()).add(p);
+        }
 
-        FlightInventory out = booking.getOutboundFlight();
-        out.setAvailableSeats(out.getAvailableSeats() + booking.getTotalPassengers());
-        inventoryRepository.save(out);
+        Map<Long, FlightInventory> flights = new TreeMap<>();
+        Map<Long, List<String>> seats = new HashMap<>();
+        Map<Long, Integer> counts = new HashMap<>();
+        List<String> changed = new ArrayList<>();
+        List<String> written = new ArrayList<>();
+        for (Booking booking : bookings) {
+            List<Passenger> booked = passengers.getOrDefault(booking.getBookingId(), List.of());
+            FlightInventory outbound = booking.getOutboundFlight();
+            FlightInventory returning = booking.getReturnFlight();
+
+            flights.putIfAbsent(outbound.getFlightId(), outbound);
+            seats.computeIfAbsent(outbound.getFlightId(), id -> new ArrayList<>())
+                    .addAll(seatNumbers(booked, Passenger::getSeatOutbound));
+            counts.merge(outbound.getFlightId(), booking.getTotalPassengers(), Integer::sum);
+            if (returning != null) {
+                flights.putIfAbsent(returning.getFlightId(), returning);
+                seats.computeIfAbsent(returning.getFlightId(), id -> new ArrayList<>())
+                        .addAll(seatNumbers(booked, Passenger::getSeatReturn));
+                counts.merge(returning.getFlightId(), booking.getTotalPassengers(), Integer::sum);
+            }
+            changed.addAll(pnrs(booking));
+            written.add(booking.getContactEmail());
+        }
+        written.addAll(changed);
 
-        if (booking.getReturnFlight() != null) {
-            FlightInventory ret = booking.getReturnFlight();
-            ret.setAvailableSeats(ret.getAvailableSeats() + booking.getTotalPassengers());
-            inventoryRepository.save(ret);
+        for (FlightInventory flight : flights.values()) {
+            seatMapService.releaseSeats(flight, seats.get(flight.getFlightId()));
         }
+        for (FlightInventory flight : flights.values()) {
+            releaseSeats(flight, counts.get(flight.getFlightId()));
+            eventPublisher.publishEvent(new FlightInventoryChangedEvent(flight));
+        }
+
+        eventPublisher.publishEvent(new BookingChangedEvent(changed));
+
+        String[] keys = written.toArray(new String[0]);
+        TransactionCallbacks.afterCommit(() -> readYourWrites.recordWrite(keys));
     }
 
-    public List<Booking> getHistory(String email) {
-        List<Booking> list = bookingRepository.findByContactEmail(email);
+    @Transactional(readOnly = true)
+    public List<BookingSummary> getHistory(String email) {
+        List<BookingSummary> list = readYourWrites.read(email, () -> bookingRepository.findHistory(email));
 
         if (list.isEmpty()) {
             throw new ResourceNotFoundException("No bookings found for this email");
@@ -190,4 +489,54 @@ public class BookingService {
 
         return list;
     }
+
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int STREAM_PAGE_SIZE = 500;
+
+    @Transactional(readOnly = true)
+    public BookingHistoryPage getHistoryPage(String email, Long after, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        if (after != null && after < 1) {
+            throw new ValidationException("Invalid cursor");
+        }
+
+        BookingHistoryPage page = readYourWrites.read(email, () -> historyPage(email, after, size));
+
+        if (after == null && page.bookings().isEmpty()) {
+            throw new ResourceNotFoundException("No bookings found for this email");
+        }
+        return page;
+    }
+
+    // pages through the history lazily, only the first page is read before this returns.
+    // each page is its own read-only repository call, so every page picks a replica again
+    public Stream<BookingSummary> streamHistory(String email) {
+        boolean primary = readYourWrites.recentlyWritten(email);
+        BookingHistoryPage first = readYourWrites.onPrimaryIf(primary,
+                () -> historyPage(email, null, STREAM_PAGE_SIZE));
+
+        if (first.bookings().isEmpty()) {
+            throw new ResourceNotFoundException("No bookings found for this email");
+        }
+
+        return Stream.iterate(first, page -> page != null,
+                        page -> page.nextCursor() == null ? null
+                                : readYourWrites.onPrimaryIf(primary,
+                                        () -> historyPage(email, page.nextCursor(), STREAM_PAGE_SIZE)))
+                .flatMap(page -> page.bookings().stream());
+    }
+
+    private BookingHistoryPage historyPage(String email, Long after, int size) {
+        // one extra row tells us whether there is a next page
+        List<BookingSummary> rows = bookingRepository.findHistoryPage(
+                email, after == null ? Long.MAX_VALUE : after, PageRequest.of(0, size + 1));
+
+        if (rows.size() <= size) {
+            return new BookingHistoryPage(rows, null);
+        }
+        List<BookingSummary> bookings = rows.subList(0, size);
+        return new BookingHistoryPage(List.copyOf(bookings), bookings.get(size - 1).bookingId());
+    }
 }
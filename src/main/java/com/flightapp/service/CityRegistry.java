@@ -0,0 +1,161 @@
+package com.flightapp.service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.City;
+import com.flightapp.repository.CityRepository;
+
+// every city in memory, by code and by a dense index (0 to capacity() - 1) that never changes while
+// the process runs, so per-city tables can be plain arrays. indexes follow cityId order and survive
+// reloads: a new city is appended, a removed one keeps its slot but is no longer found by code.
+// reloaded like the airline registry, on a slow timer and early when a code is not found
+@Component
+public class CityRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CityRegistry.class);
+
+    private record Snapshot(City[] byIndex, Map<String, Integer> indexByCode, long loadedAt) {
+    }
+
+    private final Supplier<List<City>> loader;
+    private final long missRefreshMillis;
+    private final Clock clock;
+
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public CityRegistry(CityRepository cityRepository,
+                        @Value("${city.registry.miss-refresh-ms:10000}") long missRefreshMillis) {
+        this(cityRepository::findAll, missRefreshMillis, Clock.systemUTC());
+    }
+
+    public CityRegistry(Supplier<List<City>> loader, long missRefreshMillis, Clock clock) {
+        this.loader = loader;
+        this.missRefreshMillis = missRefreshMillis;
+        this.clock = clock;
+    }
+
+    // dense index of a city code given in any case, -1 when there is no such city
+    public int index(String code) {
+        if (code == null) {
+            return -1;
+        }
+        String key = code.trim().toUpperCase(Locale.ROOT);
+        Integer index = current().indexByCode().get(key);
+        if (index == null && refreshAfterMiss()) {
+            index = current().indexByCode().get(key);
+        }
+        return index == null ? -1 : index;
+    }
+
+    public Optional<City> findByCode(String code) {
+        int index = index(code);
+        return index < 0 ? Optional.empty() : Optional.of(get(index));
+    }
+
+    // the stored code of a city given in any case. null stays null for the required field checks
+    public String code(String city) {
+        if (city == null) {
+            return null;
+        }
+        int index = index(city);
+        if (index < 0) {
+            throw new ValidationException("Invalid city. Allowed values: " + codes());
+        }
+        return get(index).getCityCode();
+    }
+
+    public City get(int index) {
+        return current().byIndex()[index];
+    }
+
+    // length for arrays indexed by city, covers every index handed out so far
+    public int capacity() {
+        return current().byIndex().length;
+    }
+
+    // the codes that can be used now, in index order
+    public List<String> codes() {
+        Snapshot current = current();
+        List<String> codes = new ArrayList<>(current.indexByCode().size());
+        City[] byIndex = current.byIndex();
+        for (int i = 0; i < byIndex.length; i++) {
+            Integer index = current.indexByCode().get(byIndex[i].getCityCode().toUpperCase(Locale.ROOT));
+            if (index != null && index == i) {
+                codes.add(byIndex[i].getCityCode());
+            }
+        }
+        return codes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${city.registry.refresh-interval-ms:300000}",
+            initialDelayString = "${city.registry.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        Snapshot previous = snapshot;
+        List<City> byIndex = previous == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(previous.byIndex()));
+        Map<String, Integer> indexByCode = new HashMap<>();
+
+        List<City> rows = new ArrayList<>(loader.get());
+        rows.sort(Comparator.comparing(City::getCityId));
+        for (City row : rows) {
+            // copies, not attached to the persistence context that read them
+            City city = new City();
+            city.setCityId(row.getCityId());
+            city.setCityCode(row.getCityCode());
+            city.setCityName(row.getCityName());
+
+            String key = city.getCityCode().toUpperCase(Locale.ROOT);
+            Integer index = previous == null ? null : previous.indexByCode().get(key);
+            if (index == null) {
+                index = byIndex.size();
+                byIndex.add(city);
+            } else {
+                byIndex.set(index, city);
+            }
+            indexByCode.put(key, index);
+        }
+        snapshot = new Snapshot(byIndex.toArray(new City[0]), Map.copyOf(indexByCode), clock.millis());
+        log.debug("City registry loaded {} cities", indexByCode.size());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private synchronized boolean refreshAfterMiss() {
+        if (snapshot.loadedAt() + missRefreshMillis > clock.millis()) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+}
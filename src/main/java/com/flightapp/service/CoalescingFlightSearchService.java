@@ -0,0 +1,71 @@
+package com.flightapp.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import com.flightapp.request.FlightSearchRequest;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.service.FlightSearchCache.RouteKey;
+
+// FlightSearchService.searchFlights with identical misses coalesced: the first miss on a route and
+// date queries on its own thread, the ones arriving while it runs wait for its result instead of
+// each sending the same query when a popular entry expires
+@Service
+public class CoalescingFlightSearchService {
+
+    private final FlightSearchService searchService;
+    private final FlightSearchCache searchCache;
+
+    private final ConcurrentHashMap<RouteKey, CompletableFuture<List<FlightSummary>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    public CoalescingFlightSearchService(FlightSearchService searchService, FlightSearchCache searchCache) {
+        this.searchService = searchService;
+        this.searchCache = searchCache;
+    }
+
+    public List<FlightSummary> searchFlights(FlightSearchRequest req) {
+
+        searchService.validateSearch(req);
+
+        RouteKey key = new RouteKey(req.getSourceCity(), req.getDestinationCity(), req.getTravelDate());
+
+        // read once: an entry expiring between a check and a second read would query twice
+        List<FlightSummary> cached = searchCache.get(key);
+        if (cached != null) {
+            return searchService.outboundFlights(cached);
+        }
+
+        CompletableFuture<List<FlightSummary>> pending = new CompletableFuture<>();
+        CompletableFuture<List<FlightSummary>> existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            List<FlightSummary> flights = searchService.loadFlights(req);
+            pending.complete(flights);
+            return flights;
+        } catch (RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, pending);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,366 @@
+package com.flightapp.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.ItinerarySort;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.response.Itinerary;
+
+// every flight of a day by the city it leaves from, in departure order, so connections are found
+// in memory: the next leg out of a city is a binary search into its array. a day is an array
+// indexed by the city registry's dense index, and legs carry city indexes and epoch minutes, so the
+// search compares ints instead of codes and dates. days are loaded for all routes with one range
+// query and kept for a TTL. seat counts sit in a per-day array next to the legs: a booking or
+// cancellation re-reads that one flight's count after commit (the count an event carries was read
+// before the change), only a flight the day doesn't know yet makes the day load again
+@Component
+public class ConnectionGraph {
+
+    public static final int MAX_STOPS = 2;
+    private static final int OPTIONS = 20;
+    private static final Leg[] NO_LEGS = new Leg[0];
+
+    // times in minutes since the epoch, local to the flight like the stored date and time.
+    // the seats are the slot of the day's seat array, flight has the count it was loaded with
+    private record Leg(FlightSummary flight, int from, int to, long departs, long arrives,
+                       AtomicIntegerArray seats, int slot) {
+
+        int seatsLeft() {
+            return seats.get(slot);
+        }
+    }
+
+    private static final class Day {
+
+        final long loadedAt;
+        // sorted by departure, never changed after loading. a city added to the registry after
+        // the day was loaded has no flights in it
+        final Leg[][] departures;
+        final AtomicIntegerArray seats;
+        final Map<Long, Integer> slots;
+
+        Day(long loadedAt, int cities, int flights) {
+            this.loadedAt = loadedAt;
+            this.departures = new Leg[cities][];
+            this.seats = new AtomicIntegerArray(flights);
+            this.slots = new HashMap<>(flights * 2);
+        }
+
+        Leg[] from(int city) {
+            Leg[] legs = city < 0 || city >= departures.length ? null : departures[city];
+            return legs == null ? NO_LEGS : legs;
+        }
+    }
+
+    // the best OPTIONS itineraries so far, worst on top
+    private static final class Search {
+
+        final ItinerarySort sort;
+        final Comparator<Itinerary> order;
+        final PriorityQueue<Itinerary> best;
+
+        Search(ItinerarySort sort) {
+            this.sort = sort;
+            this.order = sort == ItinerarySort.PRICE
+                    ? Comparator.comparingDouble(Itinerary::totalPrice).thenComparingLong(Itinerary::durationMinutes)
+                    : Comparator.comparingLong(Itinerary::durationMinutes).thenComparingDouble(Itinerary::totalPrice);
+            this.best = new PriorityQueue<>(order.reversed());
+        }
+
+        // duration and price only grow with more legs, a partial trip already worse than the
+        // worst kept one cannot make the list
+        boolean worthExtending(long minutes, double price) {
+            if (best.size() < OPTIONS) {
+                return true;
+            }
+            Itinerary worst = best.peek();
+            return sort == ItinerarySort.PRICE ? price <= worst.totalPrice() : minutes <= worst.durationMinutes();
+        }
+
+        void offer(Itinerary itinerary) {
+            if (best.size() < OPTIONS) {
+                best.add(itinerary);
+            } else if (order.compare(itinerary, best.peek()) < 0) {
+                best.poll();
+                best.add(itinerary);
+            }
+        }
+
+        List<Itinerary> result() {
+            List<Itinerary> result = new ArrayList<>(best);
+            result.sort(order);
+            return result;
+        }
+    }
+
+    private final ConcurrentHashMap<LocalDate, Day> days = new ConcurrentHashMap<>();
+    private final CityRegistry cityRegistry;
+    private final Function<Long, Optional<Integer>> seatReader;
+    private final long minLayoverMinutes;
+    private final long maxLayoverMinutes;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    @Autowired
+    public ConnectionGraph(CityRegistry cityRegistry,
+                           FlightInventoryRepository inventoryRepository,
+                           @Value("${flight.connections.min-layover-minutes:60}") long minLayoverMinutes,
+                           @Value("${flight.connections.max-layover-hours:12}") long maxLayoverHours,
+                           @Value("${flight.connections.ttl-minutes:10}") long ttlMinutes) {
+        this(cityRegistry, inventoryRepository::findAvailableSeats, Duration.ofMinutes(minLayoverMinutes),
+                Duration.ofHours(maxLayoverHours), Duration.ofMinutes(ttlMinutes), Clock.systemDefaultZone());
+    }
+
+    public ConnectionGraph(CityRegistry cityRegistry, Function<Long, Optional<Integer>> seatReader,
+                           Duration minLayover, Duration maxLayover, Duration ttl, Clock clock) {
+        if (minLayover.isNegative() || maxLayover.compareTo(minLayover) < 0) {
+            throw new IllegalArgumentException("Layover bounds must satisfy 0 <= min <= max");
+        }
+        this.cityRegistry = cityRegistry;
+        this.seatReader = seatReader;
+        this.minLayoverMinutes = minLayover.toMinutes();
+        this.maxLayoverMinutes = maxLayover.toMinutes();
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    // the best itineraries with at most maxStops stops whose first flight leaves on date. loader
+    // gets the first and last missing day and must return every flight departing between them
+    public List<Itinerary> itineraries(String source, String destination, LocalDate date, int maxStops,
+                                       ItinerarySort sort,
+                                       BiFunction<LocalDate, LocalDate, List<FlightSummary>> loader) {
+
+        if (maxStops < 0 || maxStops > MAX_STOPS) {
+            throw new IllegalArgumentException("maxStops must be between 0 and " + MAX_STOPS);
+        }
+        int from = cityRegistry.index(source);
+        int to = cityRegistry.index(destination);
+        if (from < 0 || to < 0) {
+            return List.of();
+        }
+        // later legs usually leave the same day or the next, load those days in the same query
+        load(date, date.plusDays(maxStops), loader);
+
+        Search search = new Search(sort);
+        List<Leg> path = new ArrayList<>(maxStops + 1);
+        for (Leg first : day(date, loader).from(from)) {
+            extend(path, first, to, maxStops, search, loader);
+        }
+        return search.result();
+    }
+
+    private void extend(List<Leg> path, Leg leg, int destination, int stopsLeft, Search search,
+                        BiFunction<LocalDate, LocalDate, List<FlightSummary>> loader) {
+
+        if (leg.seatsLeft() <= 0 || revisits(path, leg.to())) {
+            return;
+        }
+        Leg first = path.isEmpty() ? leg : path.get(0);
+        long minutes = leg.arrives() - first.departs();
+        double price = leg.flight().price();
+        for (Leg previous : path) {
+            price += previous.flight().price();
+        }
+        if (!search.worthExtending(minutes, price)) {
+            return;
+        }
+
+        path.add(leg);
+        if (leg.to() == destination) {
+            List<FlightSummary> legs = new ArrayList<>(path.size());
+            for (Leg taken : path) {
+                int seats = taken.seatsLeft();
+                legs.add(seats == taken.flight().availableSeats() ? taken.flight()
+                        : taken.flight().withAvailableSeats(seats));
+            }
+            search.offer(new Itinerary(List.copyOf(legs), path.size() - 1, departure(first.flight()),
+                    arrival(leg.flight()), minutes, price));
+        } else if (stopsLeft > 0) {
+            for (Leg next : departuresBetween(leg.to(), leg.arrives() + minLayoverMinutes,
+                    leg.arrives() + maxLayoverMinutes, loader)) {
+                extend(path, next, destination, stopsLeft - 1, search, loader);
+            }
+        }
+        path.remove(path.size() - 1);
+    }
+
+    // no itinerary passes through the same city twice
+    private static boolean revisits(List<Leg> path, int city) {
+        for (Leg leg : path) {
+            if (leg.from() == city) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Leg> departuresBetween(int city, long from, long to,
+                                        BiFunction<LocalDate, LocalDate, List<FlightSummary>> loader) {
+        List<Leg> result = new ArrayList<>();
+        LocalDate last = date(to);
+        for (LocalDate date = date(from); !date.isAfter(last); date = date.plusDays(1)) {
+            Leg[] legs = day(date, loader).from(city);
+            for (int i = firstDepartingAt(legs, from); i < legs.length && legs[i].departs() <= to; i++) {
+                result.add(legs[i]);
+            }
+        }
+        return result;
+    }
+
+    private static int firstDepartingAt(Leg[] legs, long from) {
+        int low = 0;
+        int high = legs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (legs[mid].departs() < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Day day(LocalDate date, BiFunction<LocalDate, LocalDate, List<FlightSummary>> loader) {
+        Day day = days.get(date);
+        if (day == null || day.loadedAt + ttlMillis <= clock.millis()) {
+            load(date, date, loader);
+            day = days.get(date);
+        }
+        // dropped by an inventory event right after loading, nothing to connect to this time
+        return day == null ? new Day(0, 0, 0) : day;
+    }
+
+    // reloads the missing or stale days between from and to with one call to the loader
+    private void load(LocalDate from, LocalDate to, BiFunction<LocalDate, LocalDate, List<FlightSummary>> loader) {
+        long now = clock.millis();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Day day = days.get(date);
+            if (day == null || day.loadedAt + ttlMillis <= now) {
+                if (firstMissing == null) {
+                    firstMissing = date;
+                }
+                lastMissing = date;
+            }
+        }
+        if (firstMissing == null) {
+            return;
+        }
+
+        int cities = cityRegistry.capacity();
+        Map<LocalDate, List<List<Leg>>> loaded = new HashMap<>();
+        for (LocalDate date = firstMissing; !date.isAfter(lastMissing); date = date.plusDays(1)) {
+            List<List<Leg>> byCity = new ArrayList<>(cities);
+            for (int i = 0; i < cities; i++) {
+                byCity.add(new ArrayList<>());
+            }
+            loaded.put(date, byCity);
+        }
+        List<FlightSummary> flights = loader.apply(firstMissing, lastMissing);
+        Map<LocalDate, Integer> counts = new HashMap<>();
+        for (FlightSummary flight : flights) {
+            counts.merge(flight.departureDate(), 1, Integer::sum);
+        }
+        Map<LocalDate, Day> built = new HashMap<>();
+        for (LocalDate date : loaded.keySet()) {
+            built.put(date, new Day(now, cities, counts.getOrDefault(date, 0)));
+        }
+        for (FlightSummary flight : flights) {
+            List<List<Leg>> byCity = loaded.get(flight.departureDate());
+            int source = cityRegistry.index(flight.sourceCity());
+            // a city added after capacity() was read waits for the next load of the day
+            if (byCity != null && flight.flightId() != null && source >= 0 && source < cities) {
+                Day day = built.get(flight.departureDate());
+                int slot = day.slots.size();
+                day.slots.put(flight.flightId(), slot);
+                day.seats.set(slot, flight.availableSeats());
+                byCity.get(source).add(new Leg(flight, source, cityRegistry.index(flight.destinationCity()),
+                        minutes(departure(flight)), minutes(arrival(flight)), day.seats, slot));
+            }
+        }
+        loaded.forEach((date, byCity) -> {
+            Day day = built.get(date);
+            for (int city = 0; city < cities; city++) {
+                List<Leg> legs = byCity.get(city);
+                if (!legs.isEmpty()) {
+                    legs.sort(Comparator.comparingLong(Leg::departs));
+                    day.departures[city] = legs.toArray(NO_LEGS);
+                }
+            }
+            days.put(date, day);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(FlightInventoryChangedEvent event) {
+        FlightInventory flight = event.flight();
+        Day day = flight.getDepartureDate() == null ? null : days.get(flight.getDepartureDate());
+        if (day == null) {
+            return;
+        }
+        Integer slot = flight.getFlightId() == null ? null : day.slots.get(flight.getFlightId());
+        Optional<Integer> seats = slot == null ? Optional.empty() : seatReader.apply(flight.getFlightId());
+        if (seats.isPresent()) {
+            day.seats.set(slot, seats.get());
+        } else {
+            // a flight added or uploaded after the day was loaded, or one that is gone
+            days.remove(flight.getDepartureDate(), day);
+        }
+    }
+
+    @Scheduled(cron = "${flight.connections.purge-cron:0 0 * * * *}")
+    public void purgePastDays() {
+        LocalDate today = LocalDate.now(clock);
+        days.keySet().removeIf(date -> date.isBefore(today));
+    }
+
+    public int size() {
+        return days.size();
+    }
+
+    private static long minutes(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDate date(long minutes) {
+        return LocalDate.ofEpochDay(Math.floorDiv(minutes, 24 * 60));
+    }
+
+    private static LocalDateTime departure(FlightSummary flight) {
+        return flight.departureTime() == null
+                ? flight.departureDate().atStartOfDay()
+                : LocalDateTime.of(flight.departureDate(), flight.departureTime());
+    }
+
+    private static LocalDateTime arrival(FlightSummary flight) {
+        return flight.arrivalDate() == null || flight.arrivalTime() == null
+                ? departure(flight)
+                : LocalDateTime.of(flight.arrivalDate(), flight.arrivalTime());
+    }
+}
@@ -0,0 +1,165 @@
+package com.flightapp.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.repository.FlightFare;
+import com.flightapp.response.DayFare;
+import com.flightapp.service.FlightSearchCache.RouteKey;
+
+// per route and day: price and free seats of every flight, so a +-N day window is answered
+// from memory. missing or stale days are filled with one range query. an inventory event drops
+// the route and day it touches, the seat count it carries was read before the change and may
+// already be out of date, and flights from uploads and schedules come without an id. a drop bumps
+// the generation of the key's stripe, a load read under an older generation is returned to its
+// caller but not kept, so rows read before a change can't land after its drop.
+@Component
+public class FareCalendar {
+
+    private static final int STRIPES = 16;
+
+    private record Fare(double price, int availableSeats) {
+    }
+
+    private static final class Day {
+
+        final long loadedAt;
+        final Map<Long, Fare> fares = new HashMap<>();
+
+        Day(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final ConcurrentHashMap<RouteKey, Day> days = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final long ttlMillis;
+    private final Clock clock;
+
+    @Autowired
+    public FareCalendar(@Value("${flight.fare-calendar.ttl-minutes:10}") long ttlMinutes) {
+        this(Duration.ofMinutes(ttlMinutes), Clock.systemDefaultZone());
+    }
+
+    public FareCalendar(Duration ttl, Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+    }
+
+    // loader gets the first and last missing day and must return every flight of the route between them
+    public List<DayFare> window(String source, String destination, LocalDate from, LocalDate to,
+                                BiFunction<LocalDate, LocalDate, List<FlightFare>> loader) {
+
+        long now = clock.millis();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        Map<LocalDate, Day> window = new HashMap<>();
+
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            Day day = days.get(new RouteKey(source, destination, date));
+            if (day == null || day.loadedAt + ttlMillis <= now) {
+                if (firstMissing == null) {
+                    firstMissing = date;
+                }
+                lastMissing = date;
+            } else {
+                window.put(date, day);
+            }
+        }
+
+        if (firstMissing != null) {
+            long[] started = new long[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                started[i] = generations.get(i);
+            }
+            window.putAll(load(source, destination, firstMissing, lastMissing,
+                    loader.apply(firstMissing, lastMissing), now, started));
+        }
+
+        List<DayFare> result = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            result.add(summarize(date, window.get(date)));
+        }
+        return result;
+    }
+
+    private Map<LocalDate, Day> load(String source, String destination, LocalDate from, LocalDate to,
+                                     List<FlightFare> flights, long now, long[] started) {
+
+        Map<LocalDate, Day> loaded = new HashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            loaded.put(date, new Day(now));
+        }
+        for (FlightFare flight : flights) {
+            Day day = loaded.get(flight.getDepartureDate());
+            if (day != null && flight.getFlightId() != null) {
+                day.fares.put(flight.getFlightId(), new Fare(flight.getPrice(), flight.getAvailableSeats()));
+            }
+        }
+        loaded.forEach((date, day) -> {
+            RouteKey key = new RouteKey(source, destination, date);
+            int stripe = stripe(key);
+            // atomic with a drop of the same key, see onInventoryChanged
+            days.compute(key, (k, old) -> generations.get(stripe) == started[stripe] ? day : old);
+        });
+        return loaded;
+    }
+
+    private static int stripe(RouteKey key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private DayFare summarize(LocalDate date, Day day) {
+        if (day == null) {
+            return new DayFare(date, null, 0, 0);
+        }
+        Double lowest = null;
+        int seats = 0;
+        for (Fare fare : day.fares.values()) {
+            seats += fare.availableSeats();
+            if (fare.availableSeats() > 0 && (lowest == null || fare.price() < lowest)) {
+                lowest = fare.price();
+            }
+        }
+        return new DayFare(date, lowest, seats, day.fares.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(FlightInventoryChangedEvent event) {
+        FlightInventory flight = event.flight();
+        if (flight.getDepartureDate() != null) {
+            RouteKey key = RouteKey.of(flight);
+            days.compute(key, (k, old) -> {
+                generations.incrementAndGet(stripe(key));
+                return null;
+            });
+        }
+    }
+
+    @Scheduled(cron = "${flight.fare-calendar.purge-cron:0 0 * * * *}")
+    public void purgePastDays() {
+        LocalDate today = LocalDate.now(clock);
+        days.keySet().removeIf(key -> key.departureDate().isBefore(today));
+    }
+
+    public int size() {
+        return days.size();
+    }
+}
@@ -6,14 +6,16 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Transactional;
 import jakarta.validation.Valid;
 
+import com.flightapp.event.FlightInventoryChangedEvent;
 import com.flightapp.model.FlightInventory;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.exceptions.ValidationException;
 import com.flightapp.model.Airline;
 import com.flightapp.repository.FlightInventoryRepository;
-import com.flightapp.repository.AirlineRepository;
 import com.flightapp.request.AddInventory;
 
 @Service
@@ -23,16 +25,64 @@ public class FlightInventoryService {
     private FlightInventoryRepository inventoryRepository;
 
     @Autowired
-    private AirlineRepository airlineRepository;
+    private AirlineRegistry airlineRegistry;
 
+    @Autowired
+    private CityRegistry cityRegistry;
+
+    @Autowired
+    private SeatAvailabilityStore availabilityStore;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // the duplicate check must see flights added a moment ago, so this stays on the primary
     @SuppressWarnings("null")
+    @Transactional
     public FlightInventory addInventory(@Valid AddInventory req) {
 
         
-        Airline airline = airlineRepository.findById(req.getAirlineId())
+        Airline airline = airlineRegistry.findById(req.getAirlineId())
                 .orElseThrow(() -> new ResourceNotFoundException("Airline not found"));
 
-        
+        validate(req);
+
+       
+        if (inventoryRepository.existsByFlightNumberAndDepartureDate(
+                req.getFlightNumber(), req.getDepartureDate())) {
+
+            throw new ValidationException(
+                    "A flight with this number is already scheduled for the same date");
+        }
+
+       
+        FlightInventory inv = new FlightInventory();
+        inv.setAirline(airline);
+        inv.setFlightNumber(req.getFlightNumber());
+        inv.setSourceCity(req.getSourceCity());
+        inv.setDestinationCity(req.getDestinationCity());
+        inv.setDepartureDate(req.getDepartureDate());
+        inv.setDepartureTime(req.getDepartureTime());
+        inv.setArrivalDate(req.getArrivalDate());
+        inv.setArrivalTime(req.getArrivalTime());
+        inv.setMealAvailable(req.isMealAvailable());
+        inv.setTotalSeats(req.getTotalSeats());
+        inv.setAvailableSeats(req.getTotalSeats());
+        inv.setPrice(req.getPrice());
+
+        FlightInventory saved = inventoryRepository.save(inv);
+        availabilityStore.track(saved.getFlightId(), saved.getAvailableSeats());
+        eventPublisher.publishEvent(new FlightInventoryChangedEvent(saved));
+        return saved;
+    }
+
+    // field rules shared by addInventory and the bulk upload, no database access
+    public void validate(AddInventory req) {
+
+        if (req.getAirlineId() == null) {
+            throw new ValidationException("Airline is a required field");
+        }
+
         if (req.getFlightNumber() == null || req.getFlightNumber().isBlank()) {
             throw new ValidationException("Flight number is a required field");
         }
@@ -45,22 +95,29 @@ public class FlightInventoryService {
             throw new ValidationException("Destination city is a required field");
         }
 
+        // stored under the registry's code whatever case was sent
+        req.setSourceCity(cityRegistry.code(req.getSourceCity()));
+        req.setDestinationCity(cityRegistry.code(req.getDestinationCity()));
+
         if (req.getSourceCity().equals(req.getDestinationCity())) {
             throw new ValidationException("Source and destination cities cannot be the same");
         }
 
+        if (req.getTotalSeats() == null) {
+            throw new ValidationException("Total seats is required");
+        }
+
         if (req.getTotalSeats() <= 0) {
             throw new ValidationException("Total seats must be greater than zero");
         }
 
+        if (req.getPrice() == null) {
+            throw new ValidationException("Price is required");
+        }
+
         if (req.getPrice() <= 0) {
             throw new ValidationException("Price must be greater than 0");
         }
-        
-        if(req.getPrice()==null) {
-        	throw new ValidationException("Price is required");
-        }
-        
 
        
         LocalDate departureDate = req.getDepartureDate();
@@ -98,30 +155,5 @@ public class FlightInventoryService {
         if (!arrDT.isAfter(depDT)) {
             throw new ValidationException("Arrival date & time must be after departure date & time");
         }
-
-       
-        if (inventoryRepository.existsByFlightNumberAndDepartureDate(
-                req.getFlightNumber(), departureDate)) {
-
-            throw new ValidationException(
-                    "A flight with this number is already scheduled for the same date");
-        }
-
-       
-        FlightInventory inv = new FlightInventory();
-        inv.setAirline(airline);
-        inv.setFlightNumber(req.getFlightNumber());
-        inv.setSourceCity(req.getSourceCity());
-        inv.setDestinationCity(req.getDestinationCity());
-        inv.setDepartureDate(departureDate);
-        inv.setDepartureTime(departureTime);
-        inv.setArrivalDate(arrivalDate);
-        inv.setArrivalTime(arrivalTime);
-        inv.setMealAvailable(req.isMealAvailable());
-        inv.setTotalSeats(req.getTotalSeats());
-        inv.setAvailableSeats(req.getTotalSeats());
-        inv.setPrice(req.getPrice());
-
-        return inventoryRepository.save(inv);
     }
 }
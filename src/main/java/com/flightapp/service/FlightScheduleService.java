@@ -0,0 +1,319 @@
+package com.flightapp.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.exceptions.ResourceNotFoundException;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.Airline;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.FlightSchedule;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.FlightKey;
+import com.flightapp.repository.FlightScheduleRepository;
+import com.flightapp.request.AddSchedule;
+import com.flightapp.response.ScheduleSummary;
+
+// recurring schedules only become flight_inventory rows once their days are inside the booking
+// window (inventory.schedule.horizon-days). a daily job moves every schedule forward, each one
+// in its own transaction on the schedule pool
+@Service
+public class FlightScheduleService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightScheduleService.class);
+
+    private record Expansion(LocalDate materializedThrough, List<FlightInventory> flights) {
+    }
+
+    private final FlightScheduleRepository scheduleRepository;
+    private final AirlineRegistry airlineRegistry;
+    private final CityRegistry cityRegistry;
+    private final FlightInventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Executor scheduleExecutor;
+    private final int horizonDays;
+
+    public FlightScheduleService(FlightScheduleRepository scheduleRepository,
+                                 AirlineRegistry airlineRegistry,
+                                 CityRegistry cityRegistry,
+                                 FlightInventoryRepository inventoryRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Qualifier("scheduleExecutor") Executor scheduleExecutor,
+                                 @Value("${inventory.schedule.horizon-days:180}") int horizonDays) {
+        if (horizonDays < 1) {
+            throw new IllegalArgumentException("Schedule horizon must be positive");
+        }
+        this.scheduleRepository = scheduleRepository;
+        this.airlineRegistry = airlineRegistry;
+        this.cityRegistry = cityRegistry;
+        this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.scheduleExecutor = scheduleExecutor;
+        this.horizonDays = horizonDays;
+    }
+
+    public ScheduleSummary addSchedule(AddSchedule req) {
+
+        validate(req);
+
+        FlightSchedule saved = transactionTemplate.execute(status -> {
+            Airline airline = airlineRegistry.findById(req.getAirlineId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Airline not found"));
+
+            if (scheduleRepository.existsOverlapping(req.getFlightNumber(), req.getValidFrom(), req.getValidTo())) {
+                throw new ValidationException("This flight number already has a schedule overlapping these dates");
+            }
+
+            int days = 0;
+            for (DayOfWeek day : req.getDaysOfWeek()) {
+                days |= FlightSchedule.bit(day);
+            }
+
+            FlightSchedule schedule = new FlightSchedule();
+            schedule.setAirline(airline);
+            schedule.setFlightNumber(req.getFlightNumber());
+            schedule.setSourceCity(req.getSourceCity());
+            schedule.setDestinationCity(req.getDestinationCity());
+            schedule.setDaysOfWeek(days);
+            schedule.setValidFrom(req.getValidFrom());
+            schedule.setValidTo(req.getValidTo());
+            schedule.setDepartureTime(req.getDepartureTime());
+            schedule.setArrivalTime(req.getArrivalTime());
+            schedule.setArrivalDayOffset(req.getArrivalDayOffset());
+            schedule.setMealAvailable(req.isMealAvailable());
+            schedule.setTotalSeats(req.getTotalSeats());
+            schedule.setPrice(req.getPrice());
+            schedule.setMaterializedThrough(req.getValidFrom().minusDays(1));
+            return scheduleRepository.save(schedule);
+        });
+
+        // the days already inside the window are bookable when this returns. if this part
+        // fails the schedule is kept and the next expansion run creates them
+        Expansion expansion;
+        try {
+            expansion = expandAndPublish(saved.getScheduleId());
+        } catch (RuntimeException e) {
+            log.warn("Expanding new schedule {} failed, retrying next run", saved.getScheduleId(), e);
+            return ScheduleSummary.of(saved, 0);
+        }
+        if (expansion.materializedThrough() != null) {
+            saved.setMaterializedThrough(expansion.materializedThrough());
+        }
+        return ScheduleSummary.of(saved, expansion.flights().size());
+    }
+
+    public void validate(AddSchedule req) {
+
+        if (req.getAirlineId() == null) {
+            throw new ValidationException("Airline is a required field");
+        }
+
+        if (req.getFlightNumber() == null || req.getFlightNumber().isBlank()) {
+            throw new ValidationException("Flight number is a required field");
+        }
+
+        if (req.getSourceCity() == null) {
+            throw new ValidationException("Source city is a required field");
+        }
+
+        if (req.getDestinationCity() == null) {
+            throw new ValidationException("Destination city is a required field");
+        }
+
+        // stored under the registry's code whatever case was sent
+        req.setSourceCity(cityRegistry.code(req.getSourceCity()));
+        req.setDestinationCity(cityRegistry.code(req.getDestinationCity()));
+
+        if (req.getSourceCity().equals(req.getDestinationCity())) {
+            throw new ValidationException("Source and destination cities cannot be the same");
+        }
+
+        if (req.getDaysOfWeek() == null || req.getDaysOfWeek().isEmpty()) {
+            throw new ValidationException("At least one day of the week is required");
+        }
+
+        if (req.getValidFrom() == null || req.getValidTo() == null) {
+            throw new ValidationException("Schedule start and end dates are required");
+        }
+
+        if (req.getValidTo().isBefore(req.getValidFrom())) {
+            throw new ValidationException("Schedule end date must not be before its start date");
+        }
+
+        if (req.getValidTo().isBefore(LocalDate.now())) {
+            throw new ValidationException("Schedule end date must not be in the past");
+        }
+
+        if (req.getDepartureTime() == null || req.getArrivalTime() == null) {
+            throw new ValidationException("Departure and arrival times are required");
+        }
+
+        if (req.getArrivalDayOffset() < 0 || req.getArrivalDayOffset() > 2) {
+            throw new ValidationException("Arrival must be on the departure day or up to two days later");
+        }
+
+        if (req.getArrivalDayOffset() == 0 && !req.getArrivalTime().isAfter(req.getDepartureTime())) {
+            throw new ValidationException("Arrival date & time must be after departure date & time");
+        }
+
+        if (req.getTotalSeats() == null || req.getTotalSeats() <= 0) {
+            throw new ValidationException("Total seats must be greater than zero");
+        }
+
+        if (req.getPrice() == null || req.getPrice() <= 0) {
+            throw new ValidationException("Price must be greater than 0");
+        }
+    }
+
+    // catches up after downtime. the runs finish on the schedule executor, startup does not wait for them
+    @EventListener(ApplicationReadyEvent.class)
+    public void expandDueOnStartup() {
+        startDueExpansions();
+    }
+
+    // once a day as the window moves forward by a day, returns how many flights were created
+    @Scheduled(cron = "${inventory.schedule.expand-cron:0 10 0 * * *}")
+    public int expandDue() {
+        return startDueExpansions().stream().mapToInt(CompletableFuture::join).sum();
+    }
+
+    private List<CompletableFuture<Integer>> startDueExpansions() {
+        // a stale replica only makes a schedule look due (the claim then fails) or not yet
+        // due (picked up next run), so this needs no transaction
+        List<Long> due = scheduleRepository.findDueForExpansion(LocalDate.now().plusDays(horizonDays));
+        List<CompletableFuture<Integer>> runs = new ArrayList<>(due.size());
+        for (Long scheduleId : due) {
+            runs.add(CompletableFuture.supplyAsync(() -> expand(scheduleId), scheduleExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Expanding schedule {} failed, retrying next run", scheduleId, e);
+                        return 0;
+                    }));
+        }
+        return runs;
+    }
+
+    // creates the flights of one schedule up to the end of the booking window, returns how many
+    public int expand(Long scheduleId) {
+        return expandAndPublish(scheduleId).flights().size();
+    }
+
+    private Expansion expandAndPublish(Long scheduleId) {
+        Expansion expansion = transactionTemplate.execute(status -> materialize(scheduleId));
+        // transient flights without ids: the caches only need the route and day
+        for (FlightInventory flight : expansion.flights()) {
+            eventPublisher.publishEvent(new FlightInventoryChangedEvent(flight));
+        }
+        return expansion;
+    }
+
+    private Expansion materialize(Long scheduleId) {
+        FlightSchedule schedule = scheduleRepository.findById(scheduleId).orElse(null);
+        if (schedule == null) {
+            return new Expansion(null, List.of());
+        }
+        LocalDate from = schedule.getMaterializedThrough();
+        LocalDate horizon = LocalDate.now().plusDays(horizonDays);
+        LocalDate through = schedule.getValidTo().isBefore(horizon) ? schedule.getValidTo() : horizon;
+        if (!through.isAfter(from)) {
+            return new Expansion(from, List.of());
+        }
+        Long airlineId = schedule.getAirline().getAirlineId();
+
+        // claimed first: the row lock keeps other instances out until this commits, and a
+        // failed insert rolls the claim back with it
+        if (scheduleRepository.advanceMaterialized(scheduleId, from, through) == 0) {
+            return new Expansion(null, List.of());
+        }
+
+        // days that slipped into the past while nothing ran are skipped
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = from.plusDays(1); !day.isAfter(through); day = day.plusDays(1)) {
+            if (schedule.operatesOn(day.getDayOfWeek())
+                    && LocalDateTime.of(day, schedule.getDepartureTime()).isAfter(now)) {
+                days.add(day);
+            }
+        }
+        if (days.isEmpty()) {
+            return new Expansion(through, List.of());
+        }
+
+        // days someone already added by hand or by upload keep their flight
+        Set<LocalDate> taken = new HashSet<>();
+        for (FlightKey key : inventoryRepository.findExistingKeys(List.of(schedule.getFlightNumber()), days)) {
+            taken.add(key.getDepartureDate());
+        }
+
+        List<FlightInventory> flights = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            if (!taken.contains(day)) {
+                flights.add(flight(schedule, day));
+            }
+        }
+        if (!flights.isEmpty()) {
+            jdbcTemplate.batchUpdate(InventoryBulkLoader.INSERT, flights, flights.size(),
+                    (ps, flight) -> bind(ps, airlineId, flight));
+        }
+        return new Expansion(through, flights);
+    }
+
+    private static FlightInventory flight(FlightSchedule schedule, LocalDate day) {
+        FlightInventory flight = new FlightInventory();
+        flight.setFlightNumber(schedule.getFlightNumber());
+        flight.setSourceCity(schedule.getSourceCity());
+        flight.setDestinationCity(schedule.getDestinationCity());
+        flight.setDepartureDate(day);
+        flight.setDepartureTime(schedule.getDepartureTime());
+        flight.setArrivalDate(day.plusDays(schedule.getArrivalDayOffset()));
+        flight.setArrivalTime(schedule.getArrivalTime());
+        flight.setMealAvailable(schedule.isMealAvailable());
+        flight.setTotalSeats(schedule.getTotalSeats());
+        flight.setAvailableSeats(schedule.getTotalSeats());
+        flight.setPrice(schedule.getPrice());
+        return flight;
+    }
+
+    private static void bind(PreparedStatement ps, Long airlineId, FlightInventory flight) throws SQLException {
+        ps.setLong(1, airlineId);
+        ps.setString(2, flight.getFlightNumber());
+        ps.setString(3, flight.getSourceCity());
+        ps.setString(4, flight.getDestinationCity());
+        ps.setObject(5, flight.getDepartureDate());
+        ps.setObject(6, flight.getDepartureTime());
+        ps.setObject(7, flight.getArrivalDate());
+        ps.setObject(8, flight.getArrivalTime());
+        ps.setBoolean(9, flight.isMealAvailable());
+        ps.setInt(10, flight.getTotalSeats());
+        ps.setInt(11, flight.getAvailableSeats());
+        ps.setDouble(12, flight.getPrice());
+    }
+}
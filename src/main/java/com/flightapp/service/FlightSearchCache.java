@@ -0,0 +1,197 @@
+package com.flightapp.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.response.SearchCacheStats;
+
+// search results per (source, destination, date). entries expire after a TTL, each segment
+// evicts its least recently used entry when full, and any inventory change on a route/date
+// drops that entry straight away. every drop bumps the segment's generation, and a load only
+// goes in if the generation it started under is still current, so rows read before a change
+// can't land after its invalidation. a replica that hasn't applied the change yet can still
+// serve old rows to a load that starts afterwards, the TTL bounds how long they stay.
+@Component
+public class FlightSearchCache {
+
+    private static final int SEGMENTS = 16;
+
+    public record RouteKey(String sourceCity, String destinationCity, LocalDate departureDate) {
+
+        public static RouteKey of(FlightInventory flight) {
+            return new RouteKey(flight.getSourceCity(), flight.getDestinationCity(), flight.getDepartureDate());
+        }
+
+        public static RouteKey of(FlightSummary flight) {
+            return new RouteKey(flight.sourceCity(), flight.destinationCity(), flight.departureDate());
+        }
+    }
+
+    private record Entry(List<FlightSummary> flights, long expiresAt) {
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public FlightSearchCache(@Value("${flight.search.cache.max-entries:10000}") int maxEntries,
+                             @Value("${flight.search.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(maxEntries, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    public FlightSearchCache(int maxEntries, Duration ttl, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        int perSegment = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    private Segment segmentFor(RouteKey key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    public List<FlightSummary> get(RouteKey key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            Entry entry = segment.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.expiresAt() <= clock.millis()) {
+                segment.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.flights();
+        }
+    }
+
+    // read before loading, put skips the rows if the key's segment was invalidated since
+    public long generation(RouteKey key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.generation;
+        }
+    }
+
+    public void put(RouteKey key, List<FlightSummary> flights, long generation) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            if (segment.generation == generation) {
+                segment.put(key, new Entry(List.copyOf(flights), clock.millis() + ttlMillis));
+            }
+        }
+    }
+
+    public List<FlightSummary> getOrLoad(RouteKey key, Supplier<List<FlightSummary>> loader) {
+        long generation = generation(key);
+        List<FlightSummary> cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<FlightSummary> loaded = loader.get();
+        put(key, loaded, generation);
+        return loaded;
+    }
+
+    public void invalidate(RouteKey key) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            if (segment.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.generation++;
+                segment.clear();
+            }
+        }
+    }
+
+    // after commit, so a load that starts after this reads the change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInventoryChanged(FlightInventoryChangedEvent event) {
+        invalidate(RouteKey.of(event.flight()));
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public SearchCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new SearchCacheStats(
+                hitCount,
+                missCount,
+                lookups == 0 ? 0.0 : (double) hitCount / lookups,
+                evictions.sum(),
+                expirations.sum(),
+                invalidations.sum(),
+                size(),
+                maxEntries);
+    }
+
+    private final class Segment extends LinkedHashMap<RouteKey, Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private long generation;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RouteKey, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
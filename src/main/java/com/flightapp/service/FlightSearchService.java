@@ -1,17 +1,27 @@
 package com.flightapp.service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.Valid;
 
 import com.flightapp.exceptions.ValidationException;
 import com.flightapp.exceptions.ResourceNotFoundException;
-import com.flightapp.model.FlightInventory;
+import com.flightapp.model.ItinerarySort;
 import com.flightapp.model.TripType;
 import com.flightapp.repository.FlightInventoryRepository;
 import com.flightapp.request.FlightSearchRequest;
+import com.flightapp.response.DayFare;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.response.Itinerary;
+import com.flightapp.response.RoundTripOption;
+import com.flightapp.response.RoundTripSearchResponse;
 
 @Service
 public class FlightSearchService {
@@ -19,17 +29,43 @@ public class FlightSearchService {
     
     private FlightInventoryRepository inventoryRepository;
 
-    public FlightSearchService(FlightInventoryRepository inventoryRepository) {
+    private SeatAvailabilityStore availabilityStore;
+
+    private FlightSearchCache searchCache;
+
+    private FareCalendar fareCalendar;
+
+    private ConnectionGraph connectionGraph;
+
+    private CityRegistry cityRegistry;
+
+    public FlightSearchService(FlightInventoryRepository inventoryRepository,
+                               SeatAvailabilityStore availabilityStore,
+                               FlightSearchCache searchCache,
+                               FareCalendar fareCalendar,
+                               ConnectionGraph connectionGraph,
+                               CityRegistry cityRegistry) {
         this.inventoryRepository = inventoryRepository;
+        this.availabilityStore = availabilityStore;
+        this.searchCache = searchCache;
+        this.fareCalendar = fareCalendar;
+        this.connectionGraph = connectionGraph;
+        this.cityRegistry = cityRegistry;
     }
 
-    public List<FlightInventory> searchFlights(@Valid FlightSearchRequest req) {
+    private static final int CHEAPEST_OPTIONS = 5;
+    private static final int DEFAULT_FLEXIBLE_DAYS = 3;
+
+    public void validateSearch(FlightSearchRequest req) {
 
-        
         if (req.getSourceCity() == null || req.getDestinationCity() == null) {
             throw new ValidationException("Source and destination are required");
         }
 
+        // cache keys and queries use the registry's code whatever case was sent
+        req.setSourceCity(cityRegistry.code(req.getSourceCity()));
+        req.setDestinationCity(cityRegistry.code(req.getDestinationCity()));
+
         if (req.getSourceCity().equals(req.getDestinationCity())) {
             throw new ValidationException("Source and destination cannot be the same");
         }
@@ -53,20 +89,213 @@ public class FlightSearchService {
                 throw new ValidationException("Return date cannot be before travel date");
             }
         }
+    }
+
+    // the searches only read, so they run on a read replica when one is configured
+    @Transactional(readOnly = true)
+    public List<FlightSummary> searchFlights(@Valid FlightSearchRequest req) {
 
-        
-        List<FlightInventory> outbound =
-                inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+        validateSearch(req);
+
+        FlightSearchCache.RouteKey key = new FlightSearchCache.RouteKey(
+                req.getSourceCity(), req.getDestinationCity(), req.getTravelDate());
+
+        List<FlightSummary> outbound = searchCache.getOrLoad(key, () ->
+                inventoryRepository.findFlights(
                         req.getSourceCity(),
                         req.getDestinationCity(),
                         req.getTravelDate()
-                );
+                ));
+
+        return outboundFlights(outbound);
+    }
+
+    // searchFlights for a validated request that already missed the cache, queries without looking again
+    @Transactional(readOnly = true)
+    public List<FlightSummary> loadFlights(FlightSearchRequest req) {
+
+        FlightSearchCache.RouteKey key = new FlightSearchCache.RouteKey(
+                req.getSourceCity(), req.getDestinationCity(), req.getTravelDate());
+        long generation = searchCache.generation(key);
+        List<FlightSummary> outbound = inventoryRepository.findFlights(
+                req.getSourceCity(), req.getDestinationCity(), req.getTravelDate());
+        searchCache.put(key, outbound, generation);
+
+        return outboundFlights(outbound);
+    }
+
+    // the searchFlights result for flights found in the cache or the database
+    public List<FlightSummary> outboundFlights(List<FlightSummary> outbound) {
 
         if (outbound.isEmpty()) {
             throw new ResourceNotFoundException("No outbound flights found");
         }
 
+        return liveSeats(outbound);
+    }
+
+    @Transactional(readOnly = true)
+    public RoundTripSearchResponse searchRoundTrip(@Valid FlightSearchRequest req) {
+
+        if (req.getTripType() != TripType.ROUND_TRIP) {
+            throw new ValidationException("Trip type must be ROUND_TRIP for a round-trip search");
+        }
+
+        validateSearch(req);
+
+        FlightSearchCache.RouteKey outboundKey = new FlightSearchCache.RouteKey(
+                req.getSourceCity(), req.getDestinationCity(), req.getTravelDate());
+        FlightSearchCache.RouteKey returnKey = new FlightSearchCache.RouteKey(
+                req.getDestinationCity(), req.getSourceCity(), req.getReturnDate());
+
+        List<FlightSummary> outbound = searchCache.get(outboundKey);
+        List<FlightSummary> inbound = searchCache.get(returnKey);
+
+        if (outbound == null && inbound == null) {
+            // nothing cached, fetch both legs with one query and split them
+            long outboundGeneration = searchCache.generation(outboundKey);
+            long returnGeneration = searchCache.generation(returnKey);
+            List<FlightSummary> legs = inventoryRepository.findRoundTripLegs(
+                    req.getSourceCity(), req.getDestinationCity(), req.getTravelDate(), req.getReturnDate());
+
+            outbound = new ArrayList<>();
+            inbound = new ArrayList<>();
+            for (FlightSummary leg : legs) {
+                if (outboundKey.equals(FlightSearchCache.RouteKey.of(leg))) {
+                    outbound.add(leg);
+                } else {
+                    inbound.add(leg);
+                }
+            }
+            searchCache.put(outboundKey, outbound, outboundGeneration);
+            searchCache.put(returnKey, inbound, returnGeneration);
+        } else if (outbound == null) {
+            outbound = searchCache.getOrLoad(outboundKey, () ->
+                    inventoryRepository.findFlights(
+                            req.getSourceCity(), req.getDestinationCity(), req.getTravelDate()));
+        } else if (inbound == null) {
+            inbound = searchCache.getOrLoad(returnKey, () ->
+                    inventoryRepository.findFlights(
+                            req.getDestinationCity(), req.getSourceCity(), req.getReturnDate()));
+        }
+
+        if (outbound.isEmpty()) {
+            throw new ResourceNotFoundException("No outbound flights found");
+        }
+
+        if (inbound.isEmpty()) {
+            throw new ResourceNotFoundException("No return flights found");
+        }
+
+        outbound = liveSeats(outbound);
+        inbound = liveSeats(inbound);
 
-        return outbound;
+        return new RoundTripSearchResponse(outbound, inbound, cheapestOptions(outbound, inbound));
+    }
+
+    // lowest fare and free seats for each day in travelDate +- flexibleDays
+    @Transactional(readOnly = true)
+    public List<DayFare> searchFlexibleDates(@Valid FlightSearchRequest req) {
+
+        validateSearch(req);
+
+        int flex = req.getFlexibleDays() == null ? DEFAULT_FLEXIBLE_DAYS : req.getFlexibleDays();
+        if (flex < 0 || flex > 7) {
+            throw new ValidationException("Flexible days must be between 0 and 7");
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate from = req.getTravelDate().minusDays(flex);
+        if (from.isBefore(today)) {
+            from = today;
+        }
+        LocalDate to = req.getTravelDate().plusDays(flex);
+
+        return fareCalendar.window(req.getSourceCity(), req.getDestinationCity(), from, to,
+                (first, last) -> inventoryRepository.findFaresBetween(
+                        req.getSourceCity(), req.getDestinationCity(), first, last));
+    }
+
+    // direct flights and connections with up to maxStops stops, best first by duration or price
+    @Transactional(readOnly = true)
+    public List<Itinerary> searchConnections(@Valid FlightSearchRequest req) {
+
+        validateSearch(req);
+
+        int maxStops = req.getMaxStops() == null ? ConnectionGraph.MAX_STOPS : req.getMaxStops();
+        if (maxStops < 0 || maxStops > ConnectionGraph.MAX_STOPS) {
+            throw new ValidationException("Max stops must be between 0 and " + ConnectionGraph.MAX_STOPS);
+        }
+        ItinerarySort sort = req.getSortBy() == null ? ItinerarySort.DURATION : req.getSortBy();
+
+        List<Itinerary> itineraries = connectionGraph.itineraries(req.getSourceCity(), req.getDestinationCity(),
+                req.getTravelDate(), maxStops, sort, inventoryRepository::findFlightsDepartingBetween);
+
+        if (itineraries.isEmpty()) {
+            throw new ResourceNotFoundException("No itineraries found");
+        }
+
+        List<Itinerary> live = new ArrayList<>(itineraries.size());
+        for (Itinerary itinerary : itineraries) {
+            live.add(new Itinerary(liveSeats(itinerary.legs()), itinerary.stops(), itinerary.departure(),
+                    itinerary.arrival(), itinerary.durationMinutes(), itinerary.totalPrice()));
+        }
+
+        return live;
+    }
+
+    // cheapest pairs where the return leg leaves after the outbound leg lands
+    private List<RoundTripOption> cheapestOptions(List<FlightSummary> outbound, List<FlightSummary> inbound) {
+
+        PriorityQueue<RoundTripOption> best = new PriorityQueue<>(
+                Comparator.comparingDouble(RoundTripOption::totalPrice).reversed());
+
+        for (FlightSummary out : outbound) {
+            if (out.availableSeats() <= 0) {
+                continue;
+            }
+            LocalDateTime landing = arrival(out);
+
+            for (FlightSummary ret : inbound) {
+                if (ret.availableSeats() <= 0 || departure(ret).isBefore(landing)) {
+                    continue;
+                }
+                double total = out.price() + ret.price();
+                if (best.size() < CHEAPEST_OPTIONS) {
+                    best.add(new RoundTripOption(out.flightId(), ret.flightId(), total));
+                } else if (total < best.peek().totalPrice()) {
+                    best.poll();
+                    best.add(new RoundTripOption(out.flightId(), ret.flightId(), total));
+                }
+            }
+        }
+
+        List<RoundTripOption> options = new ArrayList<>(best);
+        options.sort(Comparator.comparingDouble(RoundTripOption::totalPrice));
+        return options;
+    }
+
+    private static LocalDateTime departure(FlightSummary flight) {
+        return flight.departureTime() == null
+                ? flight.departureDate().atStartOfDay()
+                : LocalDateTime.of(flight.departureDate(), flight.departureTime());
+    }
+
+    private static LocalDateTime arrival(FlightSummary flight) {
+        return flight.arrivalDate() == null || flight.arrivalTime() == null
+                ? departure(flight)
+                : LocalDateTime.of(flight.arrivalDate(), flight.arrivalTime());
+    }
+
+    // searched flights are the ones about to be booked, their counters are seeded from the rows.
+    // results show the counter, it moves with every booking while the cached rows stay as loaded
+    private List<FlightSummary> liveSeats(List<FlightSummary> flights) {
+        List<FlightSummary> live = new ArrayList<>(flights.size());
+        for (FlightSummary flight : flights) {
+            availabilityStore.track(flight.flightId(), flight.availableSeats());
+            int seats = availabilityStore.available(flight.flightId());
+            live.add(seats < 0 || seats == flight.availableSeats() ? flight : flight.withAvailableSeats(seats));
+        }
+        return live;
     }
 }
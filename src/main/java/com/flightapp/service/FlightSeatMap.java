@@ -0,0 +1,99 @@
+package com.flightapp.service;
+
+import java.util.Arrays;
+
+// occupancy of one flight as a bitset, bit i set means seat i is taken.
+// seat i maps to row i / 6 + 1 and letter A-F, so 300 seats fit in five longs.
+public class FlightSeatMap {
+
+    public static final int SEATS_PER_ROW = 6;
+
+    private final int capacity;
+    private final long[] taken;
+
+    public FlightSeatMap(int capacity) {
+        this.capacity = capacity;
+        this.taken = new long[(capacity + 63) / 64];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // "12A" -> 66, returns -1 when the code is malformed or beyond the cabin
+    public int indexOf(String seatNo) {
+        if (seatNo == null) {
+            return -1;
+        }
+        String code = seatNo.trim();
+        int len = code.length();
+        if (len < 2 || len > 4) {
+            return -1;
+        }
+        int row = 0;
+        for (int i = 0; i < len - 1; i++) {
+            char c = code.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            row = row * 10 + (c - '0');
+        }
+        int col = Character.toUpperCase(code.charAt(len - 1)) - 'A';
+        if (row < 1 || col < 0 || col >= SEATS_PER_ROW) {
+            return -1;
+        }
+        int index = (row - 1) * SEATS_PER_ROW + col;
+        return index < capacity ? index : -1;
+    }
+
+    public static String seatNo(int index) {
+        return (index / SEATS_PER_ROW + 1) + String.valueOf((char) ('A' + index % SEATS_PER_ROW));
+    }
+
+    public synchronized boolean isTaken(int index) {
+        return (taken[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // all or nothing: either every seat is free and gets marked, or nothing changes
+    public synchronized boolean tryTake(int[] indexes) {
+        for (int index : indexes) {
+            if ((taken[index >>> 6] & (1L << index)) != 0) {
+                return false;
+            }
+        }
+        for (int index : indexes) {
+            taken[index >>> 6] |= 1L << index;
+        }
+        return true;
+    }
+
+    public synchronized void free(int[] indexes) {
+        for (int index : indexes) {
+            taken[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    // the first count free seats in cabin order, fewer when the flight has no more
+    public synchronized int[] firstFree(int count) {
+        int[] free = new int[count];
+        int found = 0;
+        for (int index = 0; index < capacity && found < count; index++) {
+            if ((taken[index >>> 6] & (1L << index)) == 0) {
+                free[found++] = index;
+            }
+        }
+        return found == count ? free : Arrays.copyOf(free, found);
+    }
+
+    public synchronized void mark(int index) {
+        taken[index >>> 6] |= 1L << index;
+    }
+
+    public synchronized int takenCount() {
+        int count = 0;
+        for (long word : taken) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,90 @@
+package com.flightapp.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// hashed timer wheel for seat hold expiry. a hold goes into the bucket of the tick it expires
+// in and each tick only walks that one bucket, so scheduling, cancelling and expiring a hold
+// are O(1) however many are outstanding. holds more than one turn away carry the number of
+// turns they still have to wait. never expires a hold early, at most one tick late
+public class HoldExpiryWheel {
+
+    private static final class Hold {
+
+        final String pnr;
+        final int bucket;
+        long rounds;
+
+        Hold(String pnr, int bucket, long rounds) {
+            this.pnr = pnr;
+            this.bucket = bucket;
+            this.rounds = rounds;
+        }
+    }
+
+    private final long tickMillis;
+    private final List<Map<String, Hold>> buckets;
+    private final Map<String, Hold> holds = new HashMap<>();
+
+    // next tick to process, counted from the epoch
+    private long tick;
+
+    public HoldExpiryWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 1) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new LinkedHashMap<>());
+        }
+        this.tick = startMillis / tickMillis;
+    }
+
+    public synchronized void schedule(String pnr, long expiresAtMillis) {
+        cancel(pnr);
+        // the first tick starting at or after the expiry, already due holds go in the next one
+        long due = Math.max(Math.floorDiv(expiresAtMillis + tickMillis - 1, tickMillis), tick);
+        int bucket = (int) (due % buckets.size());
+        Hold hold = new Hold(pnr, bucket, (due - tick) / buckets.size());
+        buckets.get(bucket).put(pnr, hold);
+        holds.put(pnr, hold);
+    }
+
+    public synchronized boolean cancel(String pnr) {
+        Hold hold = holds.remove(pnr);
+        if (hold == null) {
+            return false;
+        }
+        buckets.get(hold.bucket).remove(pnr);
+        return true;
+    }
+
+    // processes every tick up to now and returns the pnrs whose hold ran out, in expiry order
+    public synchronized List<String> advance(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        List<String> expired = new ArrayList<>();
+        for (; tick <= nowTick; tick++) {
+            Iterator<Hold> it = buckets.get((int) (tick % buckets.size())).values().iterator();
+            while (it.hasNext()) {
+                Hold hold = it.next();
+                if (hold.rounds > 0) {
+                    hold.rounds--;
+                    continue;
+                }
+                it.remove();
+                holds.remove(hold.pnr);
+                expired.add(hold.pnr);
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return holds.size();
+    }
+}
@@ -0,0 +1,369 @@
+package com.flightapp.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.FlightKey;
+import com.flightapp.request.AddInventory;
+import com.flightapp.response.BulkInventoryResult;
+import com.flightapp.response.BulkInventoryResult.RowError;
+import com.flightapp.service.FlightSearchCache.RouteKey;
+
+// schedule uploads, a JSON array or CSV streamed in chunks: each chunk is validated with the
+// addInventory rules, checked against existing (flight number, date) pairs with one query and
+// written as one JDBC batch. bad rows are reported and skipped, they never fail the upload.
+// no column can hold a comma, so the CSV is split on commas and quoted values are refused
+// rather than half-parsed
+@Service
+public class InventoryBulkLoader {
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    static final String INSERT = "INSERT INTO flight_inventory (airline_id, flight_number, source_city, "
+            + "destination_city, departure_date, departure_time, arrival_date, arrival_time, meal_available, "
+            + "total_seats, available_seats, price) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    static final List<String> CSV_COLUMNS = List.of("airlineId", "flightNumber", "sourceCity", "destinationCity",
+            "departureDate", "departureTime", "arrivalDate", "arrivalTime", "mealAvailable", "totalSeats", "price");
+
+    private static final String DUPLICATE = "A flight with this number is already scheduled for the same date";
+
+    private static final String QUOTED = "Quoted CSV values are not supported";
+
+    private record Row(int number, AddInventory flight, String error) {
+    }
+
+    // next row of the upload, null once it is exhausted
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+
+    private final FlightInventoryService inventoryService;
+    private final AirlineRegistry airlineRegistry;
+    private final CityRegistry cityRegistry;
+    private final FlightInventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public InventoryBulkLoader(FlightInventoryService inventoryService,
+                               AirlineRegistry airlineRegistry,
+                               CityRegistry cityRegistry,
+                               FlightInventoryRepository inventoryRepository,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher,
+                               ObjectMapper objectMapper,
+                               @Value("${inventory.bulk.chunk-size:1000}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Bulk chunk size must be positive");
+        }
+        this.inventoryService = inventoryService;
+        this.airlineRegistry = airlineRegistry;
+        this.cityRegistry = cityRegistry;
+        this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkInventoryResult loadJson(InputStream in) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ValidationException("Expected a JSON array of flights");
+            }
+            int[] number = {0};
+            return load(() -> {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    return null;
+                }
+                if (token == null) {
+                    throw new JsonParseException(parser, "Unexpected end of input");
+                }
+                number[0]++;
+                // one element at a time, a row that doesn't bind leaves the parser on the next element
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    return new Row(number[0], objectMapper.treeToValue(node, AddInventory.class), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(number[0], null, "Invalid flight: " + e.getOriginalMessage());
+                }
+            });
+        }
+    }
+
+    public BulkInventoryResult loadCsv(InputStream in) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new ValidationException("CSV upload is empty");
+            }
+            if (header.indexOf('"') >= 0) {
+                throw new ValidationException(QUOTED);
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            String[] names = header.split(",", -1);
+            for (int i = 0; i < names.length; i++) {
+                columns.put(names[i].trim(), i);
+            }
+            for (String column : CSV_COLUMNS) {
+                if (!columns.containsKey(column)) {
+                    throw new ValidationException("CSV header must contain " + String.join(",", CSV_COLUMNS));
+                }
+            }
+            int[] number = {0};
+            return load(() -> {
+                String line;
+                do {
+                    line = reader.readLine();
+                    if (line == null) {
+                        return null;
+                    }
+                } while (line.isBlank());
+                number[0]++;
+                if (line.indexOf('"') >= 0) {
+                    return new Row(number[0], null, QUOTED);
+                }
+                return csvRow(number[0], line.split(",", -1), names.length, columns);
+            });
+        }
+    }
+
+    private Row csvRow(int number, String[] values, int width, Map<String, Integer> columns) {
+        if (values.length != width) {
+            return new Row(number, null, "Expected " + width + " columns but found " + values.length);
+        }
+        AddInventory flight = new AddInventory();
+        String column = null;
+        try {
+            column = "airlineId";
+            flight.setAirlineId(Long.valueOf(value(values, columns, column)));
+            flight.setFlightNumber(value(values, columns, "flightNumber"));
+            column = "sourceCity";
+            flight.setSourceCity(cityRegistry.code(value(values, columns, column)));
+            column = "destinationCity";
+            flight.setDestinationCity(cityRegistry.code(value(values, columns, column)));
+            column = "departureDate";
+            flight.setDepartureDate(LocalDate.parse(value(values, columns, column)));
+            column = "departureTime";
+            flight.setDepartureTime(LocalTime.parse(value(values, columns, column)));
+            column = "arrivalDate";
+            flight.setArrivalDate(LocalDate.parse(value(values, columns, column)));
+            column = "arrivalTime";
+            flight.setArrivalTime(LocalTime.parse(value(values, columns, column)));
+            flight.setMealAvailable(Boolean.parseBoolean(value(values, columns, "mealAvailable")));
+            column = "totalSeats";
+            flight.setTotalSeats(Integer.valueOf(value(values, columns, column)));
+            column = "price";
+            flight.setPrice(Double.valueOf(value(values, columns, column)));
+        } catch (RuntimeException e) {
+            return new Row(number, flight, "Invalid value for " + column + ": '" + value(values, columns, column) + "'");
+        }
+        return new Row(number, flight, null);
+    }
+
+    private static String value(String[] values, Map<String, Integer> columns, String column) {
+        return values[columns.get(column)].trim();
+    }
+
+    private BulkInventoryResult load(RowSource source) throws IOException {
+        Upload upload = new Upload();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        try {
+            for (Row row = source.next(); row != null; row = source.next()) {
+                upload.rows++;
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    process(chunk, upload);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // can't find the next element after broken JSON, keep what was read so far
+            upload.reject(upload.rows + 1, null, "Malformed JSON, the rest of the upload was not read");
+        }
+        process(chunk, upload);
+        return new BulkInventoryResult(upload.rows, upload.inserted, upload.rejected, List.copyOf(upload.errors));
+    }
+
+    private void process(List<Row> chunk, Upload upload) {
+        List<Row> valid = new ArrayList<>();
+        // duplicates in earlier chunks are already in the table and caught by the existing-key check
+        Map<String, Integer> seen = new HashMap<>();
+        for (Row row : chunk) {
+            if (row.error() != null) {
+                upload.reject(row, row.error());
+                continue;
+            }
+            try {
+                inventoryService.validate(row.flight());
+            } catch (ValidationException e) {
+                upload.reject(row, e.getMessage());
+                continue;
+            }
+            Integer first = seen.putIfAbsent(key(row.flight().getFlightNumber(),
+                    row.flight().getDepartureDate()), row.number());
+            if (first != null) {
+                upload.reject(row, "Duplicate of row " + first + " in this upload");
+                continue;
+            }
+            valid.add(row);
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // read-write so the duplicate check reads the primary
+        List<Row> insertable = transactionTemplate.execute(status -> checkAgainstDatabase(valid, upload));
+        if (insertable.isEmpty()) {
+            return;
+        }
+        List<Row> inserted = insertable;
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT, insertable, insertable.size(), this::bind));
+            upload.inserted += insertable.size();
+        } catch (DataIntegrityViolationException e) {
+            // something was added since the check, find out which rows one insert at a time
+            inserted = insertOneByOne(insertable, upload);
+        }
+        publishChanges(inserted);
+    }
+
+    private List<Row> checkAgainstDatabase(List<Row> rows, Upload upload) {
+        Set<String> flightNumbers = new HashSet<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (Row row : rows) {
+            flightNumbers.add(row.flight().getFlightNumber());
+            dates.add(row.flight().getDepartureDate());
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (FlightKey key : inventoryRepository.findExistingKeys(flightNumbers, dates)) {
+            existing.add(key(key.getFlightNumber(), key.getDepartureDate()));
+        }
+
+        List<Row> insertable = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (airlineRegistry.findById(row.flight().getAirlineId()).isEmpty()) {
+                upload.reject(row, "Airline not found");
+            } else if (existing.contains(key(row.flight().getFlightNumber(), row.flight().getDepartureDate()))) {
+                upload.reject(row, DUPLICATE);
+            } else {
+                insertable.add(row);
+            }
+        }
+        return insertable;
+    }
+
+    private List<Row> insertOneByOne(List<Row> rows, Upload upload) {
+        List<Row> inserted = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            try {
+                jdbcTemplate.update(INSERT, ps -> bind(ps, row));
+                inserted.add(row);
+                upload.inserted++;
+            } catch (DuplicateKeyException e) {
+                upload.reject(row, DUPLICATE);
+            } catch (DataIntegrityViolationException e) {
+                upload.reject(row, "Could not be saved: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        return inserted;
+    }
+
+    private void bind(PreparedStatement ps, Row row) throws SQLException {
+        AddInventory flight = row.flight();
+        ps.setLong(1, flight.getAirlineId());
+        ps.setString(2, flight.getFlightNumber());
+        ps.setString(3, flight.getSourceCity());
+        ps.setString(4, flight.getDestinationCity());
+        ps.setObject(5, flight.getDepartureDate());
+        ps.setObject(6, flight.getDepartureTime());
+        ps.setObject(7, flight.getArrivalDate());
+        ps.setObject(8, flight.getArrivalTime());
+        ps.setBoolean(9, flight.isMealAvailable());
+        ps.setInt(10, flight.getTotalSeats());
+        ps.setInt(11, flight.getTotalSeats());
+        ps.setDouble(12, flight.getPrice());
+    }
+
+    // one event per route and day so cached searches for them are dropped. the rows have no ids
+    // here, the seat counters pick the new flights up on the next reconcile
+    private void publishChanges(List<Row> rows) {
+        Map<RouteKey, FlightInventory> changed = new LinkedHashMap<>();
+        for (Row row : rows) {
+            AddInventory req = row.flight();
+            changed.computeIfAbsent(new RouteKey(req.getSourceCity(), req.getDestinationCity(), req.getDepartureDate()),
+                    key -> {
+                        FlightInventory flight = new FlightInventory();
+                        flight.setSourceCity(key.sourceCity());
+                        flight.setDestinationCity(key.destinationCity());
+                        flight.setDepartureDate(key.departureDate());
+                        return flight;
+                    });
+        }
+        changed.values().forEach(flight -> eventPublisher.publishEvent(new FlightInventoryChangedEvent(flight)));
+    }
+
+    private static String key(String flightNumber, LocalDate departureDate) {
+        return flightNumber + '|' + departureDate;
+    }
+
+    private static final class Upload {
+
+        final List<RowError> errors = new ArrayList<>();
+        int rows;
+        int inserted;
+        int rejected;
+
+        void reject(Row row, String message) {
+            reject(row.number(), row.flight() == null ? null : row.flight().getFlightNumber(), message);
+        }
+
+        void reject(int row, String flightNumber, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, flightNumber, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.flightapp.service;
+
+import com.flightapp.exceptions.ValidationException;
+
+// the shape every PNR has, six characters from A-Z and 0-9. checked by hand, ticket lookups
+// are hot enough that String.matches compiling a pattern per call shows up
+public final class PnrFormat {
+
+    private PnrFormat() {
+    }
+
+    // the stored form of pnr (trimmed, upper case), or null when it cannot be a PNR
+    public static String normalize(String pnr) {
+        if (pnr == null) {
+            return null;
+        }
+        String code = pnr.trim();
+        if (code.length() != PnrGenerator.LENGTH) {
+            return null;
+        }
+        char[] chars = new char[PnrGenerator.LENGTH];
+        for (int i = 0; i < chars.length; i++) {
+            char c = code.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                c = (char) (c - 'a' + 'A');
+            } else if (!(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9')) {
+                return null;
+            }
+            chars[i] = c;
+        }
+        return new String(chars);
+    }
+
+    // like normalize, but says what is wrong instead of returning null
+    public static String check(String pnr) {
+        if (pnr == null || pnr.trim().isEmpty()) {
+            throw new ValidationException("PNR cannot be empty");
+        }
+        if (pnr.trim().length() != PnrGenerator.LENGTH) {
+            throw new ValidationException("PNR must be exactly 6 characters");
+        }
+        String code = normalize(pnr);
+        if (code == null) {
+            throw new ValidationException("PNR must be alphanumeric");
+        }
+        return code;
+    }
+}
@@ -0,0 +1,183 @@
+package com.flightapp.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.flightapp.model.PnrSequence;
+import com.flightapp.repository.PnrSequenceRepository;
+
+// 6 character base-36 PNRs. every instance reserves a block of sequence numbers in pnr_sequence
+// and hands them out from memory, each number is scrambled with a bijection on 0..36^6-1 so codes
+// are unique without a lookup and consecutive bookings don't get neighbouring codes.
+// the next block is reserved on the pnr executor once the current one is 80% used: next() runs
+// inside the booking transaction, reserving there needs a second connection while every booking
+// waiting for the block holds one, which can drain the pool during a sale
+@Component
+public class PnrGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(PnrGenerator.class);
+
+    static final String SEQUENCE = "booking";
+    static final int LENGTH = 6;
+    static final long SPACE = 2_176_782_336L; // 36^6
+
+    // odd and not a multiple of 3, so coprime with 36^6 and n -> (n * MULTIPLIER + OFFSET) mod SPACE is a permutation
+    private static final long MULTIPLIER = 1_580_030_173L;
+    private static final long OFFSET = 1_018_571_219L;
+
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private static final class Block {
+
+        final AtomicLong next;
+        final long end;
+        final long refillAt;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+            this.refillAt = start + (end - start) * 4 / 5;
+        }
+    }
+
+    private final PnrSequenceRepository sequenceRepository;
+    private final TransactionTemplate reserveTransaction;
+    private final Executor refillExecutor;
+    private final int blockSize;
+
+    private final ReentrantLock swapLock = new ReentrantLock();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private volatile Block block = new Block(0, 0);
+    // reserved ahead, becomes the block when the current one runs out
+    private volatile Block spare;
+
+    @Autowired
+    public PnrGenerator(PnrSequenceRepository sequenceRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Qualifier("pnrExecutor") Executor refillExecutor,
+                        @Value("${booking.pnr.block-size:1000}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("PNR block size must be positive");
+        }
+        this.sequenceRepository = sequenceRepository;
+        // a transaction of its own: the read must not come from the booking's snapshot, and a
+        // reserved block must stay reserved even if the booking rolls back
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refillExecutor = refillExecutor;
+        this.blockSize = blockSize;
+    }
+
+    // so the first bookings after startup find a block waiting
+    @EventListener(ApplicationReadyEvent.class)
+    public void reserveAhead() {
+        refillAhead();
+    }
+
+    public String next() {
+        while (true) {
+            long n = nextSequence();
+            long code = (n * MULTIPLIER + OFFSET) % SPACE;
+            // the old generator only produced hex codes, skipping those keeps new codes clear of existing PNRs
+            if (!isHexOnly(code)) {
+                return encode(code);
+            }
+        }
+    }
+
+    private long nextSequence() {
+        while (true) {
+            Block current = block;
+            long n = current.next.getAndIncrement();
+            if (n < current.end) {
+                if (n == current.refillAt) {
+                    refillAhead();
+                }
+                return n;
+            }
+            swapLock.lock();
+            try {
+                if (block == current) {
+                    Block ready = spare;
+                    spare = null;
+                    // reserving here is the fallback, when the refill could not keep up
+                    block = ready != null ? ready : reserveBlock();
+                }
+            } finally {
+                swapLock.unlock();
+            }
+        }
+    }
+
+    private void refillAhead() {
+        if (spare != null || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    spare = reserveBlock();
+                } catch (RuntimeException e) {
+                    log.warn("Reserving the next PNR block failed, it is reserved when the current one runs out", e);
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refilling.set(false);
+        }
+    }
+
+    // the row stays locked from the read to the commit, so concurrent reservations queue up
+    // instead of reading the same high water mark
+    private Block reserveBlock() {
+        return reserveTransaction.execute(status -> {
+            long start = sequenceRepository.lockByName(SEQUENCE)
+                    .map(PnrSequence::getNextValue)
+                    .orElseThrow(() -> new IllegalStateException("pnr_sequence has no '" + SEQUENCE + "' row"));
+            long end = Math.min(start + blockSize, SPACE);
+            if (start >= end) {
+                throw new IllegalStateException("PNR sequence is exhausted");
+            }
+            if (sequenceRepository.advance(SEQUENCE, start, end) != 1) {
+                throw new IllegalStateException("pnr_sequence moved while locked");
+            }
+            return new Block(start, end);
+        });
+    }
+
+    static String encode(long code) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (code % 36)];
+            code /= 36;
+        }
+        return new String(chars);
+    }
+
+    static boolean isHexOnly(long code) {
+        for (int i = 0; i < LENGTH; i++) {
+            if (code % 36 > 15) {
+                return false;
+            }
+            code /= 36;
+        }
+        return true;
+    }
+}
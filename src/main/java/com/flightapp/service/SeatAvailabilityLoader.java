@@ -0,0 +1,47 @@
+package com.flightapp.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.FlightSeatCount;
+
+@Component
+public class SeatAvailabilityLoader {
+
+    private final FlightInventoryRepository inventoryRepository;
+    private final SeatAvailabilityStore availabilityStore;
+
+    public SeatAvailabilityLoader(FlightInventoryRepository inventoryRepository,
+                                  SeatAvailabilityStore availabilityStore) {
+        this.inventoryRepository = inventoryRepository;
+        this.availabilityStore = availabilityStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        reconcile();
+    }
+
+    // pulls the committed seat counts of every upcoming flight back into memory,
+    // fixing counters that drifted (failed bookings, other instances, manual edits).
+    // read-write so it reads the primary, a lagging replica would undo recent bookings
+    @Scheduled(fixedDelayString = "${inventory.availability.reconcile-interval-ms:30000}",
+            initialDelayString = "${inventory.availability.reconcile-interval-ms:30000}")
+    @Transactional
+    public void reconcile() {
+        Map<Long, Integer> snapshot = new HashMap<>();
+        for (FlightSeatCount count : inventoryRepository.findSeatCountsDepartingFrom(LocalDate.now())) {
+            snapshot.put(count.getFlightId(), count.getAvailableSeats());
+        }
+        availabilityStore.replaceAll(snapshot);
+    }
+}
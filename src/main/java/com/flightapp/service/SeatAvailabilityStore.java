@@ -0,0 +1,80 @@
+package com.flightapp.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+// in-memory seat counters per flight, seeded by searches and bookings. they answer the
+// availability shown by searches and turn away bookings of sold out flights without a
+// database read. the conditional UPDATE in BookingService is the backstop against
+// overselling. seats released on another instance show up here when SeatAvailabilityLoader
+// re-syncs the counters from the table, until then the flight can look sold out here.
+@Component
+public class SeatAvailabilityStore {
+
+    private final ConcurrentHashMap<Long, AtomicInteger> seats = new ConcurrentHashMap<>();
+
+    public void track(Long flightId, int availableSeats) {
+        if (flightId != null) {
+            seats.computeIfAbsent(flightId, id -> new AtomicInteger(availableSeats));
+        }
+    }
+
+    public void refresh(Long flightId, int availableSeats) {
+        if (flightId != null) {
+            seats.computeIfAbsent(flightId, id -> new AtomicInteger()).set(availableSeats);
+        }
+    }
+
+    public void evict(Long flightId) {
+        if (flightId != null) {
+            seats.remove(flightId);
+        }
+    }
+
+    // replaces every counter with the given snapshot and drops flights that are no longer in it
+    public void replaceAll(Map<Long, Integer> snapshot) {
+        snapshot.forEach(this::refresh);
+        seats.keySet().retainAll(snapshot.keySet());
+    }
+
+    // unknown flights return -1, callers then fall back to the database
+    public int available(Long flightId) {
+        AtomicInteger counter = flightId == null ? null : seats.get(flightId);
+        return counter == null ? -1 : counter.get();
+    }
+
+    public boolean hasSeats(Long flightId, int count) {
+        int available = available(flightId);
+        return available < 0 || available >= count;
+    }
+
+    public boolean tryReserve(Long flightId, int count) {
+        AtomicInteger counter = flightId == null ? null : seats.get(flightId);
+        if (counter == null) {
+            return true;
+        }
+        while (true) {
+            int current = counter.get();
+            if (current < count) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - count)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(Long flightId, int count) {
+        AtomicInteger counter = flightId == null ? null : seats.get(flightId);
+        if (counter != null) {
+            counter.addAndGet(count);
+        }
+    }
+
+    public int size() {
+        return seats.size();
+    }
+}
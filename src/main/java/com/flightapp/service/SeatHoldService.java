@@ -0,0 +1,133 @@
+package com.flightapp.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.flightapp.model.Booking;
+import com.flightapp.repository.BookingRepository;
+import com.flightapp.repository.HoldDeadline;
+import com.flightapp.request.BookingRequest;
+import com.flightapp.response.HoldDetails;
+import com.flightapp.response.TicketDetails;
+
+// checkout: seats are held for booking.hold.ttl-minutes, then confirmed or given back. expiry
+// runs off an in-memory timer wheel and releases due holds in batches. a slower sweep of the
+// database catches holds this instance has no timer for (other instances, failed batches)
+@Service
+public class SeatHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatHoldService.class);
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final HoldExpiryWheel wheel;
+    private final Duration ttl;
+    private final int batchSize;
+    private final Clock clock;
+
+    @Autowired
+    public SeatHoldService(BookingService bookingService,
+                           BookingRepository bookingRepository,
+                           @Value("${booking.hold.ttl-minutes:15}") long ttlMinutes,
+                           @Value("${booking.hold.tick-ms:1000}") long tickMillis,
+                           @Value("${booking.hold.wheel-size:4096}") int wheelSize,
+                           @Value("${booking.hold.expiry-batch-size:200}") int batchSize) {
+        this(bookingService, bookingRepository, Duration.ofMinutes(ttlMinutes), tickMillis, wheelSize, batchSize,
+                Clock.systemUTC());
+    }
+
+    public SeatHoldService(BookingService bookingService,
+                           BookingRepository bookingRepository,
+                           Duration ttl,
+                           long tickMillis,
+                           int wheelSize,
+                           int batchSize,
+                           Clock clock) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Hold expiry batch size must be positive");
+        }
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.wheel = new HoldExpiryWheel(tickMillis, wheelSize, clock.millis());
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    public HoldDetails hold(Long flightId, BookingRequest req) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        Booking booking = bookingService.holdFlight(flightId, req, expiresAt);
+        // when the caller's transaction rolls back after this, the timer just finds nothing to expire
+        wheel.schedule(booking.getPnrOutbound(), expiresAt.toEpochMilli());
+        return new HoldDetails(TicketDetails.of(booking), expiresAt);
+    }
+
+    public TicketDetails confirm(String pnr) {
+        bookingService.confirmHold(pnr);
+        wheel.cancel(pnr);
+        return bookingService.getTicketDetails(pnr);
+    }
+
+    public void release(String pnr) {
+        bookingService.releaseHold(pnr);
+        wheel.cancel(pnr);
+    }
+
+    public int pending() {
+        return wheel.size();
+    }
+
+    @Scheduled(fixedRateString = "${booking.hold.tick-ms:1000}")
+    public void expireDue() {
+        List<String> due = wheel.advance(clock.millis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            expire(due.subList(from, Math.min(from + batchSize, due.size())));
+        }
+    }
+
+    // holds past their expiry that no timer here released, a batch at a time until none are left.
+    // the expiry itself re-checks on the primary, a stale replica only costs an empty batch
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-interval-ms:60000}")
+    public void sweep() {
+        int expired;
+        do {
+            List<String> due = bookingRepository.findExpiredHolds(clock.instant(), PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                return;
+            }
+            expired = expire(due);
+        } while (expired == batchSize);
+    }
+
+    // the wheel only lives in memory, refill it with the holds still open. read-write so it
+    // reads the primary and does not miss holds placed just before a restart
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void loadOpenHolds() {
+        for (HoldDeadline hold : bookingRepository.findOpenHolds()) {
+            wheel.schedule(hold.getPnr(), hold.getExpiresAt().toEpochMilli());
+        }
+    }
+
+    private int expire(List<String> pnrs) {
+        try {
+            return bookingService.expireHolds(pnrs);
+        } catch (RuntimeException e) {
+            log.warn("Expiring {} seat holds failed, the sweep retries them", pnrs.size(), e);
+            return 0;
+        }
+    }
+}
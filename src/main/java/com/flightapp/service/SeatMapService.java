@@ -0,0 +1,151 @@
+package com.flightapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.Seat;
+import com.flightapp.repository.SeatRepository;
+
+// seat level allocation: each flight's occupancy lives in a FlightSeatMap that is loaded
+// from seat_map the first time the flight is touched. only taken seats have a row there.
+@Service
+public class SeatMapService {
+
+    private final SeatRepository seatRepository;
+
+    private final ConcurrentHashMap<Long, FlightSeatMap> seatMaps = new ConcurrentHashMap<>();
+
+    public SeatMapService(SeatRepository seatRepository) {
+        this.seatRepository = seatRepository;
+    }
+
+    private FlightSeatMap seatMap(FlightInventory flight) {
+        return seatMaps.computeIfAbsent(flight.getFlightId(), id -> load(id, flight.getTotalSeats()));
+    }
+
+    private FlightSeatMap load(Long flightId, int totalSeats) {
+        FlightSeatMap map = new FlightSeatMap(totalSeats);
+        for (Seat seat : seatRepository.findByFlightFlightId(flightId)) {
+            int index = map.indexOf(seat.getSeatNo());
+            if (index >= 0 && !seat.isAvailable()) {
+                map.mark(index);
+            }
+        }
+        return map;
+    }
+
+    // format, cabin range and duplicates only, nothing is locked here
+    public void validateSeatNumbers(FlightInventory flight, List<String> seatNos) {
+        toIndexes(new FlightSeatMap(flight.getTotalSeats()), seatNos);
+    }
+
+    private int[] toIndexes(FlightSeatMap map, List<String> seatNos) {
+        int[] indexes = new int[seatNos.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            int index = map.indexOf(seatNos.get(i));
+            if (index < 0) {
+                throw new ValidationException("Invalid seat number: " + seatNos.get(i));
+            }
+            for (int j = 0; j < i; j++) {
+                if (indexes[j] == index) {
+                    throw new ValidationException("Seat " + seatNos.get(i) + " is selected more than once");
+                }
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    public void assignSeats(FlightInventory flight, List<String> seatNos) {
+        FlightSeatMap map = seatMap(flight);
+        int[] indexes = toIndexes(map, seatNos);
+
+        if (!map.tryTake(indexes)) {
+            throw new ValidationException("One or more selected seats are already taken: " + takenOf(map, indexes));
+        }
+
+        List<Seat> rows = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            Seat seat = new Seat();
+            seat.setFlight(flight);
+            seat.setSeatNo(FlightSeatMap.seatNo(index));
+            seat.setAvailable(false);
+            rows.add(seat);
+        }
+
+        try {
+            seatRepository.saveAll(rows);
+        } catch (DataIntegrityViolationException e) {
+            // another instance got there first, drop our copy so it is reloaded from seat_map
+            seatMaps.remove(flight.getFlightId());
+            throw new ValidationException("One or more selected seats are already taken");
+        } catch (RuntimeException e) {
+            map.free(indexes);
+            throw e;
+        }
+        // inside a transaction the rows are only written at flush, the bits go back if it never commits
+        TransactionCallbacks.afterRollback(() -> map.free(indexes));
+    }
+
+    public void releaseSeats(FlightInventory flight, List<String> seatNos) {
+        if (seatNos.isEmpty()) {
+            return;
+        }
+        FlightSeatMap map = seatMap(flight);
+        List<String> codes = new ArrayList<>(seatNos.size());
+        int[] indexes = new int[seatNos.size()];
+        int count = 0;
+        for (String seatNo : seatNos) {
+            int index = map.indexOf(seatNo);
+            if (index >= 0) {
+                indexes[count++] = index;
+                codes.add(FlightSeatMap.seatNo(index));
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        seatRepository.deleteByFlightIdAndSeatNos(flight.getFlightId(), codes);
+        int[] freed = Arrays.copyOf(indexes, count);
+        TransactionCallbacks.afterCommit(() -> map.free(freed));
+    }
+
+    // seats to offer when nobody chose one (waitlist promotion). nothing is taken here, assignSeats
+    // still decides, so a seat grabbed in between fails the booking like a manual choice would
+    public List<String> freeSeats(FlightInventory flight, int count) {
+        int[] free = seatMap(flight).firstFree(count);
+        List<String> seats = new ArrayList<>(free.length);
+        for (int index : free) {
+            seats.add(FlightSeatMap.seatNo(index));
+        }
+        return seats;
+    }
+
+    // drops the cached map, e.g. after seat_map rejected seats it considered free
+    public void evict(FlightInventory flight) {
+        seatMaps.remove(flight.getFlightId());
+    }
+
+    public boolean isTaken(FlightInventory flight, String seatNo) {
+        FlightSeatMap map = seatMap(flight);
+        int index = map.indexOf(seatNo);
+        return index >= 0 && map.isTaken(index);
+    }
+
+    private String takenOf(FlightSeatMap map, int[] indexes) {
+        List<String> taken = new ArrayList<>();
+        for (int index : indexes) {
+            if (map.isTaken(index)) {
+                taken.add(FlightSeatMap.seatNo(index));
+            }
+        }
+        return String.join(", ", taken);
+    }
+}
@@ -0,0 +1,167 @@
+package com.flightapp.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.flightapp.event.BookingChangedEvent;
+import com.flightapp.response.TicketDetails;
+
+// GET /ticket results by PNR, under the outbound and the return PNR. bounded like the search
+// cache: segments with their own LRU order and a TTL. a status change on this instance drops the
+// entry at commit, the TTL bounds how long a change made elsewhere can go unseen. every drop bumps
+// the segment's generation, and a ticket only goes in if the segments of both its PNRs are still
+// at the generation read before the lookup, so a ticket read before a change can't land after it.
+// the snapshot covers all segments since a lookup by one PNR doesn't know the other until it's read
+@Component
+public class TicketCache {
+
+    private static final int SEGMENTS = 16;
+
+    private record Entry(TicketDetails ticket, long expiresAt) {
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlMillis;
+    private final Clock clock;
+
+    @Autowired
+    public TicketCache(@Value("${booking.ticket-cache.max-entries:10000}") int maxEntries,
+                       @Value("${booking.ticket-cache.ttl-seconds:30}") long ttlSeconds) {
+        this(maxEntries, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    public TicketCache(int maxEntries, Duration ttl, Clock clock) {
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        int perSegment = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    private static int segmentIndex(String pnr) {
+        int h = pnr.hashCode();
+        return (h ^ (h >>> 16)) & (SEGMENTS - 1);
+    }
+
+    private Segment segmentFor(String pnr) {
+        return segments[segmentIndex(pnr)];
+    }
+
+    public TicketDetails get(String pnr) {
+        Segment segment = segmentFor(pnr);
+        synchronized (segment) {
+            Entry entry = segment.get(pnr);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= clock.millis()) {
+                segment.remove(pnr);
+                return null;
+            }
+            return entry.ticket();
+        }
+    }
+
+    // read before the lookup, put skips the ticket if either PNR's segment was invalidated since
+    public long[] generations() {
+        long[] generations = new long[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            synchronized (segments[i]) {
+                generations[i] = segments[i].generation;
+            }
+        }
+        return generations;
+    }
+
+    public void put(TicketDetails ticket, long[] generations) {
+        Entry entry = new Entry(ticket, clock.millis() + ttlMillis);
+        int outbound = segmentIndex(ticket.pnrOutbound());
+        if (ticket.pnrReturn() == null) {
+            Segment segment = segments[outbound];
+            synchronized (segment) {
+                if (segment.generation == generations[outbound]) {
+                    segment.put(ticket.pnrOutbound(), entry);
+                }
+            }
+            return;
+        }
+        // both PNRs go in together or not at all; locks in index order, invalidate holds one at a time
+        int ret = segmentIndex(ticket.pnrReturn());
+        Segment first = segments[Math.min(outbound, ret)];
+        Segment second = segments[Math.max(outbound, ret)];
+        synchronized (first) {
+            synchronized (second) {
+                if (segments[outbound].generation == generations[outbound]
+                        && segments[ret].generation == generations[ret]) {
+                    segments[outbound].put(ticket.pnrOutbound(), entry);
+                    segments[ret].put(ticket.pnrReturn(), entry);
+                }
+            }
+        }
+    }
+
+    // drops the entry under pnr and the one under the other PNR of the same booking
+    public void invalidate(String pnr) {
+        Entry removed;
+        Segment segment = segmentFor(pnr);
+        synchronized (segment) {
+            segment.generation++;
+            removed = segment.remove(pnr);
+        }
+        if (removed != null) {
+            TicketDetails ticket = removed.ticket();
+            String other = pnr.equals(ticket.pnrOutbound()) ? ticket.pnrReturn() : ticket.pnrOutbound();
+            if (other != null) {
+                Segment otherSegment = segmentFor(other);
+                synchronized (otherSegment) {
+                    otherSegment.generation++;
+                    otherSegment.remove(other);
+                }
+            }
+        }
+    }
+
+    // after commit, so a lookup that starts after this reads the change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        for (String pnr : event.pnrs()) {
+            invalidate(pnr);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private long generation;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -1,38 +1,47 @@
 package com.flightapp.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.flightapp.exceptions.ValidationException;
+import com.flightapp.config.ReadYourWrites;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.model.Booking;
-import com.flightapp.repository.BookingRepository;
+import com.flightapp.response.TicketDetails;
 
+// PNR lookups by outbound or return PNR, all through BookingService's single query. the ticket
+// view is cached, bookings written in the last moments are not, they are read off the primary
 @Service
 public class TicketService {
 
-    @Autowired
-    private BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final TicketCache ticketCache;
+    private final ReadYourWrites readYourWrites;
 
+    public TicketService(BookingService bookingService, TicketCache ticketCache, ReadYourWrites readYourWrites) {
+        this.bookingService = bookingService;
+        this.ticketCache = ticketCache;
+        this.readYourWrites = readYourWrites;
+    }
+
+    // says what is wrong with a malformed PNR instead of answering not found
     public Booking getTicketByPnr(String pnr) {
+        return bookingService.getTicket(PnrFormat.check(pnr));
+    }
 
-        if (pnr == null || pnr.trim().isEmpty()) {
-            throw new ValidationException("PNR cannot be empty");
+    public TicketDetails getTicketDetails(String pnr) {
+        String code = PnrFormat.normalize(pnr);
+        if (code == null) {
+            throw new ResourceNotFoundException("PNR not found");
         }
-
-        if (pnr.length() != 6) {
-            throw new ValidationException("PNR must be exactly 6 characters");
+        long[] generations = ticketCache.generations();
+        TicketDetails cached = ticketCache.get(code);
+        if (cached != null) {
+            return cached;
         }
-
-        if (!pnr.matches("^[A-Z0-9]+$")) {
-            throw new ValidationException("PNR must be alphanumeric");
+        TicketDetails ticket = bookingService.getTicketDetails(code);
+        // checked after the read: a change committed while it ran may have been read from a stale replica
+        if (!readYourWrites.recentlyWritten(ticket.pnrOutbound())) {
+            ticketCache.put(ticket, generations);
         }
-
-       
-        return bookingRepository.findByPnrOutbound(pnr)
-                .orElseGet(() ->
-                    bookingRepository.findByPnrReturn(pnr)
-                        .orElseThrow(() -> new ResourceNotFoundException("PNR not found"))
-                );
+        return ticket;
     }
 }
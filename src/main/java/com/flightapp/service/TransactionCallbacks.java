@@ -0,0 +1,43 @@
+package com.flightapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// in-memory state (seat counters, seat maps) must follow the database transaction:
+// only publish changes once they are committed and give holds back when it rolls back
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    // runs after the surrounding transaction commits, right away when there is none
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // runs if the surrounding transaction does not commit. returns false when there is no
+    // transaction, the caller then has to undo on its own failure
+    static boolean afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+        return true;
+    }
+}
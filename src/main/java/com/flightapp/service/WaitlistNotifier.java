@@ -0,0 +1,23 @@
+package com.flightapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.flightapp.event.WaitlistPromotedEvent;
+
+// tells a waitlisted customer their seats are held. there is no mail setup yet, so the
+// notification is a log line for support to act on; customers can also poll the entry
+@Component
+public class WaitlistNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistNotifier.class);
+
+    // promotions are published after their own transaction commits, hence the fallback
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPromoted(WaitlistPromotedEvent event) {
+        log.info("Notify {}: waitlist entry {} on flight {} holds pnr {} until {}", event.contactEmail(),
+                event.entryId(), event.flightId(), event.pnr(), event.holdExpiresAt());
+    }
+}
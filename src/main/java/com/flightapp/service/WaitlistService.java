@@ -0,0 +1,287 @@
+package com.flightapp.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.event.SeatsReleasedEvent;
+import com.flightapp.event.WaitlistPromotedEvent;
+import com.flightapp.exceptions.ResourceNotFoundException;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.MealType;
+import com.flightapp.model.TripType;
+import com.flightapp.model.WaitlistEntry;
+import com.flightapp.model.WaitlistStatus;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.WaitlistRepository;
+import com.flightapp.request.BookingRequest;
+import com.flightapp.request.PassengerRequest;
+import com.flightapp.response.HoldDetails;
+import com.flightapp.response.WaitlistDetails;
+
+// waitlists for sold out flights. released seats trigger a promotion pass for the flight on the
+// waitlist executor, the releasing request only publishes an event. a pass turns entries into
+// seat holds in priority then FIFO order, smaller parties fill seats a larger one cannot use
+@Service
+public class WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    private record Batch(FlightInventory flight, List<WaitlistEntry> entries) {
+    }
+
+    private final WaitlistRepository waitlistRepository;
+    private final FlightInventoryRepository inventoryRepository;
+    private final SeatMapService seatMapService;
+    private final SeatHoldService seatHoldService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final int batchSize;
+    private final Clock clock;
+
+    // flights with a pass queued but not started, releases in the meantime ride along with it
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public WaitlistService(WaitlistRepository waitlistRepository,
+                           FlightInventoryRepository inventoryRepository,
+                           SeatMapService seatMapService,
+                           SeatHoldService seatHoldService,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper,
+                           @Qualifier("waitlistExecutor") Executor executor,
+                           @Value("${waitlist.promotion.batch-size:50}") int batchSize) {
+        this(waitlistRepository, inventoryRepository, seatMapService, seatHoldService, transactionManager,
+                eventPublisher, objectMapper, executor, batchSize, Clock.systemUTC());
+    }
+
+    public WaitlistService(WaitlistRepository waitlistRepository,
+                           FlightInventoryRepository inventoryRepository,
+                           SeatMapService seatMapService,
+                           SeatHoldService seatHoldService,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper,
+                           Executor executor,
+                           int batchSize,
+                           Clock clock) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Waitlist promotion batch size must be positive");
+        }
+        this.waitlistRepository = waitlistRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.seatMapService = seatMapService;
+        this.seatHoldService = seatHoldService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    // one-way only: a round trip would need seats on both flights to come back at the same time.
+    // seats are assigned on promotion, any seat numbers in the request are ignored. priority is
+    // never taken from the caller, new entries start at 0 and only the server may raise it
+    @Transactional
+    public WaitlistDetails join(Long flightId, BookingRequest req) {
+        if (req.getTripType() != TripType.ONE_WAY || req.getReturnFlightId() != null) {
+            throw new ValidationException("Only one-way bookings can be waitlisted");
+        }
+        if (req.getPassengers() == null || req.getPassengers().isEmpty()) {
+            throw new ValidationException("At least one passenger is required");
+        }
+        for (PassengerRequest p : req.getPassengers()) {
+            validatePassenger(p);
+        }
+
+        FlightInventory flight = inventoryRepository.findById(flightId)
+                .orElseThrow(() -> new ResourceNotFoundException("Flight not found"));
+        if (flight.getAvailableSeats() >= req.getPassengers().size()) {
+            throw new ValidationException("Seats are available, book the flight directly");
+        }
+
+        req.setOutboundFlightId(flightId);
+        req.getPassengers().forEach(p -> p.setSeatOutbound(null));
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setFlight(flight);
+        entry.setPriority(0);
+        entry.setPassengers(req.getPassengers().size());
+        entry.setContactEmail(req.getContactEmail());
+        entry.setRequest(toJson(req));
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(clock.instant());
+        return WaitlistDetails.of(waitlistRepository.save(entry));
+    }
+
+    @Transactional(readOnly = true)
+    public WaitlistDetails get(Long entryId) {
+        return WaitlistDetails.of(waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found")));
+    }
+
+    @Transactional
+    public void withdraw(Long entryId) {
+        if (waitlistRepository.withdraw(entryId) == 0) {
+            WaitlistEntry entry = waitlistRepository.findById(entryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found"));
+            throw new ValidationException("Waitlist entry is already " + entry.getStatus().name().toLowerCase());
+        }
+    }
+
+    // after the release commits, so the pass sees the seats. this only queues the pass
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsReleased(SeatsReleasedEvent event) {
+        schedulePromotion(event.flightId());
+    }
+
+    @Scheduled(fixedDelayString = "${waitlist.sweep-interval-ms:60000}")
+    public void sweep() {
+        for (Long flightId : waitlistRepository.findFlightsToPromote()) {
+            schedulePromotion(flightId);
+        }
+    }
+
+    void schedulePromotion(Long flightId) {
+        if (!scheduled.add(flightId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                // dropped before the pass reads anything, a release after this queues a new pass
+                scheduled.remove(flightId);
+                try {
+                    promote(flightId);
+                } catch (RuntimeException e) {
+                    log.warn("Waitlist promotion for flight {} failed, the sweep retries it", flightId, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(flightId);
+            log.warn("Waitlist promotion queue is full, flight {} is left to the sweep", flightId);
+        }
+    }
+
+    // promotes entries while seats are left, returns how many got a hold. every entry is its own
+    // transaction: claimed first so a concurrent pass skips it, then booked as a hold. a seat
+    // taken in between rolls that entry back and ends the pass, the next release retries
+    public int promote(Long flightId) {
+        int promoted = 0;
+        while (true) {
+            Batch batch = transactionTemplate.execute(status -> nextBatch(flightId));
+            if (batch == null || batch.entries().isEmpty()) {
+                return promoted;
+            }
+            int seatsLeft = batch.flight().getAvailableSeats();
+            int promotedNow = 0;
+            for (WaitlistEntry entry : batch.entries()) {
+                if (entry.getPassengers() > seatsLeft) {
+                    continue;
+                }
+                HoldDetails hold;
+                try {
+                    hold = transactionTemplate.execute(status -> promoteEntry(batch.flight(), entry));
+                } catch (ValidationException e) {
+                    log.info("Waitlist promotion for flight {} stopped: {}", flightId, e.getMessage());
+                    return promoted + promotedNow;
+                }
+                if (hold == null) {
+                    continue;
+                }
+                seatsLeft -= entry.getPassengers();
+                promotedNow++;
+                log.info("Waitlist entry {} for flight {} promoted to hold {}", entry.getEntryId(), flightId,
+                        hold.ticket().pnrOutbound());
+                eventPublisher.publishEvent(new WaitlistPromotedEvent(entry.getEntryId(), flightId,
+                        entry.getContactEmail(), hold.ticket().pnrOutbound(), hold.expiresAt()));
+            }
+            promoted += promotedNow;
+            if (promotedNow == 0) {
+                return promoted;
+            }
+        }
+    }
+
+    private Batch nextBatch(Long flightId) {
+        FlightInventory flight = inventoryRepository.findById(flightId).orElse(null);
+        if (flight == null || flight.getAvailableSeats() <= 0) {
+            return null;
+        }
+        return new Batch(flight, waitlistRepository.findWaiting(flightId, flight.getAvailableSeats(),
+                PageRequest.of(0, batchSize)));
+    }
+
+    // null when the entry was withdrawn or promoted by another pass
+    private HoldDetails promoteEntry(FlightInventory flight, WaitlistEntry entry) {
+        if (waitlistRepository.claim(entry.getEntryId()) == 0) {
+            return null;
+        }
+        BookingRequest req = fromJson(entry.getRequest());
+        List<PassengerRequest> passengers = req.getPassengers();
+        List<String> seats = seatMapService.freeSeats(flight, passengers.size());
+        if (seats.size() < passengers.size()) {
+            throw new ValidationException("Not enough free seats for waitlist entry " + entry.getEntryId());
+        }
+        for (int i = 0; i < passengers.size(); i++) {
+            passengers.get(i).setSeatOutbound(seats.get(i));
+        }
+        HoldDetails hold = seatHoldService.hold(flight.getFlightId(), req);
+        waitlistRepository.recordPnr(entry.getEntryId(), hold.ticket().pnrOutbound());
+        return hold;
+    }
+
+    // the checks bookFlight would only run at promotion, an entry failing them there would block the line
+    private void validatePassenger(PassengerRequest p) {
+        if (p.getAge() == null || p.getAge() <= 0) {
+            throw new ValidationException("Passenger age must be greater than 0");
+        }
+        if (p.getMeal() != null) {
+            try {
+                MealType.valueOf(p.getMeal().toUpperCase());
+            } catch (Exception e) {
+                throw new ValidationException("Invalid meal type: " + p.getMeal());
+            }
+        }
+    }
+
+    private String toJson(BookingRequest req) {
+        try {
+            return objectMapper.writeValueAsString(req);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store the waitlisted booking request", e);
+        }
+    }
+
+    private BookingRequest fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, BookingRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read the waitlisted booking request", e);
+        }
+    }
+}
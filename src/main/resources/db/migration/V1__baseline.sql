@@ -0,0 +1,70 @@
+-- the tables hibernate (ddl-auto=update) created before migrations were introduced, with enum
+-- columns written as VARCHAR. on MySQL hibernate created the @Enumerated columns (booking.tripType,
+-- booking.status, passenger.meal, the flight city columns) as native ENUM instead; existing databases
+-- are baselined at version 1, skip this script and keep those ENUM columns, so migrations that
+-- add enum values convert the column first (V7, V9).
+
+CREATE TABLE airline (
+    airlineId BIGINT NOT NULL AUTO_INCREMENT,
+    airlineCode VARCHAR(255) NOT NULL,
+    airlineName VARCHAR(255) NOT NULL,
+    PRIMARY KEY (airlineId),
+    CONSTRAINT uk_airline_code UNIQUE (airlineCode)
+) ENGINE = InnoDB;
+
+CREATE TABLE flight_inventory (
+    flightId BIGINT NOT NULL AUTO_INCREMENT,
+    airline_id BIGINT NOT NULL,
+    flight_number VARCHAR(255) NOT NULL,
+    source_city VARCHAR(255) NOT NULL,
+    destination_city VARCHAR(255) NOT NULL,
+    departure_date DATE NOT NULL,
+    departure_time TIME NOT NULL,
+    arrival_date DATE NOT NULL,
+    arrival_time TIME NOT NULL,
+    meal_available BIT NOT NULL,
+    total_seats INT,
+    available_seats INT,
+    price DOUBLE,
+    PRIMARY KEY (flightId),
+    CONSTRAINT fk_flight_inventory_airline FOREIGN KEY (airline_id) REFERENCES airline (airlineId)
+) ENGINE = InnoDB;
+
+CREATE TABLE booking (
+    bookingId BIGINT NOT NULL AUTO_INCREMENT,
+    tripType VARCHAR(255),
+    outbound_flight_id BIGINT NOT NULL,
+    return_flight_id BIGINT,
+    pnrOutbound VARCHAR(255) NOT NULL,
+    pnrReturn VARCHAR(255),
+    contactName VARCHAR(255),
+    contactEmail VARCHAR(255),
+    totalPassengers INT NOT NULL,
+    status VARCHAR(255),
+    PRIMARY KEY (bookingId),
+    CONSTRAINT fk_booking_outbound_flight FOREIGN KEY (outbound_flight_id) REFERENCES flight_inventory (flightId),
+    CONSTRAINT fk_booking_return_flight FOREIGN KEY (return_flight_id) REFERENCES flight_inventory (flightId)
+) ENGINE = InnoDB;
+
+CREATE TABLE passenger (
+    passengerId BIGINT NOT NULL AUTO_INCREMENT,
+    booking_id BIGINT NOT NULL,
+    name VARCHAR(255),
+    age INT NOT NULL,
+    gender VARCHAR(255),
+    meal VARCHAR(255),
+    seatOutbound VARCHAR(255),
+    seatReturn VARCHAR(255),
+    PRIMARY KEY (passengerId),
+    CONSTRAINT fk_passenger_booking FOREIGN KEY (booking_id) REFERENCES booking (bookingId)
+) ENGINE = InnoDB;
+
+CREATE TABLE seat_map (
+    seatId BIGINT NOT NULL AUTO_INCREMENT,
+    flight_id BIGINT NOT NULL,
+    seatNo VARCHAR(255) NOT NULL,
+    isAvailable BIT NOT NULL,
+    PRIMARY KEY (seatId),
+    CONSTRAINT uk_seat_map_flight_seat UNIQUE (flight_id, seatNo),
+    CONSTRAINT fk_seat_map_flight FOREIGN KEY (flight_id) REFERENCES flight_inventory (flightId)
+) ENGINE = InnoDB;
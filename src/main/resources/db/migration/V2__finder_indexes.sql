@@ -0,0 +1,57 @@
+-- indexes behind the repository finders
+
+-- existing databases reach this script through baseline-on-migrate, with rows written before the
+-- unique keys below existed: the old exists-then-insert flight check and the 6 hex character PNRs
+-- can both have let duplicates in. stop with the offending values instead of a bare duplicate key
+-- error halfway through, fix or re-key those rows, run flyway repair and start again
+DROP PROCEDURE IF EXISTS v2_check_duplicates;
+
+DELIMITER //
+CREATE PROCEDURE v2_check_duplicates()
+BEGIN
+    DECLARE found TEXT;
+    DECLARE message VARCHAR(128);
+
+    SELECT GROUP_CONCAT(CONCAT(flight_number, ' ', departure_date) SEPARATOR ', ') INTO found
+    FROM (SELECT flight_number, departure_date FROM flight_inventory
+          GROUP BY flight_number, departure_date HAVING COUNT(*) > 1 LIMIT 5) d;
+    IF found IS NOT NULL THEN
+        SET message = LEFT(CONCAT('Duplicate flight_inventory flight number and date: ', found), 128);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = message;
+    END IF;
+
+    SELECT GROUP_CONCAT(pnrOutbound SEPARATOR ', ') INTO found
+    FROM (SELECT pnrOutbound FROM booking GROUP BY pnrOutbound HAVING COUNT(*) > 1 LIMIT 5) d;
+    IF found IS NOT NULL THEN
+        SET message = LEFT(CONCAT('Duplicate booking pnrOutbound: ', found), 128);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = message;
+    END IF;
+
+    SELECT GROUP_CONCAT(pnrReturn SEPARATOR ', ') INTO found
+    FROM (SELECT pnrReturn FROM booking WHERE pnrReturn IS NOT NULL
+          GROUP BY pnrReturn HAVING COUNT(*) > 1 LIMIT 5) d;
+    IF found IS NOT NULL THEN
+        SET message = LEFT(CONCAT('Duplicate booking pnrReturn: ', found), 128);
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = message;
+    END IF;
+END //
+DELIMITER ;
+
+CALL v2_check_duplicates();
+DROP PROCEDURE v2_check_duplicates;
+
+-- findBySourceCityAndDestinationCityAndDepartureDate(Between), findRoundTripLegs
+CREATE INDEX idx_flight_route_date ON flight_inventory (source_city, destination_city, departure_date);
+
+-- existsByFlightNumberAndDepartureDate, one flight number per day
+ALTER TABLE flight_inventory ADD CONSTRAINT uk_flight_number_date UNIQUE (flight_number, departure_date);
+
+-- findSeatCountsDepartingFrom
+CREATE INDEX idx_flight_departure_date ON flight_inventory (departure_date);
+
+-- findByPnrOutbound / findByPnrReturn, pnrReturn is null for one way bookings
+ALTER TABLE booking ADD CONSTRAINT uk_booking_pnr_outbound UNIQUE (pnrOutbound);
+ALTER TABLE booking ADD CONSTRAINT uk_booking_pnr_return UNIQUE (pnrReturn);
+
+-- findByContactEmail and the keyset history (contactEmail = ? AND bookingId < ? ORDER BY bookingId DESC)
+CREATE INDEX idx_booking_contact_email ON booking (contactEmail, bookingId);
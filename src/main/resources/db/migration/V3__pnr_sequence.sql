@@ -0,0 +1,7 @@
+CREATE TABLE pnr_sequence (
+    name VARCHAR(255) NOT NULL,
+    nextValue BIGINT NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT INTO pnr_sequence (name, nextValue) VALUES ('booking', 0);
@@ -0,0 +1,12 @@
+-- table backed sequences for the pooled id generators of booking, passenger and seat_map.
+-- the pooled optimizer treats the stored value as the top of the next block, so it starts
+-- a full allocation (50) above the current max id to never hand out an existing one.
+
+CREATE TABLE booking_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO booking_seq SELECT COALESCE(MAX(bookingId), 0) + 51 FROM booking;
+
+CREATE TABLE passenger_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO passenger_seq SELECT COALESCE(MAX(passengerId), 0) + 51 FROM passenger;
+
+CREATE TABLE seat_map_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO seat_map_seq SELECT COALESCE(MAX(seatId), 0) + 51 FROM seat_map;
@@ -0,0 +1,29 @@
+-- recurring schedules, expanded into flight_inventory rows as their days enter the booking window.
+-- days_of_week has one bit per ISO weekday (monday = 1, sunday = 64). materialized_through is the
+-- last day already expanded, it starts the day before valid_from
+
+CREATE TABLE flight_schedule (
+    scheduleId BIGINT NOT NULL AUTO_INCREMENT,
+    airline_id BIGINT NOT NULL,
+    flight_number VARCHAR(255) NOT NULL,
+    source_city VARCHAR(255) NOT NULL,
+    destination_city VARCHAR(255) NOT NULL,
+    days_of_week INT NOT NULL,
+    valid_from DATE NOT NULL,
+    valid_to DATE NOT NULL,
+    departure_time TIME NOT NULL,
+    arrival_time TIME NOT NULL,
+    arrival_day_offset INT NOT NULL,
+    meal_available BIT NOT NULL,
+    total_seats INT NOT NULL,
+    price DOUBLE NOT NULL,
+    materialized_through DATE NOT NULL,
+    PRIMARY KEY (scheduleId),
+    CONSTRAINT fk_flight_schedule_airline FOREIGN KEY (airline_id) REFERENCES airline (airlineId)
+) ENGINE = InnoDB;
+
+-- the overlap check when a schedule is added
+CREATE INDEX idx_flight_schedule_number ON flight_schedule (flight_number, valid_from);
+
+-- findDueForExpansion
+CREATE INDEX idx_flight_schedule_materialized ON flight_schedule (materialized_through);
@@ -0,0 +1,13 @@
+-- Idempotency-Key of POST /booking, when booking.idempotency.persist=true. the row is inserted
+-- before the booking in the same transaction, so a retry on another instance waits for it and
+-- then replays the pnr. rows older than booking.idempotency.ttl-hours are purged
+
+CREATE TABLE booking_idempotency (
+    idempotencyKey VARCHAR(255) NOT NULL,
+    requestHash CHAR(64) NOT NULL,
+    pnr VARCHAR(255),
+    createdAt DATETIME(6) NOT NULL,
+    PRIMARY KEY (idempotencyKey)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_booking_idempotency_created ON booking_idempotency (createdAt);
@@ -0,0 +1,9 @@
+-- seat holds: a HELD booking keeps its seats until holdExpiresAt, then it is confirmed or expires
+
+-- a baselined database has status as a native ENUM without HELD or EXPIRED
+ALTER TABLE booking MODIFY status VARCHAR(255);
+
+ALTER TABLE booking ADD COLUMN holdExpiresAt DATETIME(6) NULL;
+
+-- findOpenHolds / findExpiredHolds
+CREATE INDEX idx_booking_status_hold ON booking (status, holdExpiresAt);
@@ -0,0 +1,18 @@
+-- waitlists for sold out flights, promoted to seat holds when seats are released
+
+CREATE TABLE waitlist_entry (
+    entryId BIGINT NOT NULL AUTO_INCREMENT,
+    flight_id BIGINT NOT NULL,
+    priority INT NOT NULL,
+    passengers INT NOT NULL,
+    contactEmail VARCHAR(255) NOT NULL,
+    request LONGTEXT NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    pnr VARCHAR(255),
+    createdAt DATETIME(6) NOT NULL,
+    PRIMARY KEY (entryId),
+    CONSTRAINT fk_waitlist_entry_flight FOREIGN KEY (flight_id) REFERENCES flight_inventory (flightId)
+) ENGINE = InnoDB;
+
+-- findWaiting: the waiting entries of one flight in promotion order
+CREATE INDEX idx_waitlist_flight_status ON waitlist_entry (flight_id, status, priority, entryId);
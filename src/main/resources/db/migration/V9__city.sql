@@ -0,0 +1,35 @@
+-- cities become reference data instead of a Java enum. flights keep their city code columns,
+-- the foreign keys make the city table the list of valid codes
+
+CREATE TABLE city (
+    cityId BIGINT NOT NULL AUTO_INCREMENT,
+    cityCode VARCHAR(255) NOT NULL,
+    cityName VARCHAR(255) NOT NULL,
+    PRIMARY KEY (cityId),
+    CONSTRAINT uk_city_code UNIQUE (cityCode)
+) ENGINE = InnoDB;
+
+-- the cities the enum allowed, every existing flight uses one of them
+INSERT INTO city (cityCode, cityName) VALUES
+    ('DELHI', 'Delhi'),
+    ('MUMBAI', 'Mumbai'),
+    ('CHENNAI', 'Chennai'),
+    ('BANGALORE', 'Bangalore'),
+    ('KOLKATA', 'Kolkata');
+
+-- a baselined database has the city columns as native ENUM, which can't reference city.cityCode
+ALTER TABLE flight_inventory
+    MODIFY source_city VARCHAR(255) NOT NULL,
+    MODIFY destination_city VARCHAR(255) NOT NULL;
+
+ALTER TABLE flight_schedule
+    MODIFY source_city VARCHAR(255) NOT NULL,
+    MODIFY destination_city VARCHAR(255) NOT NULL;
+
+ALTER TABLE flight_inventory
+    ADD CONSTRAINT fk_flight_inventory_source_city FOREIGN KEY (source_city) REFERENCES city (cityCode),
+    ADD CONSTRAINT fk_flight_inventory_destination_city FOREIGN KEY (destination_city) REFERENCES city (cityCode);
+
+ALTER TABLE flight_schedule
+    ADD CONSTRAINT fk_flight_schedule_source_city FOREIGN KEY (source_city) REFERENCES city (cityCode),
+    ADD CONSTRAINT fk_flight_schedule_destination_city FOREIGN KEY (destination_city) REFERENCES city (cityCode);
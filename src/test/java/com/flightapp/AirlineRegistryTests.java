@@ -0,0 +1,120 @@
+package com.flightapp;
+
+import com.flightapp.model.Airline;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.repository.AirlineRepository;
+import com.flightapp.service.AirlineRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AirlineRegistryTests {
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T10:00:00Z");
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Mock
+    private AirlineRepository airlineRepository;
+
+    private final MutableClock clock = new MutableClock();
+
+    private AirlineRegistry registry() {
+        return new AirlineRegistry(airlineRepository, 10_000, clock);
+    }
+
+    private static Airline airline(long id, String code, String name) {
+        Airline airline = new Airline();
+        airline.setAirlineId(id);
+        airline.setAirlineCode(code);
+        airline.setAirlineName(name);
+        return airline;
+    }
+
+    @Test
+    @DisplayName("Airlines are loaded once and found by id or by code in any case")
+    void loadedOnce() {
+        Airline row = airline(1L, "AI", "Air India");
+        when(airlineRepository.findAll()).thenReturn(List.of(row, airline(2L, "6E", "IndiGo")));
+        AirlineRegistry registry = registry();
+
+        Airline byId = registry.findById(1L).orElseThrow();
+        assertEquals("Air India", byId.getAirlineName());
+        assertNotSame(row, byId);
+        assertSame(byId, registry.findByCode(" ai").orElseThrow());
+        assertEquals(2L, registry.findByCode("6e").orElseThrow().getAirlineId());
+        assertEquals(2, registry.size());
+
+        verify(airlineRepository).findAll();
+    }
+
+    @Test
+    @DisplayName("An unknown airline reloads the registry at most once per window")
+    void missRefreshesOncePerWindow() {
+        when(airlineRepository.findAll())
+                .thenReturn(List.of(airline(1L, "AI", "Air India")))
+                .thenReturn(List.of(airline(1L, "AI", "Air India"), airline(2L, "6E", "IndiGo")));
+        AirlineRegistry registry = registry();
+
+        assertTrue(registry.findById(2L).isEmpty());
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals("IndiGo", registry.findById(2L).orElseThrow().getAirlineName());
+        assertTrue(registry.findByCode("ZZ").isEmpty());
+        assertTrue(registry.findById(99L).isEmpty());
+
+        verify(airlineRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Flights with their airline already loaded are left as they are")
+    void attachKeepsLoadedAirline() {
+        Airline loaded = airline(1L, "AI", "Air India");
+        FlightInventory flight = new FlightInventory();
+        flight.setAirline(loaded);
+
+        registry().attach(flight);
+        registry().attach(new FlightInventory());
+
+        assertSame(loaded, flight.getAirline());
+        verifyNoInteractions(airlineRepository);
+    }
+}
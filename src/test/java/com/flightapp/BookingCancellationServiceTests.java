@@ -1,29 +1,40 @@
 package com.flightapp;
 
+import com.flightapp.config.ReadYourWrites;
+import com.flightapp.event.BookingChangedEvent;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.exceptions.ValidationException;
 import com.flightapp.model.Booking;
 import com.flightapp.model.BookingStatus;
-import com.flightapp.model.CityEnum;
 import com.flightapp.model.FlightInventory;
 import com.flightapp.repository.BookingRepository;
 import com.flightapp.repository.FlightInventoryRepository;
 import com.flightapp.repository.PassengerRepository;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatAvailabilityStore;
+import com.flightapp.service.SeatMapService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,13 +49,25 @@ class BookingCancellationServiceTests {
     @Mock
     private PassengerRepository passengerRepository;
 
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SeatAvailabilityStore availabilityStore = new SeatAvailabilityStore();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), Clock.systemUTC());
+
     @InjectMocks
     private BookingService bookingService;
 
     private FlightInventory futureFlightWithSeats(int availableSeats, int totalPassengers) {
         FlightInventory flight = new FlightInventory();
-        flight.setSourceCity(CityEnum.DELHI);
-        flight.setDestinationCity(CityEnum.MUMBAI);
+        flight.setSourceCity("DELHI");
+        flight.setDestinationCity("MUMBAI");
         flight.setDepartureDate(LocalDate.now().plusDays(3));
         flight.setDepartureTime(LocalTime.of(10, 0));
         flight.setArrivalDate(LocalDate.now().plusDays(3));
@@ -57,46 +80,50 @@ class BookingCancellationServiceTests {
     @Test
     @DisplayName("Cancel a confirmed booking and get back available seats")
     void cancelConfirmedBookingRestoresSeats() {
-        String pnr = "CANCEL1";
+        String pnr = "CNCL01";
         int passengers = 2;
 
         FlightInventory outbound = futureFlightWithSeats(5, passengers);
+        outbound.setFlightId(1L);
 
         Booking booking = new Booking();
+        booking.setBookingId(1L);
         booking.setPnrOutbound(pnr);
         booking.setStatus(BookingStatus.CONFIRMED);
         booking.setOutboundFlight(outbound);
         booking.setTotalPassengers(passengers);
 
-        when(bookingRepository.findByPnrOutbound(pnr)).thenReturn(Optional.of(booking));
-        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(bookingRepository.findByPnr(pnr)).thenReturn(Optional.of(booking));
+        when(bookingRepository.cancelConfirmed(1L)).thenReturn(1);
+        when(inventoryRepository.incrementAvailableSeats(any(), anyInt())).thenReturn(1);
 
         bookingService.cancelTicket(pnr);
 
         assertEquals(BookingStatus.CANCELLED, booking.getStatus());
         assertEquals(7, outbound.getAvailableSeats());
+        verify(eventPublisher).publishEvent(new BookingChangedEvent(List.of(pnr)));
     }
 
     @Test
     @DisplayName("Reject cancellation when PNR does not exist")
     void rejectCancellationWhenPnrNotFound() {
-        when(bookingRepository.findByPnrOutbound(anyString()))
+        when(bookingRepository.findByPnr(anyString()))
                 .thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
-                () -> bookingService.cancelTicket("UNKNOWN"));
+                () -> bookingService.cancelTicket("UNKNWN"));
     }
 
     @Test
     @DisplayName("Reject cancellation when booking is already cancelled")
     void rejectCancellationWhenAlreadyCancelled() {
-        String pnr = "CANCEL2";
+        String pnr = "CNCL02";
 
         Booking booking = new Booking();
         booking.setPnrOutbound(pnr);
         booking.setStatus(BookingStatus.CANCELLED);
 
-        when(bookingRepository.findByPnrOutbound(pnr))
+        when(bookingRepository.findByPnr(pnr))
                 .thenReturn(Optional.of(booking));
 
         assertThrows(ValidationException.class,
@@ -0,0 +1,225 @@
+package com.flightapp;
+
+import com.flightapp.config.ReadYourWrites;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.Booking;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.TripType;
+import com.flightapp.repository.BookingRepository;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.PassengerRepository;
+import com.flightapp.request.BookingRequest;
+import com.flightapp.request.PassengerRequest;
+import com.flightapp.service.AirlineRegistry;
+import com.flightapp.service.BookingService;
+import com.flightapp.service.PnrGenerator;
+import com.flightapp.service.SeatAvailabilityStore;
+import com.flightapp.service.SeatMapService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingConcurrencyTests {
+
+    private static final int TOTAL_SEATS = 300;
+    private static final int BOOKING_ATTEMPTS = 5000;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private FlightInventoryRepository inventoryRepository;
+
+    @Mock
+    private PassengerRepository passengerRepository;
+
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PnrGenerator pnrGenerator;
+
+    @Mock
+    private AirlineRegistry airlineRegistry;
+
+    @Spy
+    private SeatAvailabilityStore availabilityStore = new SeatAvailabilityStore();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), Clock.systemUTC());
+
+    @InjectMocks
+    private BookingService bookingService;
+
+    // stands in for the flight_inventory row, updated the same way the conditional UPDATE does
+    private final AtomicInteger availableSeats = new AtomicInteger(TOTAL_SEATS);
+
+    private FlightInventory snapshot() {
+        FlightInventory flight = new FlightInventory();
+        flight.setFlightId(1L);
+        flight.setFlightNumber("HOT01");
+        flight.setSourceCity("DELHI");
+        flight.setDestinationCity("MUMBAI");
+        flight.setDepartureDate(LocalDate.now().plusDays(2));
+        flight.setDepartureTime(LocalTime.of(6, 0));
+        flight.setArrivalDate(LocalDate.now().plusDays(2));
+        flight.setArrivalTime(LocalTime.of(8, 0));
+        flight.setTotalSeats(TOTAL_SEATS);
+        flight.setAvailableSeats(availableSeats.get());
+        return flight;
+    }
+
+    private int conditionalDecrement(int seats) {
+        while (true) {
+            int current = availableSeats.get();
+            if (current < seats) {
+                return 0;
+            }
+            if (availableSeats.compareAndSet(current, current - seats)) {
+                return 1;
+            }
+        }
+    }
+
+    private BookingRequest request(int passengerCount) {
+        BookingRequest req = new BookingRequest();
+        req.setOutboundFlightId(1L);
+        req.setContactName("Load Test");
+        req.setContactEmail("load@example.com");
+        req.setTripType(TripType.ONE_WAY);
+
+        List<PassengerRequest> passengers = new ArrayList<>();
+        for (int i = 0; i < passengerCount; i++) {
+            PassengerRequest p = new PassengerRequest();
+            p.setName("Passenger " + i);
+            p.setAge(30);
+            p.setGender("F");
+            p.setSeatOutbound((i + 1) + "A");
+            passengers.add(p);
+        }
+        req.setPassengers(passengers);
+        return req;
+    }
+
+    @Test
+    @DisplayName("Thousands of parallel bookings on one flight never oversell it")
+    void parallelBookingsNeverOversell() throws InterruptedException {
+        when(inventoryRepository.findById(1L)).thenAnswer(invocation -> Optional.of(snapshot()));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt()))
+                .thenAnswer(invocation -> conditionalDecrement(invocation.getArgument(1)));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(pnrGenerator.next()).thenReturn("K7Q2ZX");
+
+        AtomicInteger seatsSold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+
+        for (int i = 0; i < BOOKING_ATTEMPTS; i++) {
+            int passengers = 1 + (i % 3);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    Booking booking = bookingService.bookFlight(1L, request(passengers));
+                    seatsSold.addAndGet(booking.getTotalPassengers());
+                } catch (ValidationException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertTrue(availableSeats.get() >= 0);
+        assertEquals(TOTAL_SEATS, seatsSold.get() + availableSeats.get());
+        assertTrue(rejected.get() > 0);
+    }
+
+    @Test
+    @DisplayName("Parallel cancels of the same booking give its seats back once")
+    void parallelCancelsReleaseSeatsOnce() throws InterruptedException {
+        int passengers = 3;
+        availableSeats.set(TOTAL_SEATS - passengers);
+        // stands in for booking.status, changed only by the conditional UPDATE
+        AtomicReference<BookingStatus> status = new AtomicReference<>(BookingStatus.CONFIRMED);
+        when(bookingRepository.findByPnr("K7Q2ZX")).thenAnswer(invocation -> {
+            Booking booking = new Booking();
+            booking.setBookingId(9L);
+            booking.setPnrOutbound("K7Q2ZX");
+            booking.setContactEmail("load@example.com");
+            booking.setOutboundFlight(snapshot());
+            booking.setTotalPassengers(passengers);
+            booking.setStatus(status.get());
+            return Optional.of(booking);
+        });
+        when(bookingRepository.cancelConfirmed(9L)).thenAnswer(
+                invocation -> status.compareAndSet(BookingStatus.CONFIRMED, BookingStatus.CANCELLED) ? 1 : 0);
+        when(inventoryRepository.incrementAvailableSeats(any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    availableSeats.addAndGet(invocation.getArgument(1));
+                    return 1;
+                });
+
+        AtomicInteger cancelled = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        for (int i = 0; i < 64; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    bookingService.cancelTicket("K7Q2ZX");
+                    cancelled.incrementAndGet();
+                } catch (ValidationException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertEquals(1, cancelled.get());
+        assertEquals(63, rejected.get());
+        assertEquals(TOTAL_SEATS, availableSeats.get());
+    }
+}
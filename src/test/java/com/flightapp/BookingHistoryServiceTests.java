@@ -1,24 +1,44 @@
 package com.flightapp;
 
+import com.flightapp.config.ReadYourWrites;
 import com.flightapp.exceptions.ResourceNotFoundException;
-import com.flightapp.model.Booking;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.TripType;
 import com.flightapp.repository.BookingRepository;
 import com.flightapp.repository.FlightInventoryRepository;
 import com.flightapp.repository.PassengerRepository;
+import com.flightapp.response.BookingHistoryPage;
+import com.flightapp.response.BookingSummary;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatAvailabilityStore;
+import com.flightapp.service.SeatMapService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +53,18 @@ class BookingHistoryServiceTests {
     @Mock
     private PassengerRepository passengerRepository;
 
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SeatAvailabilityStore availabilityStore = new SeatAvailabilityStore();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), Clock.systemUTC());
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -41,15 +73,10 @@ class BookingHistoryServiceTests {
     void getHistoryForUserWithMultipleBookings() {
         String email = "user@example.com";
 
-        Booking b1 = new Booking();
-        b1.setContactEmail(email);
-        Booking b2 = new Booking();
-        b2.setContactEmail(email);
-
-        when(bookingRepository.findByContactEmail(email))
-                .thenReturn(List.of(b1, b2));
+        when(bookingRepository.findHistory(email))
+                .thenReturn(summaries(2, 1));
 
-        List<Booking> history = bookingService.getHistory(email);
+        List<BookingSummary> history = bookingService.getHistory(email);
 
         assertNotNull(history);
         assertEquals(2, history.size());
@@ -60,13 +87,10 @@ class BookingHistoryServiceTests {
     void getHistoryForUserWithSingleBooking() {
         String email = "single@example.com";
 
-        Booking b1 = new Booking();
-        b1.setContactEmail(email);
-
-        when(bookingRepository.findByContactEmail(email))
-                .thenReturn(List.of(b1));
+        when(bookingRepository.findHistory(email))
+                .thenReturn(summaries(1, 1));
 
-        List<Booking> history = bookingService.getHistory(email);
+        List<BookingSummary> history = bookingService.getHistory(email);
 
         assertNotNull(history);
         assertEquals(1, history.size());
@@ -77,7 +101,7 @@ class BookingHistoryServiceTests {
     void rejectHistoryWhenNoBookingsExist() {
         String email = "nobookings@example.com";
 
-        when(bookingRepository.findByContactEmail(email))
+        when(bookingRepository.findHistory(email))
                 .thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class,
@@ -87,10 +111,99 @@ class BookingHistoryServiceTests {
     @Test
     @DisplayName("Treat invalid email format same as email with no bookings")
     void invalidEmailFormatTreatedAsNoBookings() {
-        when(bookingRepository.findByContactEmail(anyString()))
+        when(bookingRepository.findHistory(anyString()))
                 .thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> bookingService.getHistory("not-an-email"));
     }
+
+    // newest first, ids from..downTo inclusive
+    private List<BookingSummary> summaries(long from, long downTo) {
+        List<BookingSummary> list = new ArrayList<>();
+        for (long id = from; id >= downTo; id--) {
+            list.add(new BookingSummary(id, "PNR" + id, null, TripType.ONE_WAY, BookingStatus.CONFIRMED,
+                    1, "AI201", LocalDate.now().plusDays(5), null, null));
+        }
+        return list;
+    }
+
+    @Test
+    @DisplayName("History page returns a cursor when more bookings exist")
+    void historyPageReturnsCursor() {
+        String email = "desk@example.com";
+
+        when(bookingRepository.findHistoryPage(email, Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(summaries(10, 8));
+
+        BookingHistoryPage page = bookingService.getHistoryPage(email, null, 2);
+
+        assertEquals(2, page.bookings().size());
+        assertEquals(10L, page.bookings().get(0).bookingId());
+        assertEquals(9L, page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Last history page has no cursor")
+    void lastHistoryPageHasNoCursor() {
+        String email = "desk@example.com";
+
+        when(bookingRepository.findHistoryPage(email, 9L, PageRequest.of(0, 21)))
+                .thenReturn(summaries(8, 7));
+
+        BookingHistoryPage page = bookingService.getHistoryPage(email, 9L, 20);
+
+        assertEquals(2, page.bookings().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    @DisplayName("History page for an email without bookings is not found")
+    void historyPageWithoutBookingsNotFound() {
+        when(bookingRepository.findHistoryPage(anyString(), any(), any()))
+                .thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> bookingService.getHistoryPage("nobookings@example.com", null, 20));
+    }
+
+    @Test
+    @DisplayName("Reject history page sizes outside the allowed range")
+    void rejectInvalidHistoryPageSize() {
+        assertThrows(ValidationException.class,
+                () -> bookingService.getHistoryPage("desk@example.com", null, 0));
+        assertThrows(ValidationException.class,
+                () -> bookingService.getHistoryPage("desk@example.com", null, 101));
+
+        verify(bookingRepository, never()).findHistoryPage(anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Streamed history walks every page in order")
+    void streamedHistoryWalksAllPages() {
+        String email = "desk@example.com";
+
+        when(bookingRepository.findHistoryPage(eq(email), eq(Long.MAX_VALUE), any()))
+                .thenReturn(summaries(1000, 500));
+        when(bookingRepository.findHistoryPage(eq(email), eq(501L), any()))
+                .thenReturn(summaries(500, 1));
+
+        List<Long> ids = bookingService.streamHistory(email)
+                .map(BookingSummary::bookingId)
+                .collect(Collectors.toList());
+
+        assertEquals(1000, ids.size());
+        assertEquals(1000L, ids.get(0));
+        assertEquals(1L, ids.get(999));
+    }
+
+    @Test
+    @DisplayName("Streamed history for an email without bookings is not found before streaming")
+    void streamedHistoryWithoutBookingsNotFound() {
+        when(bookingRepository.findHistoryPage(anyString(), any(), any()))
+                .thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> bookingService.streamHistory("nobookings@example.com"));
+    }
 }
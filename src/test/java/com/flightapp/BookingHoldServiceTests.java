@@ -0,0 +1,161 @@
+package com.flightapp;
+
+import com.flightapp.config.ReadYourWrites;
+import com.flightapp.event.SeatsReleasedEvent;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.Booking;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.Passenger;
+import com.flightapp.repository.BookingRepository;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.PassengerRepository;
+import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatAvailabilityStore;
+import com.flightapp.service.SeatMapService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingHoldServiceTests {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private FlightInventoryRepository inventoryRepository;
+
+    @Mock
+    private PassengerRepository passengerRepository;
+
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SeatAvailabilityStore availabilityStore = new SeatAvailabilityStore();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), Clock.systemUTC());
+
+    @InjectMocks
+    private BookingService bookingService;
+
+    private static FlightInventory flight(long id) {
+        FlightInventory flight = new FlightInventory();
+        flight.setFlightId(id);
+        flight.setSourceCity("DELHI");
+        flight.setDestinationCity("MUMBAI");
+        flight.setDepartureDate(LocalDate.now().plusDays(3));
+        flight.setAvailableSeats(10);
+        flight.setTotalSeats(20);
+        return flight;
+    }
+
+    private static Booking held(long id, FlightInventory flight, int passengers) {
+        Booking booking = new Booking();
+        booking.setBookingId(id);
+        booking.setPnrOutbound("PNR00" + id);
+        booking.setStatus(BookingStatus.HELD);
+        booking.setHoldExpiresAt(Instant.now().minusSeconds(1));
+        booking.setOutboundFlight(flight);
+        booking.setTotalPassengers(passengers);
+        return booking;
+    }
+
+    private static Passenger passenger(Booking booking, String seat) {
+        Passenger p = new Passenger();
+        p.setBooking(booking);
+        p.setSeatOutbound(seat);
+        return p;
+    }
+
+    @Test
+    @DisplayName("Expired holds on one flight give their seats back with a single update")
+    void expiredHoldsReleasedPerFlight() {
+        FlightInventory flight = flight(5L);
+        Booking first = held(1L, flight, 2);
+        Booking second = held(2L, flight, 1);
+
+        when(bookingRepository.lockExpiredHolds(eq(List.of("PNR001", "PNR002")), any(Instant.class)))
+                .thenReturn(List.of(first, second));
+        when(passengerRepository.findByBookingBookingIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                passenger(first, "1A"), passenger(first, "1B"), passenger(second, "2C")));
+        when(inventoryRepository.incrementAvailableSeats(5L, 3)).thenReturn(1);
+
+        assertEquals(2, bookingService.expireHolds(List.of("PNR001", "PNR002")));
+
+        assertEquals(BookingStatus.EXPIRED, first.getStatus());
+        assertEquals(BookingStatus.EXPIRED, second.getStatus());
+        assertNull(first.getHoldExpiresAt());
+        assertEquals(13, flight.getAvailableSeats());
+        verify(seatMapService).releaseSeats(flight, List.of("1A", "1B", "2C"));
+        verify(eventPublisher).publishEvent(new SeatsReleasedEvent(5L, 3));
+    }
+
+    @Test
+    @DisplayName("Holds already confirmed or released are left alone by the expiry")
+    void nothingDueNothingReleased() {
+        when(bookingRepository.lockExpiredHolds(anyCollection(), any(Instant.class))).thenReturn(List.of());
+
+        assertEquals(0, bookingService.expireHolds(List.of("PNR001")));
+
+        verify(passengerRepository, never()).findByBookingBookingIdIn(anyCollection());
+        verify(seatMapService, never()).releaseSeats(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("Confirming an expired hold is refused")
+    void confirmExpiredHold() {
+        Booking booking = held(1L, flight(5L), 1);
+        booking.setStatus(BookingStatus.EXPIRED);
+        when(bookingRepository.confirmHold(eq("PNR001"), any(Instant.class))).thenReturn(0);
+        when(bookingRepository.findByPnr("PNR001")).thenReturn(Optional.of(booking));
+
+        ValidationException e = assertThrows(ValidationException.class, () -> bookingService.confirmHold("PNR001"));
+        assertEquals("Seat hold has expired or was released", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Cancelling a hold releases it only if the expiry has not got there first")
+    void cancelHeldBooking() {
+        FlightInventory flight = flight(5L);
+        Booking booking = held(1L, flight, 1);
+        when(bookingRepository.findByPnr("PNR001")).thenReturn(Optional.of(booking));
+        when(bookingRepository.releaseHold(1L)).thenReturn(1, 0);
+        when(passengerRepository.findByBookingBookingIdIn(List.of(1L))).thenReturn(List.of(passenger(booking, "3A")));
+        when(inventoryRepository.incrementAvailableSeats(5L, 1)).thenReturn(1);
+
+        bookingService.cancelTicket("PNR001");
+
+        assertEquals(11, flight.getAvailableSeats());
+        assertThrows(ValidationException.class, () -> bookingService.cancelTicket("PNR001"));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+}
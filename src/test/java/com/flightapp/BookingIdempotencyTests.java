@@ -0,0 +1,224 @@
+package com.flightapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.config.ReadYourWrites;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.Booking;
+import com.flightapp.model.BookingIdempotencyKey;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.TripType;
+import com.flightapp.repository.BookingIdempotencyRepository;
+import com.flightapp.request.BookingRequest;
+import com.flightapp.request.PassengerRequest;
+import com.flightapp.response.TicketDetails;
+import com.flightapp.service.BookingIdempotency;
+import com.flightapp.service.BookingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIdempotencyTests {
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T10:00:00Z");
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private BookingIdempotencyRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final MutableClock clock = new MutableClock();
+
+    private BookingIdempotency idempotency(boolean persist, int maxEntries) {
+        return new BookingIdempotency(bookingService, repository,
+                new ReadYourWrites(Duration.ofSeconds(5), Clock.systemUTC()), new ObjectMapper(),
+                transactionManager, persist, Duration.ofHours(24), maxEntries, clock);
+    }
+
+    private static BookingRequest request(String passenger) {
+        PassengerRequest p = new PassengerRequest();
+        p.setName(passenger);
+        p.setAge(30);
+        p.setSeatOutbound("1A");
+
+        BookingRequest req = new BookingRequest();
+        req.setOutboundFlightId(10L);
+        req.setTripType(TripType.ONE_WAY);
+        req.setContactName("Asha");
+        req.setContactEmail("asha@example.com");
+        req.setPassengers(List.of(p));
+        return req;
+    }
+
+    private static Booking booking(String pnr) {
+        FlightInventory flight = new FlightInventory();
+        flight.setFlightId(10L);
+        flight.setFlightNumber("AI101");
+        flight.setSourceCity("DELHI");
+        flight.setDestinationCity("MUMBAI");
+
+        Booking booking = new Booking();
+        booking.setPnrOutbound(pnr);
+        booking.setOutboundFlight(flight);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking.setTotalPassengers(1);
+        return booking;
+    }
+
+    @Test
+    @DisplayName("A retry with the same key returns the first ticket without booking again")
+    void retryReturnsFirstBooking() {
+        BookingIdempotency idempotency = idempotency(false, 100);
+        when(bookingService.bookFlight(eq(10L), any(BookingRequest.class))).thenReturn(booking("K7Q2ZX"));
+
+        TicketDetails first = idempotency.bookFlight("retry-1", 10L, request("Asha"));
+        TicketDetails retry = idempotency.bookFlight("retry-1", 10L, request("Asha"));
+
+        assertEquals("K7Q2ZX", first.pnrOutbound());
+        assertSame(first, retry);
+        verify(bookingService, times(1)).bookFlight(eq(10L), any(BookingRequest.class));
+    }
+
+    @Test
+    @DisplayName("Reusing a key for a different booking request is refused")
+    void keyReusedForOtherRequest() {
+        BookingIdempotency idempotency = idempotency(false, 100);
+        when(bookingService.bookFlight(eq(10L), any(BookingRequest.class))).thenReturn(booking("K7Q2ZX"));
+
+        idempotency.bookFlight("retry-1", 10L, request("Asha"));
+
+        assertThrows(ValidationException.class, () -> idempotency.bookFlight("retry-1", 10L, request("Ravi")));
+        verify(bookingService, times(1)).bookFlight(eq(10L), any(BookingRequest.class));
+    }
+
+    @Test
+    @DisplayName("A failed booking is not remembered, the retry books")
+    void failureIsNotRemembered() {
+        BookingIdempotency idempotency = idempotency(false, 100);
+        when(bookingService.bookFlight(eq(10L), any(BookingRequest.class)))
+                .thenThrow(new ValidationException("One or more selected seats are already taken"))
+                .thenReturn(booking("K7Q2ZX"));
+
+        assertThrows(ValidationException.class, () -> idempotency.bookFlight("retry-1", 10L, request("Asha")));
+        TicketDetails retry = idempotency.bookFlight("retry-1", 10L, request("Asha"));
+
+        assertEquals("K7Q2ZX", retry.pnrOutbound());
+        assertEquals(1, idempotency.size());
+    }
+
+    @Test
+    @DisplayName("Keys expire after the TTL and the store keeps at most max-entries")
+    void keysExpireAndStoreIsBounded() {
+        BookingIdempotency idempotency = idempotency(false, 2);
+        when(bookingService.bookFlight(eq(10L), any(BookingRequest.class))).thenReturn(booking("K7Q2ZX"));
+
+        idempotency.bookFlight("a", 10L, request("Asha"));
+        idempotency.bookFlight("b", 10L, request("Asha"));
+        idempotency.bookFlight("c", 10L, request("Asha"));
+        assertEquals(2, idempotency.size());
+
+        clock.advance(Duration.ofHours(25));
+        idempotency.purge();
+        assertEquals(0, idempotency.size());
+
+        idempotency.bookFlight("c", 10L, request("Asha"));
+        verify(bookingService, times(4)).bookFlight(eq(10L), any(BookingRequest.class));
+        verify(repository, never()).deleteCreatedBefore(any());
+    }
+
+    @Test
+    @DisplayName("With persistence the key and pnr are written in the booking transaction")
+    void persistedKeyWrittenWithBooking() {
+        BookingIdempotency idempotency = idempotency(true, 100);
+        when(bookingService.bookFlight(eq(10L), any(BookingRequest.class))).thenReturn(booking("K7Q2ZX"));
+
+        idempotency.bookFlight("retry-1", 10L, request("Asha"));
+
+        verify(repository).claim(eq("retry-1"), anyString(), eq(clock.instant()));
+        verify(repository).recordPnr("retry-1", "K7Q2ZX");
+    }
+
+    @Test
+    @DisplayName("A key stored by another instance replays its ticket from the database")
+    void persistedKeyReplayed() {
+        BookingIdempotency idempotency = idempotency(true, 100);
+        // the first instance stores the hash that goes with the request
+        String[] hash = new String[1];
+        when(repository.claim(eq("retry-1"), anyString(), any(Instant.class))).thenAnswer(inv -> {
+            hash[0] = inv.getArgument(1);
+            throw new DuplicateKeyException("PRIMARY");
+        });
+        when(repository.findById("retry-1")).thenAnswer(inv -> {
+            BookingIdempotencyKey stored = new BookingIdempotencyKey();
+            stored.setIdempotencyKey("retry-1");
+            stored.setRequestHash(hash[0]);
+            stored.setPnr("K7Q2ZX");
+            return Optional.of(stored);
+        });
+        TicketDetails stored = TicketDetails.of(booking("K7Q2ZX"));
+        when(bookingService.getTicketDetails("K7Q2ZX")).thenReturn(stored);
+
+        assertSame(stored, idempotency.bookFlight("retry-1", 10L, request("Asha")));
+        verify(bookingService, never()).bookFlight(any(), any());
+    }
+
+    @Test
+    @DisplayName("Blank or oversized keys are refused")
+    void invalidKeys() {
+        BookingIdempotency idempotency = idempotency(false, 100);
+
+        assertThrows(ValidationException.class, () -> idempotency.bookFlight(" ", 10L, request("Asha")));
+        assertThrows(ValidationException.class,
+                () -> idempotency.bookFlight("k".repeat(256), 10L, request("Asha")));
+    }
+}
@@ -1,10 +1,10 @@
 package com.flightapp;
 
+import com.flightapp.config.ReadYourWrites;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.exceptions.ValidationException;
 import com.flightapp.model.Booking;
 import com.flightapp.model.BookingStatus;
-import com.flightapp.model.CityEnum;
 import com.flightapp.model.FlightInventory;
 import com.flightapp.model.TripType;
 import com.flightapp.repository.BookingRepository;
@@ -12,14 +12,26 @@ import com.flightapp.repository.FlightInventoryRepository;
 import com.flightapp.repository.PassengerRepository;
 import com.flightapp.request.BookingRequest;
 import com.flightapp.request.PassengerRequest;
+import com.flightapp.service.AirlineRegistry;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.PnrGenerator;
+import com.flightapp.service.SeatAvailabilityStore;
+import com.flightapp.service.SeatMapService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
@@ -28,6 +40,13 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,14 +61,32 @@ class BookingServiceTests {
     @Mock
     private PassengerRepository passengerRepository;
 
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PnrGenerator pnrGenerator;
+
+    @Mock
+    private AirlineRegistry airlineRegistry;
+
+    @Spy
+    private SeatAvailabilityStore availabilityStore = new SeatAvailabilityStore();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), Clock.systemUTC());
+
     @InjectMocks
     private BookingService bookingService;
 
     private FlightInventory outboundFlightWithSeats(int availableSeats) {
         FlightInventory flight = new FlightInventory();
         flight.setFlightNumber("BK101");
-        flight.setSourceCity(CityEnum.DELHI);
-        flight.setDestinationCity(CityEnum.MUMBAI);
+        flight.setSourceCity("DELHI");
+        flight.setDestinationCity("MUMBAI");
         flight.setDepartureDate(LocalDate.now().plusDays(5));
         flight.setDepartureTime(LocalTime.of(10, 0));
         flight.setArrivalDate(LocalDate.now().plusDays(5));
@@ -73,7 +110,7 @@ class BookingServiceTests {
             p.setName("Passenger " + (i + 1));
             p.setAge(30);
             p.setGender("M");
-            p.setSeatOutbound("A" + (i + 1));
+            p.setSeatOutbound((i + 1) + "A");
             p.setMeal("Veg");
             passengers.add(p);
         }
@@ -90,15 +127,19 @@ class BookingServiceTests {
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
         when(bookingRepository.save(any(Booking.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt())).thenReturn(1);
+        when(pnrGenerator.next()).thenReturn("K7Q2ZX");
 
         Booking booking = bookingService.bookFlight(1L, req);
 
         assertNotNull(booking);
         assertEquals(BookingStatus.CONFIRMED, booking.getStatus());
         assertEquals(1, booking.getTotalPassengers());
-        assertNotNull(booking.getPnrOutbound());
-        assertEquals(6, booking.getPnrOutbound().length());
+        assertEquals("K7Q2ZX", booking.getPnrOutbound());
         assertEquals(4, outbound.getAvailableSeats());
+        // the follow-up ticket and history lookups are kept on the primary
+        assertTrue(readYourWrites.recentlyWritten("K7Q2ZX"));
+        assertTrue(readYourWrites.recentlyWritten(req.getContactEmail()));
     }
 
     @Test
@@ -110,6 +151,7 @@ class BookingServiceTests {
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
         when(bookingRepository.save(any(Booking.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt())).thenReturn(1);
 
         Booking booking = bookingService.bookFlight(1L, req);
 
@@ -126,6 +168,7 @@ class BookingServiceTests {
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
         when(bookingRepository.save(any(Booking.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt())).thenReturn(1);
 
         Booking booking = bookingService.bookFlight(1L, req);
 
@@ -172,6 +215,7 @@ class BookingServiceTests {
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
         when(bookingRepository.save(any(Booking.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt())).thenReturn(1);
 
         Booking booking = bookingService.bookFlight(1L, req);
 
@@ -196,6 +240,7 @@ class BookingServiceTests {
         when(inventoryRepository.findById(2L)).thenReturn(Optional.of(returning));
         when(bookingRepository.save(any(Booking.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt())).thenReturn(1);
 
         Booking booking = bookingService.bookFlight(1L, req);
 
@@ -268,4 +313,181 @@ class BookingServiceTests {
         assertThrows(ValidationException.class,
                 () -> bookingService.bookFlight(1L, req));
     }
+
+    @Test
+    @DisplayName("Reject booking when seats were taken by a concurrent booking")
+    void rejectBookingWhenConditionalUpdateFails() {
+        FlightInventory outbound = outboundFlightWithSeats(5);
+        BookingRequest req = validBookingRequest(2);
+
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
+        when(inventoryRepository.decrementAvailableSeats(any(), eq(2))).thenReturn(0);
+
+        assertThrows(ValidationException.class, () -> bookingService.bookFlight(1L, req));
+        assertEquals(5, outbound.getAvailableSeats());
+    }
+
+    @Test
+    @DisplayName("Give back outbound seats when the return flight sells out mid-booking")
+    void releaseOutboundSeatsWhenReturnReservationFails() {
+        FlightInventory outbound = outboundFlightWithSeats(5);
+        outbound.setFlightId(1L);
+        FlightInventory returning = outboundFlightWithSeats(5);
+        returning.setFlightId(2L);
+
+        BookingRequest req = validBookingRequest(2);
+        req.setTripType(TripType.ROUND_TRIP);
+        req.setReturnFlightId(2L);
+        req.getPassengers().forEach(p -> p.setSeatReturn("B1"));
+
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
+        when(inventoryRepository.findById(2L)).thenReturn(Optional.of(returning));
+        when(inventoryRepository.decrementAvailableSeats(1L, 2)).thenReturn(1);
+        when(inventoryRepository.decrementAvailableSeats(2L, 2)).thenReturn(0);
+
+        assertThrows(ValidationException.class, () -> bookingService.bookFlight(1L, req));
+        // the outbound decrement is undone by the rollback, only the in-memory hold is given back
+        verify(inventoryRepository, never()).incrementAvailableSeats(any(), anyInt());
+        assertEquals(5, outbound.getAvailableSeats());
+        assertEquals(5, availabilityStore.available(1L));
+    }
+
+    @Test
+    @DisplayName("Do not touch seat counts when passenger details are invalid")
+    void invalidPassengerDoesNotReserveSeats() {
+        FlightInventory outbound = outboundFlightWithSeats(5);
+
+        BookingRequest req = validBookingRequest(2);
+        req.getPassengers().get(1).setSeatOutbound(" ");
+
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
+
+        assertThrows(ValidationException.class, () -> bookingService.bookFlight(1L, req));
+        verify(inventoryRepository, never()).decrementAvailableSeats(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("A flight sold out in memory is turned away before the database is read")
+    void soldOutCounterRejectsWithoutDatabaseRead() {
+        availabilityStore.track(1L, 1);
+        BookingRequest req = validBookingRequest(2);
+
+        ValidationException e = assertThrows(ValidationException.class, () -> bookingService.bookFlight(1L, req));
+
+        assertEquals("Not enough seats available in outbound flight", e.getMessage());
+        verify(inventoryRepository, never()).findById(any());
+        verify(inventoryRepository, never()).decrementAvailableSeats(any(), anyInt());
+        assertEquals(1, availabilityStore.available(1L));
+    }
+
+    @Test
+    @DisplayName("Give back the seat count when a selected seat is already taken")
+    void releaseSeatCountWhenSeatIsTaken() {
+        FlightInventory outbound = outboundFlightWithSeats(5);
+        BookingRequest req = validBookingRequest(2);
+
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
+        doThrow(new ValidationException("One or more selected seats are already taken: 2A"))
+                .when(seatMapService).assignSeats(any(), anyList());
+
+        assertThrows(ValidationException.class, () -> bookingService.bookFlight(1L, req));
+        verify(inventoryRepository, never()).decrementAvailableSeats(any(), anyInt());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        assertEquals(5, outbound.getAvailableSeats());
+    }
+
+    @Test
+    @DisplayName("Assign the selected seats on both legs of a round trip")
+    void assignSeatsOnBothLegs() {
+        FlightInventory outbound = outboundFlightWithSeats(5);
+        FlightInventory returning = outboundFlightWithSeats(5);
+
+        BookingRequest req = validBookingRequest(2);
+        req.setTripType(TripType.ROUND_TRIP);
+        req.setReturnFlightId(2L);
+        req.getPassengers().get(0).setSeatReturn("3C");
+        req.getPassengers().get(1).setSeatReturn("3D");
+
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
+        when(inventoryRepository.findById(2L)).thenReturn(Optional.of(returning));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt())).thenReturn(1);
+        when(bookingRepository.save(any(Booking.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingService.bookFlight(1L, req);
+
+        verify(seatMapService).assignSeats(outbound, List.of("1A", "2A"));
+        verify(seatMapService).assignSeats(returning, List.of("3C", "3D"));
+    }
+
+    @Test
+    @DisplayName("Inside a transaction the in-memory hold is kept until the rollback")
+    void inMemoryHoldReturnedOnRollback() {
+        FlightInventory outbound = outboundFlightWithSeats(5);
+        outbound.setFlightId(1L);
+        BookingRequest req = validBookingRequest(2);
+
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
+        doThrow(new ValidationException("One or more selected seats are already taken: 2A"))
+                .when(seatMapService).assignSeats(any(), anyList());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThrows(ValidationException.class, () -> bookingService.bookFlight(1L, req));
+            assertEquals(3, availabilityStore.available(1L));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(5, availabilityStore.available(1L));
+    }
+
+    @Test
+    @DisplayName("A seat already in seat_map at flush is reported as taken and the seat map reloaded")
+    void seatConflictAtFlushReportedAsTaken() {
+        FlightInventory outbound = outboundFlightWithSeats(5);
+        BookingRequest req = validBookingRequest(1);
+
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(outbound));
+        when(bookingRepository.save(any(Booking.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt()))
+                .thenThrow(new DataIntegrityViolationException("uk_seat_map_flight_seat"));
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> bookingService.bookFlight(1L, req));
+        assertTrue(ex.getMessage().contains("already taken"));
+        verify(seatMapService).evict(outbound);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Round trips take the flight rows in flight id order")
+    void roundTripLocksFlightsInIdOrder() {
+        FlightInventory outbound = outboundFlightWithSeats(5);
+        outbound.setFlightId(7L);
+        FlightInventory returning = outboundFlightWithSeats(5);
+        returning.setFlightId(3L);
+
+        BookingRequest req = validBookingRequest(1);
+        req.setOutboundFlightId(7L);
+        req.setTripType(TripType.ROUND_TRIP);
+        req.setReturnFlightId(3L);
+        req.getPassengers().get(0).setSeatReturn("4D");
+
+        when(inventoryRepository.findById(7L)).thenReturn(Optional.of(outbound));
+        when(inventoryRepository.findById(3L)).thenReturn(Optional.of(returning));
+        when(inventoryRepository.decrementAvailableSeats(any(), anyInt())).thenReturn(1);
+        when(bookingRepository.save(any(Booking.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookingService.bookFlight(7L, req);
+
+        InOrder order = inOrder(bookingRepository, passengerRepository, inventoryRepository);
+        order.verify(bookingRepository).save(any(Booking.class));
+        order.verify(passengerRepository).saveAll(anyList());
+        order.verify(inventoryRepository).decrementAvailableSeats(3L, 1);
+        order.verify(inventoryRepository).decrementAvailableSeats(7L, 1);
+    }
 }
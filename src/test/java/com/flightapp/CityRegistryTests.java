@@ -0,0 +1,134 @@
+package com.flightapp;
+
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.City;
+import com.flightapp.service.CityRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CityRegistryTests {
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T10:00:00Z");
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    // hands out the next list on each load and counts the loads
+    private static class Loads implements Supplier<List<City>> {
+
+        private final List<List<City>> results;
+        private int count;
+
+        Loads(List<List<City>> results) {
+            this.results = results;
+        }
+
+        @Override
+        public List<City> get() {
+            return results.get(Math.min(count++, results.size() - 1));
+        }
+    }
+
+    private final MutableClock clock = new MutableClock();
+
+    private static City city(long id, String code) {
+        City city = new City();
+        city.setCityId(id);
+        city.setCityCode(code);
+        city.setCityName(code.charAt(0) + code.substring(1).toLowerCase());
+        return city;
+    }
+
+    @Test
+    @DisplayName("Cities get dense indexes in id order, matched by code in any case")
+    void denseIndexes() {
+        CityRegistry registry = new CityRegistry(TestCities::cities, 10_000, clock);
+
+        assertEquals(5, registry.capacity());
+        assertEquals(0, registry.index("DELHI"));
+        assertEquals(1, registry.index(" mumbai"));
+        assertEquals("KOLKATA", registry.get(4).getCityCode());
+        assertEquals("CHENNAI", registry.code("Chennai"));
+        assertEquals("Bangalore", registry.findByCode("bangalore").orElseThrow().getCityName());
+        assertNull(registry.code(null));
+        assertEquals(-1, registry.index(null));
+    }
+
+    @Test
+    @DisplayName("Unknown cities are rejected with the allowed values")
+    void unknownCityRejected() {
+        CityRegistry registry = new CityRegistry(TestCities::cities, 10_000, clock);
+
+        assertEquals(-1, registry.index("ATLANTIS"));
+        assertTrue(registry.findByCode("ATLANTIS").isEmpty());
+        assertEquals("Invalid city. Allowed values: [DELHI, MUMBAI, CHENNAI, BANGALORE, KOLKATA]",
+                assertThrows(ValidationException.class, () -> registry.code("ATLANTIS")).getMessage());
+    }
+
+    @Test
+    @DisplayName("Indexes survive a reload, new cities are appended and removed ones keep their slot")
+    void indexesStableAcrossReload() {
+        List<City> added = new ArrayList<>(List.of(city(7L, "PUNE"), city(2L, "MUMBAI"), city(1L, "DELHI")));
+        CityRegistry registry = new CityRegistry(
+                new Loads(List.of(List.of(city(1L, "DELHI"), city(2L, "MUMBAI"), city(3L, "GOA")), added)),
+                10_000, clock);
+
+        assertEquals(2, registry.index("GOA"));
+        registry.refresh();
+
+        assertEquals(0, registry.index("DELHI"));
+        assertEquals(1, registry.index("MUMBAI"));
+        assertEquals(3, registry.index("PUNE"));
+        assertEquals(4, registry.capacity());
+        assertEquals(-1, registry.index("GOA"));
+        assertEquals(List.of("DELHI", "MUMBAI", "PUNE"), registry.codes());
+    }
+
+    @Test
+    @DisplayName("An unknown city reloads the registry at most once per window")
+    void missRefreshesOncePerWindow() {
+        Loads loads = new Loads(List.of(List.of(city(1L, "DELHI")), List.of(city(1L, "DELHI"), city(2L, "GOA"))));
+        CityRegistry registry = new CityRegistry(loads, 10_000, clock);
+
+        assertEquals(-1, registry.index("GOA"));
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(1, registry.index("GOA"));
+        assertEquals(-1, registry.index("PUNE"));
+        assertEquals(-1, registry.index("AGRA"));
+
+        assertEquals(2, loads.count);
+    }
+}
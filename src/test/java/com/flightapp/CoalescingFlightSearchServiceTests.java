@@ -0,0 +1,211 @@
+package com.flightapp;
+
+import com.flightapp.exceptions.ResourceNotFoundException;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.TripType;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.request.FlightSearchRequest;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.service.CoalescingFlightSearchService;
+import com.flightapp.service.CityRegistry;
+import com.flightapp.service.ConnectionGraph;
+import com.flightapp.service.FareCalendar;
+import com.flightapp.service.FlightSearchCache;
+import com.flightapp.service.FlightSearchService;
+import com.flightapp.service.SeatAvailabilityStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingFlightSearchServiceTests {
+
+    @Mock
+    private FlightInventoryRepository inventoryRepository;
+
+    private FlightSearchCache searchCache;
+    private CoalescingFlightSearchService coalescingSearchService;
+
+    @BeforeEach
+    void setUp() {
+        searchCache = new FlightSearchCache(100, Duration.ofMinutes(1), Clock.systemUTC());
+        CityRegistry cityRegistry = TestCities.registry();
+        FlightSearchService searchService = new FlightSearchService(inventoryRepository, new SeatAvailabilityStore(),
+                searchCache, new FareCalendar(Duration.ofMinutes(10), Clock.systemDefaultZone()),
+                new ConnectionGraph(cityRegistry, inventoryRepository::findAvailableSeats, Duration.ofMinutes(60),
+                        Duration.ofHours(12), Duration.ofMinutes(10), Clock.systemDefaultZone()), cityRegistry);
+        coalescingSearchService = new CoalescingFlightSearchService(searchService, searchCache);
+    }
+
+    private FlightSearchRequest request(LocalDate travelDate) {
+        FlightSearchRequest req = new FlightSearchRequest();
+        req.setSourceCity("DELHI");
+        req.setDestinationCity("MUMBAI");
+        req.setTravelDate(travelDate);
+        req.setTripType(TripType.ONE_WAY);
+        return req;
+    }
+
+    private FlightSummary flight(LocalDate date) {
+        FlightInventory inv = new FlightInventory();
+        inv.setFlightId(1L);
+        inv.setFlightNumber("AI201");
+        inv.setSourceCity("DELHI");
+        inv.setDestinationCity("MUMBAI");
+        inv.setDepartureDate(date);
+        inv.setDepartureTime(LocalTime.of(9, 0));
+        inv.setAvailableSeats(10);
+        inv.setPrice(4000.0);
+        return FlightSummary.of(inv);
+    }
+
+    // waits until the thread is parked, i.e. the second search is waiting on the first one's result
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.WAITING, thread.getState());
+    }
+
+    @Test
+    @DisplayName("A miss is queried once and cached, the cache is looked at once per search")
+    void missQueriedAndCached() {
+        LocalDate date = LocalDate.now().plusDays(5);
+        when(inventoryRepository.findFlights(
+                "DELHI", "MUMBAI", date)).thenReturn(List.of(flight(date)));
+
+        assertEquals(1, coalescingSearchService.searchFlights(request(date)).size());
+        assertEquals(1, coalescingSearchService.searchFlights(request(date)).size());
+
+        verify(inventoryRepository, times(1)).findFlights(any(), any(), any());
+        assertEquals(0, coalescingSearchService.inFlight());
+        assertEquals(1, searchCache.stats().misses());
+        assertEquals(1, searchCache.stats().hits());
+    }
+
+    @Test
+    @DisplayName("An identical miss arriving while the first one queries waits for its result")
+    void concurrentMissesShareOneQuery() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(5);
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(inventoryRepository.findFlights(
+                "DELHI", "MUMBAI", date)).thenAnswer(inv -> {
+                    querying.countDown();
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                    return List.of(flight(date));
+                });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<FlightSummary>> first = pool.submit(() -> coalescingSearchService.searchFlights(request(date)));
+            assertTrue(querying.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<Thread> secondThread = new CompletableFuture<>();
+            Future<List<FlightSummary>> second = pool.submit(() -> {
+                secondThread.complete(Thread.currentThread());
+                return coalescingSearchService.searchFlights(request(date));
+            });
+            awaitParked(secondThread.get(5, TimeUnit.SECONDS));
+            assertEquals(1, coalescingSearchService.inFlight());
+
+            release.countDown();
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        verify(inventoryRepository, times(1)).findFlights(any(), any(), any());
+        assertEquals(0, coalescingSearchService.inFlight());
+    }
+
+    @Test
+    @DisplayName("A search waiting on a query that finds no flights gets the same not found")
+    void waitingSearchGetsNotFound() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(5);
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(inventoryRepository.findFlights(any(), any(), any())).thenAnswer(inv -> {
+            querying.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return List.of();
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<FlightSummary>> first = pool.submit(() -> coalescingSearchService.searchFlights(request(date)));
+            assertTrue(querying.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<Thread> secondThread = new CompletableFuture<>();
+            Future<List<FlightSummary>> second = pool.submit(() -> {
+                secondThread.complete(Thread.currentThread());
+                return coalescingSearchService.searchFlights(request(date));
+            });
+            awaitParked(secondThread.get(5, TimeUnit.SECONDS));
+            release.countDown();
+
+            ExecutionException firstEx = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            ExecutionException secondEx = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceNotFoundException.class, firstEx.getCause());
+            assertSame(firstEx.getCause(), secondEx.getCause());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        verify(inventoryRepository, times(1)).findFlights(any(), any(), any());
+        assertEquals(0, coalescingSearchService.inFlight());
+    }
+
+    @Test
+    @DisplayName("A cache hit is answered without a query")
+    void hitAnsweredFromCache() {
+        LocalDate date = LocalDate.now().plusDays(5);
+        FlightSearchCache.RouteKey key = new FlightSearchCache.RouteKey("DELHI", "MUMBAI", date);
+        searchCache.put(key, List.of(flight(date)), searchCache.generation(key));
+
+        assertEquals(1, coalescingSearchService.searchFlights(request(date)).size());
+        assertEquals(1, searchCache.stats().hits());
+        verify(inventoryRepository, never()).findFlights(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Validation uses the same rules and fails before the cache is looked at")
+    void validationFailsFirst() {
+        FlightSearchRequest req = request(LocalDate.now().minusDays(1));
+
+        assertThrows(ValidationException.class, () -> coalescingSearchService.searchFlights(req));
+        assertEquals(0, searchCache.stats().misses());
+        verify(inventoryRepository, never()).findFlights(any(), any(), any());
+    }
+}
@@ -0,0 +1,95 @@
+package com.flightapp;
+
+import com.flightapp.config.ConcurrencyLimitFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTests {
+
+    @Test
+    @DisplayName("Requests beyond the pool based limit get a 503 instead of waiting on the pool")
+    void rejectsRequestsBeyondLimit() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 2, 50);
+        CountDownLatch inside = new CountDownLatch(2);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = null;
+            for (int i = 0; i < 2; i++) {
+                first = pool.submit(() -> {
+                    filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+                        inside.countDown();
+                        try {
+                            finish.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                    return null;
+                });
+            }
+            assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest(), rejected, (req, res) -> {
+                throw new AssertionError("request should not reach the controller");
+            });
+            assertEquals(503, rejected.getStatus());
+            assertEquals("1", rejected.getHeader("Retry-After"));
+            assertTrue(rejected.getContentAsString().contains("\"error\""));
+
+            finish.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, filter.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Permit is returned when the request fails")
+    void releasesPermitOnFailure() {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 1, 50);
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+                    throw new IllegalStateException("boom");
+                }));
+        assertEquals(1, filter.availablePermits());
+    }
+
+    @Test
+    @DisplayName("Async requests hold their permit until the async work completes")
+    void asyncRequestHoldsPermitUntilComplete() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 1, 50);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(0, filter.availablePermits());
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejected, (req, res) -> {
+            throw new AssertionError("request should not reach the controller");
+        });
+        assertEquals(503, rejected.getStatus());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(1, filter.availablePermits());
+    }
+}
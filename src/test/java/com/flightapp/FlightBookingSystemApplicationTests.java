@@ -3,18 +3,21 @@ package com.flightapp;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.exceptions.ValidationException;
 import com.flightapp.model.Airline;
-import com.flightapp.model.CityEnum;
 import com.flightapp.model.FlightInventory;
-import com.flightapp.repository.AirlineRepository;
 import com.flightapp.repository.FlightInventoryRepository;
 import com.flightapp.request.AddInventory;
+import com.flightapp.service.AirlineRegistry;
+import com.flightapp.service.CityRegistry;
 import com.flightapp.service.FlightInventoryService;
+import com.flightapp.service.SeatAvailabilityStore;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -33,7 +36,16 @@ class FlightCreationApiTests {
     private FlightInventoryRepository inventoryRepository;
 
     @Mock
-    private AirlineRepository airlineRepository;
+    private AirlineRegistry airlineRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SeatAvailabilityStore availabilityStore = new SeatAvailabilityStore();
+
+    @Spy
+    private CityRegistry cityRegistry = TestCities.registry();
 
     @InjectMocks
     private FlightInventoryService flightInventoryService;
@@ -42,8 +54,8 @@ class FlightCreationApiTests {
         AddInventory req = new AddInventory();
         req.setAirlineId(1L);
         req.setFlightNumber("AI101");
-        req.setSourceCity(CityEnum.DELHI);
-        req.setDestinationCity(CityEnum.MUMBAI);
+        req.setSourceCity("DELHI");
+        req.setDestinationCity("MUMBAI");
 
         LocalDate departureDate = LocalDate.now().plusDays(10);
         LocalDate arrivalDate = departureDate.plusDays(1);
@@ -67,7 +79,7 @@ class FlightCreationApiTests {
        
         Airline airline = new Airline();
        
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
        
         when(inventoryRepository.existsByFlightNumberAndDepartureDate(
                 req.getFlightNumber(), req.getDepartureDate())).thenReturn(false);
@@ -89,7 +101,7 @@ class FlightCreationApiTests {
         req.setMealAvailable(false);
         Airline airline = new Airline();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
         when(inventoryRepository.existsByFlightNumberAndDepartureDate(
                 req.getFlightNumber(), req.getDepartureDate())).thenReturn(false);
         when(inventoryRepository.save(any(FlightInventory.class)))
@@ -106,7 +118,7 @@ class FlightCreationApiTests {
         AddInventory req = validRequest();
         Airline airline = new Airline();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
         when(inventoryRepository.existsByFlightNumberAndDepartureDate(
                 req.getFlightNumber(), req.getDepartureDate())).thenReturn(false);
         when(inventoryRepository.save(any(FlightInventory.class)))
@@ -125,7 +137,7 @@ class FlightCreationApiTests {
         req.setFlightNumber(null);
         Airline airline = new Airline();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
 
         assertThrows(ValidationException.class, () -> flightInventoryService.addInventory(req));
     }
@@ -137,7 +149,7 @@ class FlightCreationApiTests {
         req.setPrice(0.0);
         Airline airline = new Airline();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
 
         assertThrows(ValidationException.class, () -> flightInventoryService.addInventory(req));
     }
@@ -149,7 +161,7 @@ class FlightCreationApiTests {
         req.setTotalSeats(-10);
         Airline airline = new Airline();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
 
         assertThrows(ValidationException.class, () -> flightInventoryService.addInventory(req));
     }
@@ -162,7 +174,7 @@ class FlightCreationApiTests {
         req.setArrivalTime(req.getDepartureTime().minusHours(1));
         Airline airline = new Airline();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
 
         assertThrows(ValidationException.class, () -> flightInventoryService.addInventory(req));
     }
@@ -176,7 +188,7 @@ class FlightCreationApiTests {
         req.setArrivalDate(past);
         Airline airline = new Airline();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
 
         assertThrows(ValidationException.class, () -> flightInventoryService.addInventory(req));
     }
@@ -187,7 +199,7 @@ class FlightCreationApiTests {
         AddInventory req = validRequest();
         Airline airline = new Airline();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
         when(inventoryRepository.existsByFlightNumberAndDepartureDate(
                 req.getFlightNumber(), req.getDepartureDate())).thenReturn(true);
 
@@ -199,7 +211,7 @@ class FlightCreationApiTests {
     void rejectWhenAirlineDoesNotExist() {
         AddInventory req = validRequest();
 
-        when(airlineRepository.findById(1L)).thenReturn(Optional.empty());
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> flightInventoryService.addInventory(req));
     }
@@ -211,7 +223,7 @@ class FlightCreationApiTests {
         req.setDestinationCity(req.getSourceCity());
 
         Airline airline = new Airline();
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
 
         assertThrows(ValidationException.class, () -> flightInventoryService.addInventory(req));
     }
@@ -222,7 +234,7 @@ class FlightCreationApiTests {
         req.setArrivalDate(req.getDepartureDate().minusDays(1));
 
         Airline airline = new Airline();
-        when(airlineRepository.findById(1L)).thenReturn(Optional.of(airline));
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline));
 
         assertThrows(ValidationException.class, () -> flightInventoryService.addInventory(req));
     }
@@ -0,0 +1,300 @@
+package com.flightapp;
+
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.Airline;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.FlightSchedule;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.FlightKey;
+import com.flightapp.repository.FlightScheduleRepository;
+import com.flightapp.request.AddSchedule;
+import com.flightapp.response.ScheduleSummary;
+import com.flightapp.service.AirlineRegistry;
+import com.flightapp.service.CityRegistry;
+import com.flightapp.service.FlightScheduleService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FlightScheduleServiceTests {
+
+    private static final int HORIZON = 14;
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final Set<DayOfWeek> MON_WED_FRI =
+            EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+
+    @Mock
+    private FlightScheduleRepository scheduleRepository;
+
+    @Mock
+    private AirlineRegistry airlineRegistry;
+
+    @Mock
+    private FlightInventoryRepository inventoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final CityRegistry cityRegistry = TestCities.registry();
+
+    private FlightScheduleService service() {
+        return new FlightScheduleService(scheduleRepository, airlineRegistry, cityRegistry, inventoryRepository,
+                jdbcTemplate, transactionManager, eventPublisher, Runnable::run, HORIZON);
+    }
+
+    private static Airline airline() {
+        Airline airline = new Airline();
+        airline.setAirlineId(1L);
+        airline.setAirlineCode("AI");
+        return airline;
+    }
+
+    private static AddSchedule request() {
+        AddSchedule req = new AddSchedule();
+        req.setAirlineId(1L);
+        req.setFlightNumber("AI101");
+        req.setSourceCity("DELHI");
+        req.setDestinationCity("MUMBAI");
+        req.setDaysOfWeek(MON_WED_FRI);
+        req.setValidFrom(TODAY.plusDays(1));
+        req.setValidTo(TODAY.plusDays(90));
+        req.setDepartureTime(LocalTime.of(9, 0));
+        req.setArrivalTime(LocalTime.of(11, 0));
+        req.setTotalSeats(180);
+        req.setPrice(4500.0);
+        return req;
+    }
+
+    private static FlightSchedule schedule(long id, LocalDate materializedThrough, LocalDate validTo) {
+        FlightSchedule schedule = new FlightSchedule();
+        schedule.setScheduleId(id);
+        schedule.setAirline(airline());
+        schedule.setFlightNumber("AI" + id);
+        schedule.setSourceCity("DELHI");
+        schedule.setDestinationCity("MUMBAI");
+        schedule.setDaysOfWeek(FlightSchedule.bit(DayOfWeek.MONDAY) | FlightSchedule.bit(DayOfWeek.WEDNESDAY)
+                | FlightSchedule.bit(DayOfWeek.FRIDAY));
+        schedule.setValidFrom(materializedThrough.plusDays(1));
+        schedule.setValidTo(validTo);
+        schedule.setDepartureTime(LocalTime.of(23, 0));
+        schedule.setArrivalTime(LocalTime.of(1, 0));
+        schedule.setArrivalDayOffset(1);
+        schedule.setTotalSeats(180);
+        schedule.setPrice(4500.0);
+        schedule.setMaterializedThrough(materializedThrough);
+        return schedule;
+    }
+
+    private static List<LocalDate> operatingDays(LocalDate from, LocalDate through) {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(through); day = day.plusDays(1)) {
+            if (MON_WED_FRI.contains(day.getDayOfWeek())) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private static FlightKey existing(String flightNumber, LocalDate date) {
+        return new FlightKey() {
+            @Override
+            public String getFlightNumber() {
+                return flightNumber;
+            }
+
+            @Override
+            public LocalDate getDepartureDate() {
+                return date;
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<FlightInventory> inserted() {
+        ArgumentCaptor<Collection> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        return new ArrayList<>(rows.getValue());
+    }
+
+    @Test
+    @DisplayName("A new schedule creates its flights inside the booking window and skips days already taken")
+    void addScheduleExpandsWindow() {
+        AddSchedule req = request();
+        LocalDate horizon = TODAY.plusDays(HORIZON);
+        List<LocalDate> expected = operatingDays(req.getValidFrom(), horizon);
+        FlightSchedule[] saved = new FlightSchedule[1];
+
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline()));
+        when(scheduleRepository.save(any(FlightSchedule.class))).thenAnswer(inv -> {
+            saved[0] = inv.getArgument(0);
+            saved[0].setScheduleId(7L);
+            return saved[0];
+        });
+        when(scheduleRepository.findById(7L)).thenAnswer(inv -> Optional.of(saved[0]));
+        when(scheduleRepository.advanceMaterialized(7L, req.getValidFrom().minusDays(1), horizon)).thenReturn(1);
+        when(inventoryRepository.findExistingKeys(eq(List.of("AI101")), eq(expected)))
+                .thenReturn(List.of(existing("AI101", expected.get(0))));
+
+        ScheduleSummary summary = service().addSchedule(req);
+
+        assertEquals(MON_WED_FRI, summary.daysOfWeek());
+        assertEquals(horizon, summary.materializedThrough());
+        assertEquals(expected.size() - 1, summary.flightsCreated());
+        List<FlightInventory> flights = inserted();
+        assertEquals(expected.subList(1, expected.size()), flights.stream().map(FlightInventory::getDepartureDate).toList());
+        assertTrue(flights.stream().allMatch(f -> f.getAvailableSeats() == 180));
+        verify(eventPublisher, times(expected.size() - 1)).publishEvent(any(FlightInventoryChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("A schedule overlapping another one for the same flight number is refused")
+    void overlappingScheduleRejected() {
+        AddSchedule req = request();
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline()));
+        when(scheduleRepository.existsOverlapping("AI101", req.getValidFrom(), req.getValidTo())).thenReturn(true);
+
+        assertThrows(ValidationException.class, () -> service().addSchedule(req));
+
+        verify(scheduleRepository, never()).save(any(FlightSchedule.class));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Schedules with no weekdays or a same-day arrival before departure are refused")
+    void invalidSchedulesRejected() {
+        AddSchedule noDays = request();
+        noDays.setDaysOfWeek(Set.of());
+        AddSchedule backwards = request();
+        backwards.setArrivalTime(LocalTime.of(8, 0));
+
+        assertThrows(ValidationException.class, () -> service().addSchedule(noDays));
+        assertThrows(ValidationException.class, () -> service().addSchedule(backwards));
+
+        backwards.setArrivalDayOffset(1);
+        service().validate(backwards);
+        verifyNoInteractions(airlineRegistry, scheduleRepository);
+    }
+
+    @Test
+    @DisplayName("A schedule ending before the horizon stops at its last day, overnight flights land the next day")
+    void expansionStopsAtValidTo() {
+        LocalDate through = TODAY.plusDays(3);
+        LocalDate validTo = TODAY.plusDays(10);
+        FlightSchedule schedule = schedule(3L, through, validTo);
+        List<LocalDate> expected = operatingDays(through.plusDays(1), validTo);
+
+        when(scheduleRepository.findById(3L)).thenReturn(Optional.of(schedule));
+        when(scheduleRepository.advanceMaterialized(3L, through, validTo)).thenReturn(1);
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection())).thenReturn(List.of());
+
+        assertEquals(expected.size(), service().expand(3L));
+
+        for (FlightInventory flight : inserted()) {
+            assertEquals(flight.getDepartureDate().plusDays(1), flight.getArrivalDate());
+        }
+    }
+
+    @Test
+    @DisplayName("Nothing is inserted when another instance claimed the days first")
+    void lostClaimInsertsNothing() {
+        LocalDate through = TODAY;
+        when(scheduleRepository.findById(3L)).thenReturn(Optional.of(schedule(3L, through, TODAY.plusDays(60))));
+        when(scheduleRepository.advanceMaterialized(3L, through, TODAY.plusDays(HORIZON))).thenReturn(0);
+
+        assertEquals(0, service().expand(3L));
+
+        verifyNoInteractions(jdbcTemplate, inventoryRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("The expansion job runs every due schedule, one failure does not stop the others")
+    void expandDueIsolatesFailures() {
+        LocalDate horizon = TODAY.plusDays(HORIZON);
+        when(scheduleRepository.findDueForExpansion(horizon)).thenReturn(List.of(1L, 2L));
+        when(scheduleRepository.findById(1L)).thenThrow(new IllegalStateException("connection reset"));
+        when(scheduleRepository.findById(2L)).thenReturn(Optional.of(schedule(2L, TODAY, TODAY.plusDays(60))));
+        when(scheduleRepository.advanceMaterialized(2L, TODAY, horizon)).thenReturn(1);
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection())).thenReturn(List.of());
+
+        service().expandDue();
+
+        assertEquals(operatingDays(TODAY.plusDays(1), horizon).size(), inserted().size());
+    }
+
+    @Test
+    @DisplayName("A failed expansion still returns the saved schedule, the next run creates its flights")
+    void addScheduleSurvivesExpansionFailure() {
+        AddSchedule req = request();
+
+        when(airlineRegistry.findById(1L)).thenReturn(Optional.of(airline()));
+        when(scheduleRepository.save(any(FlightSchedule.class))).thenAnswer(inv -> {
+            FlightSchedule saved = inv.getArgument(0);
+            saved.setScheduleId(7L);
+            return saved;
+        });
+        when(scheduleRepository.findById(7L)).thenThrow(new IllegalStateException("connection reset"));
+
+        ScheduleSummary summary = service().addSchedule(req);
+
+        assertEquals(7L, summary.scheduleId());
+        assertEquals(0, summary.flightsCreated());
+        assertEquals(req.getValidFrom().minusDays(1), summary.materializedThrough());
+        verifyNoInteractions(jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Startup hands the due expansions to the executor without waiting for them")
+    void startupDoesNotWaitForExpansion() {
+        Queue<Runnable> queued = new ArrayDeque<>();
+        FlightScheduleService service = new FlightScheduleService(scheduleRepository, airlineRegistry, cityRegistry,
+                inventoryRepository, jdbcTemplate, transactionManager, eventPublisher, queued::add, HORIZON);
+        when(scheduleRepository.findDueForExpansion(TODAY.plusDays(HORIZON))).thenReturn(List.of(1L, 2L));
+
+        service.expandDueOnStartup();
+
+        assertEquals(2, queued.size());
+        verify(scheduleRepository, never()).findById(any());
+    }
+}
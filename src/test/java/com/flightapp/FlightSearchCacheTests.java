@@ -0,0 +1,156 @@
+package com.flightapp;
+
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.service.FlightSearchCache;
+import com.flightapp.service.FlightSearchCache.RouteKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightSearchCacheTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+
+    private final MutableClock clock = new MutableClock();
+
+    private FlightInventory flight(String from, String to) {
+        FlightInventory flight = new FlightInventory();
+        flight.setSourceCity(from);
+        flight.setDestinationCity(to);
+        flight.setDepartureDate(DATE);
+        return flight;
+    }
+
+    @Test
+    @DisplayName("Second lookup for the same key is a hit and skips the loader")
+    void secondLookupIsHit() {
+        FlightSearchCache cache = new FlightSearchCache(100, Duration.ofMinutes(1), clock);
+        RouteKey key = new RouteKey("DELHI", "MUMBAI", DATE);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(key, () -> {
+            loads.incrementAndGet();
+            return List.of(FlightSummary.of(flight("DELHI", "MUMBAI")));
+        });
+        List<FlightSummary> cached = cache.getOrLoad(key, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cached.size());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL")
+    void entriesExpire() {
+        FlightSearchCache cache = new FlightSearchCache(100, Duration.ofSeconds(30), clock);
+        RouteKey key = new RouteKey("DELHI", "MUMBAI", DATE);
+
+        cache.put(key, List.of(FlightSummary.of(flight("DELHI", "MUMBAI"))), cache.generation(key));
+        clock.advance(Duration.ofSeconds(31));
+
+        assertNull(cache.get(key));
+        assertEquals(1, cache.stats().expirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Least recently used entries are evicted once the cache is full")
+    void leastRecentlyUsedIsEvicted() {
+        FlightSearchCache cache = new FlightSearchCache(16, Duration.ofMinutes(1), clock);
+
+        for (int day = 0; day < 200; day++) {
+            RouteKey key = new RouteKey("DELHI", "MUMBAI", DATE.plusDays(day));
+            cache.put(key, List.of(), cache.generation(key));
+        }
+
+        assertTrue(cache.size() <= 16);
+        assertEquals(200 - cache.size(), cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("An inventory change drops the cached route/date")
+    void inventoryChangeInvalidates() {
+        FlightSearchCache cache = new FlightSearchCache(100, Duration.ofMinutes(1), clock);
+        FlightInventory changed = flight("DELHI", "MUMBAI");
+        RouteKey key = RouteKey.of(changed);
+        RouteKey other = new RouteKey("MUMBAI", "DELHI", DATE);
+
+        cache.put(key, List.of(FlightSummary.of(changed)), cache.generation(key));
+        cache.put(other, List.of(), cache.generation(other));
+
+        cache.onInventoryChanged(new FlightInventoryChangedEvent(changed));
+
+        assertNull(cache.get(key));
+        assertNotNull(cache.get(other));
+        assertEquals(1, cache.stats().invalidations());
+    }
+
+    @Test
+    @DisplayName("A load that read before an inventory change is not cached after its invalidation")
+    void loadOverlappingInvalidationIsNotCached() {
+        FlightSearchCache cache = new FlightSearchCache(100, Duration.ofMinutes(1), clock);
+        FlightInventory changed = flight("DELHI", "MUMBAI");
+        RouteKey key = RouteKey.of(changed);
+        List<FlightSummary> before = List.of(FlightSummary.of(changed));
+
+        // the booking commits and invalidates while the search is between its query and its put
+        List<FlightSummary> loaded = cache.getOrLoad(key, () -> {
+            cache.onInventoryChanged(new FlightInventoryChangedEvent(changed));
+            return before;
+        });
+
+        assertEquals(before, loaded);
+        assertNull(cache.get(key));
+        AtomicInteger loads = new AtomicInteger();
+        cache.getOrLoad(key, () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        assertEquals(1, loads.get());
+        assertNotNull(cache.get(key));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
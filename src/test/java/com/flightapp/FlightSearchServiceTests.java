@@ -1,29 +1,51 @@
 package com.flightapp;
 
+import com.flightapp.event.FlightInventoryChangedEvent;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.exceptions.ValidationException;
 import com.flightapp.model.Airline;
-import com.flightapp.model.CityEnum;
 import com.flightapp.model.FlightInventory;
+import com.flightapp.model.ItinerarySort;
 import com.flightapp.model.TripType;
+import com.flightapp.repository.FlightFare;
 import com.flightapp.repository.FlightInventoryRepository;
 import com.flightapp.request.FlightSearchRequest;
+import com.flightapp.response.DayFare;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.response.Itinerary;
+import com.flightapp.response.RoundTripSearchResponse;
+import com.flightapp.service.CityRegistry;
+import com.flightapp.service.ConnectionGraph;
+import com.flightapp.service.FareCalendar;
+import com.flightapp.service.FlightSearchCache;
 import com.flightapp.service.FlightSearchService;
+import com.flightapp.service.SeatAvailabilityStore;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,13 +54,31 @@ class FlightSearchServiceTests {
     @Mock
     private FlightInventoryRepository inventoryRepository;
 
+    @Spy
+    private SeatAvailabilityStore availabilityStore = new SeatAvailabilityStore();
+
+    @Spy
+    private FlightSearchCache searchCache =
+            new FlightSearchCache(100, Duration.ofMinutes(1), Clock.systemUTC());
+
+    @Spy
+    private FareCalendar fareCalendar = new FareCalendar(Duration.ofMinutes(10), Clock.systemDefaultZone());
+
+    @Spy
+    private CityRegistry cityRegistry = TestCities.registry();
+
+    @Spy
+    private ConnectionGraph connectionGraph =
+            new ConnectionGraph(cityRegistry, flightId -> inventoryRepository.findAvailableSeats(flightId),
+                    Duration.ofMinutes(60), Duration.ofHours(12), Duration.ofMinutes(10), Clock.systemDefaultZone());
+
     @InjectMocks
     private FlightSearchService flightSearchService;
 
     private FlightSearchRequest validOneWayRequest(LocalDate travelDate) {
         FlightSearchRequest req = new FlightSearchRequest();
-        req.setSourceCity(CityEnum.DELHI);
-        req.setDestinationCity(CityEnum.MUMBAI);
+        req.setSourceCity("DELHI");
+        req.setDestinationCity("MUMBAI");
         req.setTravelDate(travelDate);
         req.setTripType(TripType.ONE_WAY);
         return req;
@@ -47,8 +87,8 @@ class FlightSearchServiceTests {
     private FlightInventory sampleFlight(LocalDate departureDate) {
         FlightInventory inv = new FlightInventory();
         inv.setFlightNumber("AI201");
-        inv.setSourceCity(CityEnum.DELHI);
-        inv.setDestinationCity(CityEnum.MUMBAI);
+        inv.setSourceCity("DELHI");
+        inv.setDestinationCity("MUMBAI");
         inv.setDepartureDate(departureDate);
         inv.setDepartureTime(LocalTime.of(9, 0));
         inv.setPrice(4000.0);
@@ -67,14 +107,14 @@ class FlightSearchServiceTests {
         LocalDate futureDate = LocalDate.now().plusDays(5);
         FlightSearchRequest req = validOneWayRequest(futureDate);
 
-        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+        when(inventoryRepository.findFlights(
                 req.getSourceCity(), req.getDestinationCity(), req.getTravelDate()))
-                .thenReturn(List.of(sampleFlight(futureDate)));
+                .thenReturn(List.of(FlightSummary.of(sampleFlight(futureDate))));
 
-        List<FlightInventory> results = flightSearchService.searchFlights(req);
+        List<FlightSummary> results = flightSearchService.searchFlights(req);
 
         assertEquals(1, results.size());
-        assertEquals(futureDate, results.get(0).getDepartureDate());
+        assertEquals(futureDate, results.get(0).departureDate());
     }
 
     @Test
@@ -87,11 +127,11 @@ class FlightSearchServiceTests {
         req.setTripType(TripType.ROUND_TRIP);
         req.setReturnDate(ret);
 
-        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+        when(inventoryRepository.findFlights(
                 req.getSourceCity(), req.getDestinationCity(), req.getTravelDate()))
-                .thenReturn(List.of(sampleFlight(travel)));
+                .thenReturn(List.of(FlightSummary.of(sampleFlight(travel))));
 
-        List<FlightInventory> results = flightSearchService.searchFlights(req);
+        List<FlightSummary> results = flightSearchService.searchFlights(req);
 
         assertEquals(1, results.size());
     }
@@ -104,16 +144,16 @@ class FlightSearchServiceTests {
 
         FlightInventory inv = sampleFlight(futureDate);
 
-        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
-                any(), any(), any())).thenReturn(List.of(inv));
+        when(inventoryRepository.findFlights(
+                any(), any(), any())).thenReturn(List.of(FlightSummary.of(inv)));
 
-        List<FlightInventory> results = flightSearchService.searchFlights(req);
+        List<FlightSummary> results = flightSearchService.searchFlights(req);
 
-        FlightInventory result = results.get(0);
-        assertNotNull(result.getDepartureDate());
-        assertNotNull(result.getDepartureTime());
-        assertNotNull(result.getAirline());
-        assertNotNull(result.getPrice());
+        FlightSummary result = results.get(0);
+        assertNotNull(result.departureDate());
+        assertNotNull(result.departureTime());
+        assertEquals("Sample Airline", result.airlineName());
+        assertEquals(4000.0, result.price());
     }
 
     @Test
@@ -131,11 +171,37 @@ class FlightSearchServiceTests {
     void rejectSearchWhenSourceAndDestinationSame() {
         LocalDate futureDate = LocalDate.now().plusDays(5);
         FlightSearchRequest req = validOneWayRequest(futureDate);
-        req.setDestinationCity(CityEnum.DELHI);
+        req.setDestinationCity("DELHI");
 
         assertThrows(ValidationException.class, () -> flightSearchService.searchFlights(req));
     }
 
+    @Test
+    @DisplayName("Reject search for a city that is not in the registry")
+    void rejectSearchForUnknownCity() {
+        FlightSearchRequest req = validOneWayRequest(LocalDate.now().plusDays(5));
+        req.setDestinationCity("ATLANTIS");
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> flightSearchService.searchFlights(req));
+
+        assertEquals("Invalid city. Allowed values: [DELHI, MUMBAI, CHENNAI, BANGALORE, KOLKATA]", ex.getMessage());
+        verify(inventoryRepository, never()).findFlights(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Cities are matched in any case and searched under their stored code")
+    void searchAcceptsCityInAnyCase() {
+        LocalDate futureDate = LocalDate.now().plusDays(5);
+        FlightSearchRequest req = validOneWayRequest(futureDate);
+        req.setSourceCity(" delhi");
+        req.setDestinationCity("Mumbai");
+
+        when(inventoryRepository.findFlights("DELHI", "MUMBAI", futureDate))
+                .thenReturn(List.of(FlightSummary.of(sampleFlight(futureDate))));
+
+        assertEquals(1, flightSearchService.searchFlights(req).size());
+    }
+
     @Test
     @DisplayName("Reject search when travel date is in the past")
     void rejectSearchWhenDateInPast() {
@@ -151,7 +217,7 @@ class FlightSearchServiceTests {
         LocalDate futureDate = LocalDate.now().plusDays(5);
         FlightSearchRequest req = validOneWayRequest(futureDate);
 
-        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+        when(inventoryRepository.findFlights(
                 req.getSourceCity(), req.getDestinationCity(), req.getTravelDate()))
                 .thenReturn(List.of());
 
@@ -164,12 +230,391 @@ class FlightSearchServiceTests {
         LocalDate today = LocalDate.now();
         FlightSearchRequest req = validOneWayRequest(today);
 
-        when(inventoryRepository.findBySourceCityAndDestinationCityAndDepartureDate(
+        when(inventoryRepository.findFlights(
                 req.getSourceCity(), req.getDestinationCity(), req.getTravelDate()))
-                .thenReturn(List.of(sampleFlight(today)));
+                .thenReturn(List.of(FlightSummary.of(sampleFlight(today))));
 
-        List<FlightInventory> results = flightSearchService.searchFlights(req);
+        List<FlightSummary> results = flightSearchService.searchFlights(req);
 
         assertEquals(1, results.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Repeated searches for the same route and date are served from the cache")
+    void repeatedSearchHitsCache() {
+        LocalDate futureDate = LocalDate.now().plusDays(5);
+        FlightSearchRequest req = validOneWayRequest(futureDate);
+
+        when(inventoryRepository.findFlights(
+                req.getSourceCity(), req.getDestinationCity(), req.getTravelDate()))
+                .thenReturn(List.of(FlightSummary.of(sampleFlight(futureDate))));
+
+        flightSearchService.searchFlights(req);
+        List<FlightSummary> results = flightSearchService.searchFlights(req);
+
+        assertEquals(1, results.size());
+        verify(inventoryRepository, times(1))
+                .findFlights(any(), any(), any());
+        assertEquals(1, searchCache.stats().hits());
+        assertEquals(1, searchCache.stats().misses());
+    }
+
+    @Test
+    @DisplayName("Cached search results show the in-memory seat count, not the count they were loaded with")
+    void cachedResultsShowLiveSeats() {
+        LocalDate futureDate = LocalDate.now().plusDays(5);
+        FlightSearchRequest req = validOneWayRequest(futureDate);
+        FlightInventory flight = sampleFlight(futureDate);
+        flight.setFlightId(7L);
+        flight.setAvailableSeats(10);
+
+        when(inventoryRepository.findFlights(
+                req.getSourceCity(), req.getDestinationCity(), req.getTravelDate()))
+                .thenReturn(List.of(FlightSummary.of(flight)));
+
+        assertEquals(10, flightSearchService.searchFlights(req).get(0).availableSeats());
+        availabilityStore.tryReserve(7L, 4);
+
+        assertEquals(6, flightSearchService.searchFlights(req).get(0).availableSeats());
+        verify(inventoryRepository, times(1)).findFlights(any(), any(), any());
+    }
+
+    private FlightInventory leg(long id, String from, String to, LocalDate date, int hour, double price) {
+        FlightInventory inv = sampleFlight(date);
+        inv.setFlightId(id);
+        inv.setSourceCity(from);
+        inv.setDestinationCity(to);
+        inv.setDepartureTime(LocalTime.of(hour, 0));
+        inv.setArrivalDate(date);
+        inv.setArrivalTime(LocalTime.of(hour + 2, 0));
+        inv.setAvailableSeats(10);
+        inv.setPrice(price);
+        return inv;
+    }
+
+    private List<FlightSummary> summaries(FlightInventory... flights) {
+        return Arrays.stream(flights).map(FlightSummary::of).toList();
+    }
+
+    // what findFaresBetween selects for each flight
+    private List<FlightFare> fares(FlightInventory... flights) {
+        List<FlightFare> fares = new ArrayList<>();
+        for (FlightInventory flight : flights) {
+            fares.add(new FlightFare() {
+                @Override
+                public Long getFlightId() {
+                    return flight.getFlightId();
+                }
+
+                @Override
+                public LocalDate getDepartureDate() {
+                    return flight.getDepartureDate();
+                }
+
+                @Override
+                public double getPrice() {
+                    return flight.getPrice();
+                }
+
+                @Override
+                public int getAvailableSeats() {
+                    return flight.getAvailableSeats();
+                }
+            });
+        }
+        return fares;
+    }
+
+    private FlightSearchRequest roundTripRequest(LocalDate travel, LocalDate ret) {
+        FlightSearchRequest req = validOneWayRequest(travel);
+        req.setTripType(TripType.ROUND_TRIP);
+        req.setReturnDate(ret);
+        return req;
+    }
+
+    @Test
+    @DisplayName("Round-trip search returns both legs from a single query")
+    void roundTripSearchReturnsBothLegs() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        LocalDate ret = travel.plusDays(3);
+        FlightSearchRequest req = roundTripRequest(travel, ret);
+
+        when(inventoryRepository.findRoundTripLegs("DELHI", "MUMBAI", travel, ret))
+                .thenReturn(summaries(
+                        leg(1L, "DELHI", "MUMBAI", travel, 9, 4000.0),
+                        leg(2L, "DELHI", "MUMBAI", travel, 18, 3000.0),
+                        leg(3L, "MUMBAI", "DELHI", ret, 7, 3500.0)));
+
+        RoundTripSearchResponse response = flightSearchService.searchRoundTrip(req);
+
+        assertEquals(2, response.outboundFlights().size());
+        assertEquals(1, response.returnFlights().size());
+        assertEquals(2L, response.cheapestOptions().get(0).outboundFlightId());
+        assertEquals(6500.0, response.cheapestOptions().get(0).totalPrice());
+        verify(inventoryRepository, never())
+                .findFlights(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Same-day round trip only pairs return legs that leave after landing")
+    void sameDayRoundTripSkipsImpossiblePairs() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        FlightSearchRequest req = roundTripRequest(travel, travel);
+
+        when(inventoryRepository.findRoundTripLegs(any(), any(), any(), any()))
+                .thenReturn(summaries(
+                        leg(1L, "DELHI", "MUMBAI", travel, 12, 4000.0),
+                        leg(2L, "MUMBAI", "DELHI", travel, 8, 1000.0),
+                        leg(3L, "MUMBAI", "DELHI", travel, 19, 5000.0)));
+
+        RoundTripSearchResponse response = flightSearchService.searchRoundTrip(req);
+
+        assertEquals(1, response.cheapestOptions().size());
+        assertEquals(3L, response.cheapestOptions().get(0).returnFlightId());
+    }
+
+    @Test
+    @DisplayName("Round-trip search reports missing return flights")
+    void roundTripWithoutReturnFlightsNotFound() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        FlightSearchRequest req = roundTripRequest(travel, travel.plusDays(2));
+
+        when(inventoryRepository.findRoundTripLegs(any(), any(), any(), any()))
+                .thenReturn(summaries(leg(1L, "DELHI", "MUMBAI", travel, 9, 4000.0)));
+
+        assertThrows(ResourceNotFoundException.class, () -> flightSearchService.searchRoundTrip(req));
+    }
+
+    @Test
+    @DisplayName("Round-trip search rejects one-way requests")
+    void roundTripSearchRejectsOneWay() {
+        FlightSearchRequest req = validOneWayRequest(LocalDate.now().plusDays(5));
+
+        assertThrows(ValidationException.class, () -> flightSearchService.searchRoundTrip(req));
+    }
+
+    private FlightSearchRequest flexibleRequest(LocalDate travel, int flexibleDays) {
+        FlightSearchRequest req = validOneWayRequest(travel);
+        req.setFlexibleDays(flexibleDays);
+        return req;
+    }
+
+    @Test
+    @DisplayName("Flexible date search loads the whole window with one range query")
+    void flexibleSearchUsesOneRangeQuery() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        FlightSearchRequest req = flexibleRequest(travel, 2);
+
+        when(inventoryRepository.findFaresBetween(
+                "DELHI", "MUMBAI", travel.minusDays(2), travel.plusDays(2)))
+                .thenReturn(fares(
+                        leg(1L, "DELHI", "MUMBAI", travel, 9, 4000.0),
+                        leg(2L, "DELHI", "MUMBAI", travel, 18, 3000.0),
+                        leg(3L, "DELHI", "MUMBAI", travel.plusDays(1), 7, 3500.0)));
+
+        List<DayFare> fares = flightSearchService.searchFlexibleDates(req);
+        flightSearchService.searchFlexibleDates(req);
+
+        assertEquals(5, fares.size());
+        assertEquals(travel.minusDays(2), fares.get(0).date());
+        assertNull(fares.get(0).lowestPrice());
+        assertEquals(3000.0, fares.get(2).lowestPrice());
+        assertEquals(2, fares.get(2).flightCount());
+        assertEquals(20, fares.get(2).availableSeats());
+        assertEquals(3500.0, fares.get(3).lowestPrice());
+        verify(inventoryRepository, times(1))
+                .findFaresBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Flexible date window does not start before today")
+    void flexibleSearchClampsToToday() {
+        LocalDate today = LocalDate.now();
+        FlightSearchRequest req = flexibleRequest(today.plusDays(1), 3);
+
+        when(inventoryRepository.findFaresBetween(
+                "DELHI", "MUMBAI", today, today.plusDays(4)))
+                .thenReturn(List.of());
+
+        List<DayFare> fares = flightSearchService.searchFlexibleDates(req);
+
+        assertEquals(5, fares.size());
+        assertEquals(today, fares.get(0).date());
+    }
+
+    @Test
+    @DisplayName("An inventory change drops the day, the reload skips sold out flights for the lowest fare")
+    void flexibleSearchFollowsInventoryChanges() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        FlightSearchRequest req = flexibleRequest(travel, 0);
+        FlightInventory cheap = leg(2L, "DELHI", "MUMBAI", travel, 18, 3000.0);
+
+        when(inventoryRepository.findFaresBetween(any(), any(), any(), any()))
+                .thenReturn(fares(leg(1L, "DELHI", "MUMBAI", travel, 9, 4000.0), cheap));
+
+        assertEquals(3000.0, flightSearchService.searchFlexibleDates(req).get(0).lowestPrice());
+
+        cheap.setAvailableSeats(0);
+        fareCalendar.onInventoryChanged(new FlightInventoryChangedEvent(cheap));
+
+        assertEquals(4000.0, flightSearchService.searchFlexibleDates(req).get(0).lowestPrice());
+        verify(inventoryRepository, times(2))
+                .findFaresBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Fares read before an inventory change answer that search but are not kept")
+    void flexibleSearchDoesNotKeepFaresReadBeforeAChange() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        FlightSearchRequest req = flexibleRequest(travel, 0);
+        FlightInventory cheap = leg(2L, "DELHI", "MUMBAI", travel, 18, 3000.0);
+        List<FlightFare> beforeChange = fares(leg(1L, "DELHI", "MUMBAI", travel, 9, 4000.0),
+                leg(2L, "DELHI", "MUMBAI", travel, 18, 3000.0));
+
+        // the change commits while the first search is still reading
+        when(inventoryRepository.findFaresBetween(any(), any(), any(), any()))
+                .thenAnswer(inv -> {
+                    cheap.setAvailableSeats(0);
+                    fareCalendar.onInventoryChanged(new FlightInventoryChangedEvent(cheap));
+                    return beforeChange;
+                })
+                .thenReturn(fares(leg(1L, "DELHI", "MUMBAI", travel, 9, 4000.0), cheap));
+
+        assertEquals(3000.0, flightSearchService.searchFlexibleDates(req).get(0).lowestPrice());
+        assertEquals(4000.0, flightSearchService.searchFlexibleDates(req).get(0).lowestPrice());
+        verify(inventoryRepository, times(2))
+                .findFaresBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Flexible date search rejects a window wider than a week")
+    void flexibleSearchRejectsWideWindow() {
+        FlightSearchRequest req = flexibleRequest(LocalDate.now().plusDays(10), 8);
+
+        assertThrows(ValidationException.class, () -> flightSearchService.searchFlexibleDates(req));
+    }
+
+    private FlightSearchRequest connectionRequest(LocalDate travel, int maxStops, ItinerarySort sort) {
+        FlightSearchRequest req = validOneWayRequest(travel);
+        req.setDestinationCity("CHENNAI");
+        req.setMaxStops(maxStops);
+        req.setSortBy(sort);
+        return req;
+    }
+
+    // no nonstop DELHI-CHENNAI: one stop via MUMBAI, two stops via KOLKATA and BANGALORE
+    private List<FlightSummary> connectingFlights(LocalDate travel, FlightInventory... more) {
+        List<FlightSummary> flights = new ArrayList<>(summaries(
+                leg(1L, "DELHI", "MUMBAI", travel, 8, 3000.0),
+                leg(2L, "MUMBAI", "CHENNAI", travel, 10, 1000.0),
+                leg(3L, "MUMBAI", "CHENNAI", travel, 12, 2500.0),
+                leg(4L, "DELHI", "KOLKATA", travel, 6, 2000.0),
+                leg(5L, "KOLKATA", "BANGALORE", travel, 9, 1500.0),
+                leg(6L, "BANGALORE", "CHENNAI", travel, 12, 1000.0),
+                leg(7L, "MUMBAI", "DELHI", travel, 11, 500.0)));
+        flights.addAll(summaries(more));
+        return flights;
+    }
+
+    @Test
+    @DisplayName("Connection search finds one and two stop itineraries when there is no nonstop")
+    void connectionsWithoutNonstop() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+
+        when(inventoryRepository.findFlightsDepartingBetween(travel, travel.plusDays(2)))
+                .thenReturn(connectingFlights(travel));
+
+        List<Itinerary> byDuration = flightSearchService.searchConnections(
+                connectionRequest(travel, 2, ItinerarySort.DURATION));
+
+        // flight 2 leaves MUMBAI as flight 1 lands, below the minimum layover
+        assertEquals(2, byDuration.size());
+        assertEquals(List.of(1L, 3L), byDuration.get(0).legs().stream().map(FlightSummary::flightId).toList());
+        assertEquals(1, byDuration.get(0).stops());
+        assertEquals(360, byDuration.get(0).durationMinutes());
+        assertEquals(5500.0, byDuration.get(0).totalPrice());
+        assertEquals(List.of(4L, 5L, 6L), byDuration.get(1).legs().stream().map(FlightSummary::flightId).toList());
+
+        List<Itinerary> byPrice = flightSearchService.searchConnections(
+                connectionRequest(travel, 2, ItinerarySort.PRICE));
+        assertEquals(4500.0, byPrice.get(0).totalPrice());
+
+        assertEquals(1, flightSearchService.searchConnections(
+                connectionRequest(travel, 1, ItinerarySort.PRICE)).size());
+        verify(inventoryRepository, times(1)).findFlightsDepartingBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("A seat change re-reads that flight, a flight the day doesn't know makes the day reload")
+    void connectionGraphFollowsInventoryChanges() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        FlightInventory second = leg(3L, "MUMBAI", "CHENNAI", travel, 12, 2500.0);
+        second.setAvailableSeats(0);
+        List<FlightSummary> uploadedDay = new ArrayList<>(connectingFlights(travel));
+        uploadedDay.removeIf(flight -> flight.flightId() == 3L);
+        uploadedDay.add(FlightSummary.of(second));
+        uploadedDay.add(FlightSummary.of(leg(8L, "MUMBAI", "CHENNAI", travel, 15, 900.0)));
+
+        when(inventoryRepository.findFlightsDepartingBetween(any(), any()))
+                .thenReturn(connectingFlights(travel), uploadedDay);
+        when(inventoryRepository.findAvailableSeats(3L)).thenReturn(Optional.of(0));
+
+        assertEquals(1, flightSearchService.searchConnections(
+                connectionRequest(travel, 1, ItinerarySort.DURATION)).size());
+
+        connectionGraph.onInventoryChanged(new FlightInventoryChangedEvent(second));
+
+        assertThrows(ResourceNotFoundException.class, () -> flightSearchService.searchConnections(
+                connectionRequest(travel, 1, ItinerarySort.DURATION)));
+        verify(inventoryRepository, times(1)).findFlightsDepartingBetween(any(), any());
+
+        // uploads publish flights without ids
+        FlightInventory uploaded = leg(8L, "MUMBAI", "CHENNAI", travel, 15, 900.0);
+        uploaded.setFlightId(null);
+        connectionGraph.onInventoryChanged(new FlightInventoryChangedEvent(uploaded));
+
+        List<Itinerary> itineraries = flightSearchService.searchConnections(
+                connectionRequest(travel, 1, ItinerarySort.PRICE));
+
+        assertEquals(1, itineraries.size());
+        assertEquals(3900.0, itineraries.get(0).totalPrice());
+        verify(inventoryRepository, times(2)).findFlightsDepartingBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("Bookings between connection searches update seats without reloading the graph")
+    void bookingsDoNotReloadConnectionGraph() {
+        LocalDate travel = LocalDate.now().plusDays(10);
+        FlightInventory first = leg(1L, "DELHI", "MUMBAI", travel, 8, 3000.0);
+        AtomicInteger seatsLeft = new AtomicInteger(10);
+
+        when(inventoryRepository.findFlightsDepartingBetween(any(), any()))
+                .thenReturn(connectingFlights(travel));
+        when(inventoryRepository.findAvailableSeats(1L)).thenAnswer(invocation -> Optional.of(seatsLeft.get()));
+
+        for (int booked = 0; booked < 10; booked++) {
+            List<Itinerary> itineraries = flightSearchService.searchConnections(
+                    connectionRequest(travel, 1, ItinerarySort.DURATION));
+            assertEquals(10 - booked, itineraries.get(0).legs().get(0).availableSeats());
+
+            // a booking takes the in-memory hold and the row, then publishes the change
+            availabilityStore.tryReserve(1L, 1);
+            seatsLeft.decrementAndGet();
+            connectionGraph.onInventoryChanged(new FlightInventoryChangedEvent(first));
+        }
+
+        // flight 1 is sold out, the only one stop itinerary went with it
+        assertThrows(ResourceNotFoundException.class, () -> flightSearchService.searchConnections(
+                connectionRequest(travel, 1, ItinerarySort.DURATION)));
+        verify(inventoryRepository, times(1)).findFlightsDepartingBetween(any(), any());
+        verify(inventoryRepository, times(10)).findAvailableSeats(1L);
+    }
+
+    @Test
+    @DisplayName("Connection search rejects more than two stops")
+    void connectionsRejectTooManyStops() {
+        FlightSearchRequest req = connectionRequest(LocalDate.now().plusDays(10), 3, ItinerarySort.DURATION);
+
+        assertThrows(ValidationException.class, () -> flightSearchService.searchConnections(req));
+    }
+}
@@ -3,7 +3,6 @@ import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 import com.flightapp.exceptions.GlobalErrorHandler;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.exceptions.ValidationException;
-import com.flightapp.model.CityEnum;
 import com.flightapp.model.MealType;
 import com.flightapp.model.TripType;
 
@@ -42,18 +41,6 @@ class GlobalErrorHandlerTest {
     }
 
    
-    @Test
-    @DisplayName("Tests for invalid city")
-    void testInvalidCityEnum() {
-        InvalidFormatException cause = new InvalidFormatException(null, "bad city", "X", CityEnum.class);
-        HttpMessageNotReadableException ex = new HttpMessageNotReadableException("JSON error", cause);
-
-        Map<String, String> response = handler.handleInvalidJson(ex);
-
-        assertTrue(response.get("error").contains("Invalid city"));
-    }
-
-    
     @Test
     @DisplayName("Test for invalid tripType")
     void testInvalidTripType() {
@@ -0,0 +1,73 @@
+package com.flightapp;
+
+import com.flightapp.service.HoldExpiryWheel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoldExpiryWheelTests {
+
+    private static final long START = 1_000_000;
+
+    @Test
+    @DisplayName("A hold expires on the first tick at or after its expiry, never before")
+    void expiresOnDueTick() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1000, 8, START);
+        wheel.schedule("K7Q2ZX", START + 2500);
+
+        assertEquals(List.of(), wheel.advance(START + 2999));
+        assertEquals(List.of("K7Q2ZX"), wheel.advance(START + 3000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Holds further out than one turn of the wheel wait out their remaining turns")
+    void holdsBeyondOneTurn() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1000, 4, START);
+        wheel.schedule("LATE", START + 10_000);
+        wheel.schedule("SOON", START + 2_000);
+
+        assertEquals(List.of("SOON"), wheel.advance(START + 9_000));
+        assertEquals(List.of("LATE"), wheel.advance(START + 10_000));
+    }
+
+    @Test
+    @DisplayName("A late tick catches up, expiring everything due since the last one in order")
+    void lateTickCatchesUp() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1000, 16, START);
+        wheel.schedule("C", START + 3_000);
+        wheel.schedule("A", START + 1_000);
+        wheel.schedule("B", START + 2_000);
+
+        assertEquals(List.of("A", "B", "C"), wheel.advance(START + 60_000));
+    }
+
+    @Test
+    @DisplayName("Cancelled holds never expire, rescheduling replaces the earlier timer")
+    void cancelAndReschedule() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1000, 8, START);
+        wheel.schedule("PAID", START + 1_000);
+        wheel.schedule("MOVED", START + 1_000);
+        wheel.schedule("MOVED", START + 5_000);
+
+        assertTrue(wheel.cancel("PAID"));
+        assertFalse(wheel.cancel("PAID"));
+        assertEquals(List.of(), wheel.advance(START + 4_000));
+        assertEquals(List.of("MOVED"), wheel.advance(START + 5_000));
+    }
+
+    @Test
+    @DisplayName("A hold that is already due expires on the next tick")
+    void alreadyDue() {
+        HoldExpiryWheel wheel = new HoldExpiryWheel(1000, 8, START);
+        wheel.advance(START + 5_000);
+        wheel.schedule("STALE", START);
+
+        assertEquals(List.of("STALE"), wheel.advance(START + 6_000));
+    }
+}
@@ -0,0 +1,299 @@
+package com.flightapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.event.FlightInventoryChangedEvent;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.Airline;
+import com.flightapp.repository.AirlineRepository;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.FlightKey;
+import com.flightapp.response.BulkInventoryResult;
+import com.flightapp.service.AirlineRegistry;
+import com.flightapp.service.CityRegistry;
+import com.flightapp.service.FlightInventoryService;
+import com.flightapp.service.InventoryBulkLoader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryBulkLoaderTests {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(10);
+
+    private static final String HEADER = "airlineId,flightNumber,sourceCity,destinationCity,departureDate,"
+            + "departureTime,arrivalDate,arrivalTime,mealAvailable,totalSeats,price\n";
+
+    @Mock
+    private AirlineRepository airlineRepository;
+
+    @Mock
+    private FlightInventoryRepository inventoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private CityRegistry cityRegistry = TestCities.registry();
+
+    @InjectMocks
+    private FlightInventoryService inventoryService;
+
+    private InventoryBulkLoader loader(int chunkSize) {
+        AirlineRegistry airlineRegistry = new AirlineRegistry(airlineRepository, 10_000,
+                Clock.fixed(Instant.parse("2030-01-01T10:00:00Z"), ZoneOffset.UTC));
+        return new InventoryBulkLoader(inventoryService, airlineRegistry, cityRegistry, inventoryRepository,
+                jdbcTemplate, transactionManager, eventPublisher, new ObjectMapper().findAndRegisterModules(),
+                chunkSize);
+    }
+
+    private static Airline airline(long id) {
+        Airline airline = new Airline();
+        airline.setAirlineId(id);
+        airline.setAirlineCode("A" + id);
+        return airline;
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csvRow(String flightNumber, String from, String to, String seats) {
+        return "1," + flightNumber + "," + from + "," + to + "," + DATE + ",09:00," + DATE + ",11:00,true,"
+                + seats + ",4500\n";
+    }
+
+    private static String jsonRow(long airlineId, String flightNumber, String from, String to) {
+        return "{\"airlineId\":" + airlineId + ",\"flightNumber\":\"" + flightNumber + "\",\"sourceCity\":\"" + from
+                + "\",\"destinationCity\":\"" + to + "\",\"departureDate\":\"" + DATE
+                + "\",\"departureTime\":\"09:00\",\"arrivalDate\":\"" + DATE
+                + "\",\"arrivalTime\":\"11:00\",\"mealAvailable\":true,\"totalSeats\":180,\"price\":4500}";
+    }
+
+    private static FlightKey existing(String flightNumber) {
+        return new FlightKey() {
+            @Override
+            public String getFlightNumber() {
+                return flightNumber;
+            }
+
+            @Override
+            public LocalDate getDepartureDate() {
+                return DATE;
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Collection<?>> batches(int count) {
+        ArgumentCaptor<Collection> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(count)).batchUpdate(anyString(), rows.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        return (List) rows.getAllValues();
+    }
+
+    @Test
+    @DisplayName("CSV rows are validated, in-file duplicates rejected and the rest inserted as one batch")
+    void csvUpload() throws Exception {
+        when(airlineRepository.findAll()).thenReturn(List.of(airline(1)));
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection())).thenReturn(List.of());
+
+        BulkInventoryResult result = loader(100).loadCsv(body(HEADER
+                + csvRow("AI101", "DELHI", "MUMBAI", "180")
+                + csvRow("AI102", "DELHI", "DELHI", "180")
+                + csvRow("AI103", "DELHI", "ATLANTIS", "180")
+                + csvRow("AI104", "DELHI", "CHENNAI", "many")
+                + "\n"
+                + csvRow("AI101", "DELHI", "MUMBAI", "180")
+                + csvRow("AI105", "MUMBAI", "DELHI", "180")));
+
+        assertEquals(6, result.rows());
+        assertEquals(2, result.inserted());
+        assertEquals(4, result.rejected());
+        assertEquals("Source and destination cities cannot be the same", result.errors().get(0).message());
+        assertEquals("Invalid value for destinationCity: 'ATLANTIS'", result.errors().get(1).message());
+        assertEquals("Invalid value for totalSeats: 'many'", result.errors().get(2).message());
+        assertEquals(5, result.errors().get(3).row());
+        assertEquals("Duplicate of row 1 in this upload", result.errors().get(3).message());
+        assertEquals(2, batches(1).get(0).size());
+        // one event per route and day
+        verify(eventPublisher, times(2)).publishEvent(any(FlightInventoryChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("A CSV upload without the expected header is refused")
+    void csvHeaderRequired() {
+        assertThrows(ValidationException.class,
+                () -> loader(100).loadCsv(body("flightNumber,price\nAI101,4500\n")));
+    }
+
+    @Test
+    @DisplayName("Quoted CSV values are rejected instead of being split on their commas")
+    void quotedCsvValuesRejected() throws Exception {
+        when(airlineRepository.findAll()).thenReturn(List.of(airline(1)));
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection())).thenReturn(List.of());
+
+        BulkInventoryResult result = loader(100).loadCsv(body(HEADER
+                + csvRow("\"AI101,X\"", "DELHI", "MUMBAI", "180")
+                + csvRow("AI102", "DELHI", "MUMBAI", "180")));
+
+        assertEquals(1, result.inserted());
+        assertEquals(1, result.errors().get(0).row());
+        assertEquals("Quoted CSV values are not supported", result.errors().get(0).message());
+        assertThrows(ValidationException.class,
+                () -> loader(100).loadCsv(body("\"airlineId\"," + HEADER.substring("airlineId,".length()))));
+    }
+
+    @Test
+    @DisplayName("A duplicate in a later chunk is caught by the existing-key check")
+    void duplicateAcrossChunksCheckedAgainstDatabase() throws Exception {
+        when(airlineRepository.findAll()).thenReturn(List.of(airline(1)));
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(existing("AI101")));
+
+        BulkInventoryResult result = loader(2).loadCsv(body(HEADER
+                + csvRow("AI101", "DELHI", "MUMBAI", "180")
+                + csvRow("AI102", "DELHI", "MUMBAI", "180")
+                + csvRow("AI101", "DELHI", "MUMBAI", "180")));
+
+        assertEquals(2, result.inserted());
+        assertEquals(3, result.errors().get(0).row());
+        assertEquals("A flight with this number is already scheduled for the same date",
+                result.errors().get(0).message());
+    }
+
+    @Test
+    @DisplayName("JSON rows for unknown airlines or flights already scheduled are rejected")
+    void jsonUploadChecksDatabase() throws Exception {
+        when(airlineRepository.findAll()).thenReturn(List.of(airline(1)));
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection()))
+                .thenReturn(List.of(existing("AI102")));
+
+        BulkInventoryResult result = loader(100).loadJson(body("["
+                + jsonRow(1, "AI101", "DELHI", "MUMBAI") + ","
+                + jsonRow(1, "AI102", "DELHI", "MUMBAI") + ","
+                + jsonRow(9, "ZZ103", "DELHI", "MUMBAI") + ","
+                + "{\"airlineId\":\"one\"}]"));
+
+        assertEquals(4, result.rows());
+        assertEquals(1, result.inserted());
+        assertEquals(3, result.rejected());
+        assertTrue(result.errors().get(0).message().startsWith("Invalid flight"));
+        assertEquals("AI102", result.errors().get(1).flightNumber());
+        assertEquals("A flight with this number is already scheduled for the same date",
+                result.errors().get(1).message());
+        assertEquals("Airline not found", result.errors().get(2).message());
+        assertEquals(1, batches(1).get(0).size());
+    }
+
+    @Test
+    @DisplayName("Airlines come from the registry, not from a query per chunk")
+    void airlinesFromRegistry() throws Exception {
+        when(airlineRepository.findAll()).thenReturn(List.of(airline(1)));
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection())).thenReturn(List.of());
+
+        BulkInventoryResult result = loader(2).loadJson(body("["
+                + jsonRow(1, "AI101", "DELHI", "MUMBAI") + ","
+                + jsonRow(1, "AI102", "DELHI", "MUMBAI") + ","
+                + jsonRow(1, "AI103", "DELHI", "MUMBAI") + ","
+                + jsonRow(1, "AI104", "DELHI", "MUMBAI") + ","
+                + jsonRow(1, "AI105", "DELHI", "MUMBAI") + "]"));
+
+        assertEquals(5, result.inserted());
+        assertEquals(List.of(2, 2, 1), batches(3).stream().map(Collection::size).toList());
+        verify(airlineRepository).findAll();
+        verify(inventoryRepository, times(3)).findExistingKeys(anyCollection(), anyCollection());
+    }
+
+    @Test
+    @DisplayName("A batch that hits a conflict is retried row by row and only the clashing row is rejected")
+    void batchConflictFallsBackToSingleInserts() throws Exception {
+        when(airlineRepository.findAll()).thenReturn(List.of(airline(1)));
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("uk_flight_number_date"));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenReturn(1)
+                .thenThrow(new DuplicateKeyException("uk_flight_number_date"));
+
+        BulkInventoryResult result = loader(100).loadJson(body("["
+                + jsonRow(1, "AI101", "DELHI", "MUMBAI") + ","
+                + jsonRow(1, "AI102", "MUMBAI", "DELHI") + "]"));
+
+        assertEquals(1, result.inserted());
+        assertEquals(1, result.rejected());
+        assertEquals("AI102", result.errors().get(0).flightNumber());
+        // only the route that actually got a flight is invalidated
+        verify(eventPublisher).publishEvent(any(FlightInventoryChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Malformed JSON keeps the rows read before it and reports the rest as unread")
+    void malformedJsonStopsTheRead() throws Exception {
+        when(airlineRepository.findAll()).thenReturn(List.of(airline(1)));
+        when(inventoryRepository.findExistingKeys(anyCollection(), anyCollection())).thenReturn(List.of());
+
+        BulkInventoryResult result = loader(100).loadJson(body("["
+                + jsonRow(1, "AI101", "DELHI", "MUMBAI") + ",{\"flightNumber\": "));
+
+        assertEquals(1, result.inserted());
+        assertEquals(1, result.rejected());
+        assertNull(result.errors().get(0).flightNumber());
+        assertTrue(result.errors().get(0).message().startsWith("Malformed JSON"));
+    }
+
+    @Test
+    @DisplayName("Uploads with nothing valid never touch the database")
+    void nothingValidNoQueries() throws Exception {
+        BulkInventoryResult result = loader(100).loadCsv(body(HEADER
+                + csvRow("AI101", "DELHI", "DELHI", "180")));
+
+        assertEquals(1, result.rejected());
+        verify(airlineRepository, never()).findAll();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+}
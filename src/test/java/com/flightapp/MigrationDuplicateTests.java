@@ -0,0 +1,114 @@
+package com.flightapp;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// a database baselined at version 1 runs V2 against whatever the old code wrote. seeds the
+// duplicates V2's unique keys would trip over and checks the migration names them. needs the
+// same scratch MySQL schema as QueryPlanIndexTests and cleans it
+@EnabledIfEnvironmentVariable(named = "PLAN_TEST_DB_URL", matches = ".+")
+class MigrationDuplicateTests {
+
+    private final String url = System.getenv("PLAN_TEST_DB_URL");
+    private final String user = System.getenv().getOrDefault("PLAN_TEST_DB_USER", "root");
+    private final String password = System.getenv().getOrDefault("PLAN_TEST_DB_PASSWORD", "");
+
+    private Connection connection;
+
+    @BeforeEach
+    void migrateToBaseline() throws SQLException {
+        Flyway.configure().dataSource(url, user, password).cleanDisabled(false).load().clean();
+        flyway().target("1").load().migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO airline (airlineCode, airlineName) VALUES ('MD', 'Migration Test')");
+            st.executeUpdate("INSERT INTO flight_inventory (airline_id, flight_number, source_city, "
+                    + "destination_city, departure_date, departure_time, arrival_date, arrival_time, "
+                    + "meal_available, total_seats, available_seats, price) VALUES "
+                    + "((SELECT airlineId FROM airline), 'MD1', 'DELHI', 'MUMBAI', '2030-01-01', '09:00', "
+                    + "'2030-01-01', '11:00', 0, 180, 180, 4000)");
+        }
+    }
+
+    @AfterEach
+    void close() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private FluentConfiguration flyway() {
+        return Flyway.configure().dataSource(url, user, password);
+    }
+
+    private void insertBooking(String pnrOutbound, String pnrReturn) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO booking (tripType, outbound_flight_id, pnrOutbound, pnrReturn, "
+                    + "contactName, contactEmail, totalPassengers, status) VALUES ('ONE_WAY', "
+                    + "(SELECT MIN(flightId) FROM flight_inventory), '" + pnrOutbound + "', "
+                    + (pnrReturn == null ? "NULL" : "'" + pnrReturn + "'")
+                    + ", 'Migration', 'm@example.com', 1, 'CONFIRMED')");
+        }
+    }
+
+    @Test
+    @DisplayName("V2 names duplicate flight numbers on a date instead of failing on the unique key")
+    void duplicateFlightsStopTheMigration() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO flight_inventory (airline_id, flight_number, source_city, "
+                    + "destination_city, departure_date, departure_time, arrival_date, arrival_time, "
+                    + "meal_available, total_seats, available_seats, price) SELECT airline_id, flight_number, "
+                    + "source_city, destination_city, departure_date, departure_time, arrival_date, "
+                    + "arrival_time, meal_available, total_seats, available_seats, price FROM flight_inventory");
+        }
+
+        FlywayException e = assertThrows(FlywayException.class, () -> flyway().load().migrate());
+        assertTrue(e.getMessage().contains("Duplicate flight_inventory flight number and date: MD1 2030-01-01"),
+                e.getMessage());
+    }
+
+    @Test
+    @DisplayName("V2 names duplicate PNRs, one way bookings without a return PNR are not duplicates")
+    void duplicatePnrsStopTheMigration() throws SQLException {
+        insertBooking("A1B2C3", null);
+        insertBooking("D4E5F6", null);
+        insertBooking("A1B2C3", null);
+
+        FlywayException e = assertThrows(FlywayException.class, () -> flyway().load().migrate());
+        assertTrue(e.getMessage().contains("Duplicate booking pnrOutbound: A1B2C3"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Once the duplicates are fixed, repair and migrate go through")
+    void migratesAfterDuplicatesAreFixed() throws SQLException {
+        insertBooking("A1B2C3", "R1R2R3");
+        insertBooking("D4E5F6", "R1R2R3");
+        assertThrows(FlywayException.class, () -> flyway().load().migrate());
+
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("UPDATE booking SET pnrReturn = 'R9R9R9' WHERE pnrOutbound = 'D4E5F6'");
+        }
+        flyway().load().repair();
+        flyway().load().migrate();
+
+        try (Statement st = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> st.executeUpdate(
+                    "UPDATE booking SET pnrReturn = 'R1R2R3' WHERE pnrOutbound = 'D4E5F6'"));
+        }
+    }
+}
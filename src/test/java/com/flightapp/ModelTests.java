@@ -82,9 +82,15 @@ class ModelTests {
 
     
     @Test
-    void testCityEnum() {
-        assertNotNull(CityEnum.valueOf("DELHI"));
-        assertEquals(5, CityEnum.values().length); 
+    void testCity() {
+        City city = new City();
+        city.setCityId(1L);
+        city.setCityCode("DELHI");
+        city.setCityName("Delhi");
+
+        assertEquals(1L, city.getCityId());
+        assertEquals("DELHI", city.getCityCode());
+        assertEquals("Delhi", city.getCityName());
     }
 
     @Test
@@ -0,0 +1,217 @@
+package com.flightapp;
+
+import com.flightapp.model.PnrSequence;
+import com.flightapp.repository.PnrSequenceRepository;
+import com.flightapp.service.PnrGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PnrGeneratorTests {
+
+    @Mock
+    private PnrSequenceRepository sequenceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // stands in for the pnr_sequence row, advanced the same way the conditional UPDATE does
+    private final AtomicLong nextValue = new AtomicLong();
+
+    // stands in for the row lock, taken by the locking read and released at commit
+    private final ReentrantLock rowLock = new ReentrantLock();
+
+    private static Optional<PnrSequence> row(long nextValue) {
+        PnrSequence row = new PnrSequence();
+        row.setName("booking");
+        row.setNextValue(nextValue);
+        return Optional.of(row);
+    }
+
+    private void backSequenceWithCounter() {
+        when(sequenceRepository.lockByName("booking")).thenAnswer(invocation -> {
+            rowLock.lock();
+            return row(nextValue.get());
+        });
+        when(sequenceRepository.advance(eq("booking"), anyLong(), anyLong()))
+                .thenAnswer(invocation -> nextValue.compareAndSet(
+                        invocation.getArgument(1), invocation.getArgument(2)) ? 1 : 0);
+        doAnswer(invocation -> {
+            rowLock.unlock();
+            return null;
+        }).when(transactionManager).commit(any());
+    }
+
+    private PnrGenerator generator(int blockSize) {
+        return new PnrGenerator(sequenceRepository, transactionManager, Runnable::run, blockSize);
+    }
+
+    @Test
+    @DisplayName("PNRs are six base-36 characters and never repeat across blocks")
+    void pnrsAreBase36AndUnique() {
+        backSequenceWithCounter();
+        PnrGenerator generator = generator(100);
+
+        Set<String> seen = new HashSet<>();
+        boolean hasLetterBeyondHex = false;
+        for (int i = 0; i < 5000; i++) {
+            String pnr = generator.next();
+            assertTrue(pnr.matches("[0-9A-Z]{6}"), pnr);
+            assertTrue(seen.add(pnr), "duplicate " + pnr);
+            hasLetterBeyondHex |= pnr.matches(".*[G-Z].*");
+        }
+        assertTrue(hasLetterBeyondHex);
+    }
+
+    @Test
+    @DisplayName("PNRs never look like codes from the old hex generator")
+    void pnrsAreNeverHexOnly() {
+        backSequenceWithCounter();
+        PnrGenerator generator = generator(1000);
+
+        for (int i = 0; i < 20000; i++) {
+            assertFalse(generator.next().matches("[0-9A-F]{6}"));
+        }
+    }
+
+    @Test
+    @DisplayName("A block is reserved only when the previous one is mostly used up")
+    void reservesOneBlockPerBlockSize() {
+        backSequenceWithCounter();
+        PnrGenerator generator = generator(50);
+
+        for (int i = 0; i < 120; i++) {
+            generator.next();
+        }
+
+        // hex-only codes are skipped, so a few sequence numbers more than 120 are used
+        verify(sequenceRepository, times(3)).advance(eq("booking"), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("A block is read under the row lock and advanced in a transaction of its own")
+    void reservesBlockInOwnTransaction() {
+        when(sequenceRepository.lockByName("booking")).thenReturn(row(10L));
+        when(sequenceRepository.advance("booking", 10L, 20L)).thenReturn(1);
+
+        generator(10).next();
+
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("The next block is reserved ahead on the refill executor, not by the booking that needs it")
+    void nextBlockReservedAhead() {
+        backSequenceWithCounter();
+        Deque<Runnable> refills = new ArrayDeque<>();
+        AtomicInteger onRequestThread = new AtomicInteger();
+        boolean[] refilling = {false};
+        when(sequenceRepository.lockByName("booking")).thenAnswer(invocation -> {
+            rowLock.lock();
+            if (!refilling[0]) {
+                onRequestThread.incrementAndGet();
+            }
+            return row(nextValue.get());
+        });
+        PnrGenerator generator = new PnrGenerator(sequenceRepository, transactionManager, refills::add, 10);
+
+        for (int i = 0; i < 100; i++) {
+            generator.next();
+            refilling[0] = true;
+            while (!refills.isEmpty()) {
+                refills.poll().run();
+            }
+            refilling[0] = false;
+        }
+
+        // only the very first block, before anything was reserved ahead
+        assertEquals(1, onRequestThread.get());
+        assertTrue(nextValue.get() >= 100);
+    }
+
+    @Test
+    @DisplayName("A block reserved at startup is used by the first booking")
+    void blockReservedAtStartup() {
+        backSequenceWithCounter();
+        Deque<Runnable> refills = new ArrayDeque<>();
+        PnrGenerator generator = new PnrGenerator(sequenceRepository, transactionManager, refills::add, 10);
+
+        generator.reserveAhead();
+        assertEquals(1, refills.size());
+        refills.poll().run();
+        generator.next();
+
+        verify(sequenceRepository, times(1)).advance(eq("booking"), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Missing sequence row fails loudly")
+    void missingSequenceRowFails() {
+        when(sequenceRepository.lockByName("booking")).thenReturn(Optional.empty());
+
+        PnrGenerator generator = generator(10);
+
+        assertThrows(IllegalStateException.class, generator::next);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    @DisplayName("Two instances sharing the sequence hand out unique PNRs from parallel threads")
+    void parallelInstancesStayUnique() throws InterruptedException {
+        backSequenceWithCounter();
+        ExecutorService refills = Executors.newSingleThreadExecutor();
+        PnrGenerator first = new PnrGenerator(sequenceRepository, transactionManager, refills, 64);
+        PnrGenerator second = new PnrGenerator(sequenceRepository, transactionManager, refills, 64);
+
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            PnrGenerator generator = t % 2 == 0 ? first : second;
+            pool.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    seen.add(generator.next());
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        refills.shutdown();
+
+        assertEquals(16000, seen.size());
+    }
+}
@@ -0,0 +1,157 @@
+package com.flightapp;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// runs the migrations against a scratch MySQL schema and checks that every finder query is
+// planned on its index. only runs when PLAN_TEST_DB_URL points at such a schema, e.g.
+// PLAN_TEST_DB_URL=jdbc:mysql://localhost:3306/flight_plan_test PLAN_TEST_DB_USER=root mvn test
+@EnabledIfEnvironmentVariable(named = "PLAN_TEST_DB_URL", matches = ".+")
+class QueryPlanIndexTests {
+
+    private static final String[] CITIES = {"DELHI", "MUMBAI", "CHENNAI", "BANGALORE", "KOLKATA"};
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 1);
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        String url = System.getenv("PLAN_TEST_DB_URL");
+        String user = System.getenv().getOrDefault("PLAN_TEST_DB_USER", "root");
+        String password = System.getenv().getOrDefault("PLAN_TEST_DB_PASSWORD", "");
+
+        Flyway.configure().dataSource(url, user, password).cleanDisabled(false).load().clean();
+        Flyway.configure().dataSource(url, user, password).load().migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO airline (airlineCode, airlineName) VALUES ('PT', 'Plan Test')");
+        }
+
+        // enough rows per route and day that a full scan is never the cheaper plan
+        try (PreparedStatement flight = connection.prepareStatement(
+                "INSERT INTO flight_inventory (airline_id, flight_number, source_city, destination_city, "
+                        + "departure_date, departure_time, arrival_date, arrival_time, meal_available, "
+                        + "total_seats, available_seats, price) "
+                        + "VALUES ((SELECT airlineId FROM airline WHERE airlineCode = 'PT'), ?, ?, ?, ?, "
+                        + "'09:00', ?, '11:00', 0, 180, 180, 4000)")) {
+            int n = 0;
+            for (String source : CITIES) {
+                for (String destination : CITIES) {
+                    if (source.equals(destination)) {
+                        continue;
+                    }
+                    for (int d = 0; d < 30; d++) {
+                        LocalDate date = DAY.plusDays(d);
+                        flight.setString(1, "PT" + (n++));
+                        flight.setString(2, source);
+                        flight.setString(3, destination);
+                        flight.setObject(4, date);
+                        flight.setObject(5, date);
+                        flight.addBatch();
+                    }
+                }
+            }
+            flight.executeBatch();
+        }
+
+        try (PreparedStatement booking = connection.prepareStatement(
+                "INSERT INTO booking (tripType, outbound_flight_id, pnrOutbound, pnrReturn, contactName, "
+                        + "contactEmail, totalPassengers, status) "
+                        + "VALUES ('ONE_WAY', (SELECT MIN(flightId) FROM flight_inventory), ?, ?, 'Plan', ?, 1, 'CONFIRMED')")) {
+            for (int i = 0; i < 2000; i++) {
+                booking.setString(1, "OUT" + i);
+                booking.setString(2, i % 2 == 0 ? "RET" + i : null);
+                booking.setString(3, "user" + (i % 200) + "@example.com");
+                booking.addBatch();
+            }
+            booking.executeBatch();
+        }
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("ANALYZE TABLE flight_inventory, booking");
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private String plannedKey(String sql) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            assertTrue(rs.next());
+            return rs.getString("key");
+        }
+    }
+
+    @Test
+    @DisplayName("Route search uses the route and date index")
+    void routeSearchUsesRouteIndex() throws SQLException {
+        assertEquals("idx_flight_route_date", plannedKey(
+                "SELECT * FROM flight_inventory WHERE source_city = 'DELHI' "
+                        + "AND destination_city = 'MUMBAI' AND departure_date = '2030-01-05'"));
+    }
+
+    @Test
+    @DisplayName("Flexible date range search uses the route and date index")
+    void rangeSearchUsesRouteIndex() throws SQLException {
+        assertEquals("idx_flight_route_date", plannedKey(
+                "SELECT * FROM flight_inventory WHERE source_city = 'DELHI' "
+                        + "AND destination_city = 'MUMBAI' AND departure_date BETWEEN '2030-01-02' AND '2030-01-08'"));
+    }
+
+    @Test
+    @DisplayName("Duplicate flight check uses the flight number and date constraint")
+    void duplicateFlightCheckUsesUniqueKey() throws SQLException {
+        assertEquals("uk_flight_number_date", plannedKey(
+                "SELECT flightId FROM flight_inventory WHERE flight_number = 'PT7' AND departure_date = '2030-01-08'"));
+    }
+
+    @Test
+    @DisplayName("Ticket lookup by outbound PNR uses its unique key")
+    void outboundPnrLookupUsesUniqueKey() throws SQLException {
+        assertEquals("uk_booking_pnr_outbound", plannedKey(
+                "SELECT * FROM booking WHERE pnrOutbound = 'OUT42'"));
+    }
+
+    @Test
+    @DisplayName("Ticket lookup by return PNR uses its unique key")
+    void returnPnrLookupUsesUniqueKey() throws SQLException {
+        assertEquals("uk_booking_pnr_return", plannedKey(
+                "SELECT * FROM booking WHERE pnrReturn = 'RET42'"));
+    }
+
+    @Test
+    @DisplayName("Ticket lookup by either PNR merges both unique keys")
+    void eitherPnrLookupMergesUniqueKeys() throws SQLException {
+        assertEquals("uk_booking_pnr_outbound,uk_booking_pnr_return", plannedKey(
+                "SELECT * FROM booking WHERE pnrOutbound = 'RET42' OR pnrReturn = 'RET42'"));
+    }
+
+    @Test
+    @DisplayName("Keyset history page uses the contact email index")
+    void historyPageUsesEmailIndex() throws SQLException {
+        assertEquals("idx_booking_contact_email", plannedKey(
+                "SELECT * FROM booking WHERE contactEmail = 'user7@example.com' AND bookingId < 1500 "
+                        + "ORDER BY bookingId DESC LIMIT 21"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.flightapp;
+
+import com.flightapp.config.ReadYourWrites;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesTests {
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T10:00:00Z");
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    @DisplayName("A written key stays on the primary only for the configured window")
+    void windowExpires() {
+        MutableClock clock = new MutableClock();
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), clock);
+
+        readYourWrites.recordWrite("K7Q2ZX", "user@example.com");
+        clock.advance(Duration.ofSeconds(4));
+
+        assertTrue(readYourWrites.recentlyWritten("K7Q2ZX"));
+        assertTrue(readYourWrites.recentlyWritten("user@example.com"));
+
+        clock.advance(Duration.ofSeconds(1));
+
+        assertFalse(readYourWrites.recentlyWritten("K7Q2ZX"));
+    }
+
+    @Test
+    @DisplayName("Emails match regardless of case and surrounding spaces")
+    void keysAreNormalised() {
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), new MutableClock());
+
+        readYourWrites.recordWrite("User@Example.com ");
+
+        assertTrue(readYourWrites.recentlyWritten("user@example.com"));
+        assertFalse(readYourWrites.recentlyWritten(null));
+    }
+
+    @Test
+    @DisplayName("Expired keys are purged")
+    void purgeDropsExpiredKeys() {
+        MutableClock clock = new MutableClock();
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), clock);
+
+        readYourWrites.recordWrite("K7Q2ZX");
+        clock.advance(Duration.ofSeconds(10));
+        readYourWrites.purge();
+        clock.advance(Duration.ofSeconds(-10));
+
+        assertFalse(readYourWrites.recentlyWritten("K7Q2ZX"));
+    }
+}
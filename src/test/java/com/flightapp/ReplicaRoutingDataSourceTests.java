@@ -0,0 +1,109 @@
+package com.flightapp;
+
+import com.flightapp.config.ReadYourWrites;
+import com.flightapp.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// two in-memory H2 databases stand in for the primary and a replica, each knows its own name
+class ReplicaRoutingDataSourceTests {
+
+    private static final String NODE = "SELECT name FROM node";
+
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(database("primary"), List.of(database("replica")));
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        routing.close();
+    }
+
+    private String node() {
+        return jdbc.queryForObject(NODE, String.class);
+    }
+
+    @Test
+    @DisplayName("Read-only transactions are served by the replica")
+    void readOnlyGoesToReplica() {
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    @DisplayName("Read-write transactions and plain statements stay on the primary")
+    void writesStayOnPrimary() {
+        assertEquals("primary", readWrite.execute(status -> node()));
+        assertEquals("primary", node());
+    }
+
+    @Test
+    @DisplayName("Reads right after a write by the same key go to the primary")
+    void recentWriteReadsPrimary() {
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), Clock.systemUTC());
+        readYourWrites.recordWrite("K7Q2ZX");
+
+        assertEquals("primary", readOnly.execute(status -> readYourWrites.read("K7Q2ZX", this::node)));
+        assertEquals("replica", readOnly.execute(status -> readYourWrites.read("ABC123", this::node)));
+    }
+
+    @Test
+    @DisplayName("A lagging replica leaves the rotation and rejoins once it catches up")
+    void laggingReplicaFallsBackToPrimary() {
+        routing.checkLag("SELECT 30", 5);
+
+        assertFalse(routing.isHealthy(0));
+        assertEquals("primary", readOnly.execute(status -> node()));
+
+        routing.checkLag("SELECT 1", 5);
+
+        assertTrue(routing.isHealthy(0));
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    @DisplayName("A replica that cannot answer the lag query is treated as lagging")
+    void brokenLagQueryFallsBackToPrimary() {
+        routing.checkLag("SELECT seconds FROM missing_heartbeat", 5);
+
+        assertEquals("primary", readOnly.execute(status -> node()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.flightapp;
+
+import com.flightapp.service.SeatAvailabilityStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeatAvailabilityStoreTests {
+
+    private final SeatAvailabilityStore store = new SeatAvailabilityStore();
+
+    @Test
+    @DisplayName("Unknown flights are passed through to the database")
+    void unknownFlightIsNotRejected() {
+        assertEquals(-1, store.available(42L));
+        assertTrue(store.hasSeats(42L, 10));
+        assertTrue(store.tryReserve(42L, 10));
+    }
+
+    @Test
+    @DisplayName("Reserve and release seats on a tracked flight")
+    void reserveAndReleaseSeats() {
+        store.track(1L, 3);
+
+        assertTrue(store.tryReserve(1L, 2));
+        assertFalse(store.tryReserve(1L, 2));
+        assertFalse(store.hasSeats(1L, 2));
+
+        store.release(1L, 2);
+        assertEquals(3, store.available(1L));
+    }
+
+    @Test
+    @DisplayName("Tracking an already known flight keeps the live counter")
+    void trackDoesNotOverwrite() {
+        store.track(1L, 10);
+        store.tryReserve(1L, 4);
+        store.track(1L, 10);
+
+        assertEquals(6, store.available(1L));
+    }
+
+    @Test
+    @DisplayName("Reconciliation replaces counters and drops flights that left the snapshot")
+    void replaceAllResyncsCounters() {
+        store.track(1L, 10);
+        store.track(2L, 10);
+
+        store.replaceAll(Map.of(1L, 7, 3L, 5));
+
+        assertEquals(7, store.available(1L));
+        assertEquals(-1, store.available(2L));
+        assertEquals(5, store.available(3L));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Parallel holds never take more seats than the counter had")
+    void parallelReservationsNeverOversell() throws InterruptedException {
+        store.track(1L, 300);
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        for (int i = 0; i < 10_000; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    if (store.tryReserve(1L, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(300, reserved.get());
+        assertEquals(0, store.available(1L));
+    }
+}
@@ -0,0 +1,164 @@
+package com.flightapp;
+
+import com.flightapp.model.Booking;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.repository.BookingRepository;
+import com.flightapp.repository.HoldDeadline;
+import com.flightapp.request.BookingRequest;
+import com.flightapp.response.HoldDetails;
+import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatHoldService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldServiceTests {
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T10:00:00Z");
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final MutableClock clock = new MutableClock();
+
+    private SeatHoldService service(int batchSize) {
+        return new SeatHoldService(bookingService, bookingRepository, TTL, 1000, 64, batchSize, clock);
+    }
+
+    private static Booking held(String pnr) {
+        Booking booking = new Booking();
+        booking.setPnrOutbound(pnr);
+        booking.setStatus(BookingStatus.HELD);
+        booking.setOutboundFlight(new FlightInventory());
+        return booking;
+    }
+
+    @Test
+    @DisplayName("Holds run out after the TTL and are expired in batches")
+    void holdsExpireInBatches() {
+        SeatHoldService service = service(2);
+        Instant expiresAt = clock.instant().plus(TTL);
+        when(bookingService.holdFlight(eq(10L), any(BookingRequest.class), eq(expiresAt)))
+                .thenReturn(held("A"), held("B"), held("C"));
+        when(bookingService.expireHolds(anyList())).thenReturn(2, 1);
+
+        HoldDetails hold = service.hold(10L, new BookingRequest());
+        service.hold(10L, new BookingRequest());
+        service.hold(10L, new BookingRequest());
+
+        assertEquals(expiresAt, hold.expiresAt());
+        clock.advance(TTL.minusSeconds(1));
+        service.expireDue();
+        verify(bookingService, never()).expireHolds(anyList());
+
+        clock.advance(Duration.ofSeconds(1));
+        service.expireDue();
+        verify(bookingService).expireHolds(List.of("A", "B"));
+        verify(bookingService).expireHolds(List.of("C"));
+        assertEquals(0, service.pending());
+    }
+
+    @Test
+    @DisplayName("A confirmed hold leaves the wheel and is never expired")
+    void confirmedHoldIsNotExpired() {
+        SeatHoldService service = service(10);
+        when(bookingService.holdFlight(eq(10L), any(BookingRequest.class), any(Instant.class)))
+                .thenReturn(held("PAID"));
+
+        service.hold(10L, new BookingRequest());
+        service.confirm("PAID");
+        clock.advance(TTL.plusMinutes(1));
+        service.expireDue();
+
+        verify(bookingService).confirmHold("PAID");
+        verify(bookingService, never()).expireHolds(anyList());
+    }
+
+    @Test
+    @DisplayName("Open holds are reloaded on startup and a failed batch does not stop the tick")
+    void reloadAndFailure() {
+        SeatHoldService service = service(10);
+        HoldDeadline deadline = new HoldDeadline() {
+            @Override
+            public String getPnr() {
+                return "OPEN";
+            }
+
+            @Override
+            public Instant getExpiresAt() {
+                return clock.instant().plusSeconds(30);
+            }
+        };
+        when(bookingRepository.findOpenHolds()).thenReturn(List.of(deadline));
+        when(bookingService.expireHolds(anyList())).thenThrow(new IllegalStateException("deadlock"));
+
+        service.loadOpenHolds();
+        clock.advance(Duration.ofSeconds(30));
+        service.expireDue();
+
+        verify(bookingService).expireHolds(List.of("OPEN"));
+        assertEquals(0, service.pending());
+    }
+
+    @Test
+    @DisplayName("The sweep keeps expiring full batches of overdue holds until none are left")
+    void sweepDrainsOverdueHolds() {
+        SeatHoldService service = service(2);
+        when(bookingRepository.findExpiredHolds(any(Instant.class), any(Pageable.class)))
+                .thenReturn(List.of("A", "B"), List.of("C"));
+        when(bookingService.expireHolds(anyList())).thenReturn(2, 1);
+
+        service.sweep();
+
+        verify(bookingRepository, times(2)).findExpiredHolds(any(Instant.class), any(Pageable.class));
+        verify(bookingService).expireHolds(List.of("C"));
+    }
+}
@@ -0,0 +1,211 @@
+package com.flightapp;
+
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.Seat;
+import com.flightapp.repository.SeatRepository;
+import com.flightapp.service.FlightSeatMap;
+import com.flightapp.service.SeatMapService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SeatMapServiceTests {
+
+    @Mock
+    private SeatRepository seatRepository;
+
+    @InjectMocks
+    private SeatMapService seatMapService;
+
+    private FlightInventory flight(long id, int totalSeats) {
+        FlightInventory flight = new FlightInventory();
+        flight.setFlightId(id);
+        flight.setTotalSeats(totalSeats);
+        return flight;
+    }
+
+    private Seat takenSeat(FlightInventory flight, String seatNo) {
+        Seat seat = new Seat();
+        seat.setFlight(flight);
+        seat.setSeatNo(seatNo);
+        seat.setAvailable(false);
+        return seat;
+    }
+
+    @Test
+    @DisplayName("Seat codes map to bit positions row by row")
+    void seatCodesMapToIndexes() {
+        FlightSeatMap map = new FlightSeatMap(300);
+
+        assertEquals(0, map.indexOf("1A"));
+        assertEquals(11, map.indexOf("2f"));
+        assertEquals(299, map.indexOf("50F"));
+        assertEquals(-1, map.indexOf("51A"));
+        assertEquals(-1, map.indexOf("A1"));
+        assertEquals(-1, map.indexOf("0A"));
+        assertEquals("50F", FlightSeatMap.seatNo(299));
+    }
+
+    @Test
+    @DisplayName("Assign free seats and persist them to seat_map")
+    void assignFreeSeats() {
+        FlightInventory flight = flight(1L, 300);
+        when(seatRepository.findByFlightFlightId(1L)).thenReturn(List.of());
+
+        seatMapService.assignSeats(flight, List.of("12A", "12B"));
+
+        assertTrue(seatMapService.isTaken(flight, "12A"));
+        assertTrue(seatMapService.isTaken(flight, "12B"));
+        assertFalse(seatMapService.isTaken(flight, "12C"));
+        verify(seatRepository).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Reject a seat that is already taken in seat_map")
+    void rejectSeatTakenInDatabase() {
+        FlightInventory flight = flight(1L, 300);
+        when(seatRepository.findByFlightFlightId(1L)).thenReturn(List.of(takenSeat(flight, "5C")));
+
+        assertThrows(ValidationException.class,
+                () -> seatMapService.assignSeats(flight, List.of("5B", "5C")));
+        assertFalse(seatMapService.isTaken(flight, "5B"));
+        verify(seatRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Reject the same seat twice in one booking")
+    void rejectDuplicateSeatInRequest() {
+        FlightInventory flight = flight(1L, 300);
+
+        assertThrows(ValidationException.class,
+                () -> seatMapService.validateSeatNumbers(flight, List.of("7A", "7a")));
+    }
+
+    @Test
+    @DisplayName("Reject seats outside the cabin")
+    void rejectSeatOutsideCabin() {
+        FlightInventory flight = flight(1L, 60);
+
+        assertThrows(ValidationException.class,
+                () -> seatMapService.validateSeatNumbers(flight, List.of("11A")));
+    }
+
+    @Test
+    @DisplayName("Released seats can be assigned again")
+    void releaseFreesSeats() {
+        FlightInventory flight = flight(1L, 300);
+        when(seatRepository.findByFlightFlightId(1L)).thenReturn(List.of(takenSeat(flight, "9D")));
+
+        seatMapService.releaseSeats(flight, List.of("9d"));
+
+        assertFalse(seatMapService.isTaken(flight, "9D"));
+        verify(seatRepository).deleteByFlightIdAndSeatNos(1L, List.of("9D"));
+    }
+
+    @Test
+    @DisplayName("Free seats are offered in cabin order without taking them")
+    void freeSeatsInCabinOrder() {
+        FlightInventory flight = flight(1L, 12);
+        when(seatRepository.findByFlightFlightId(1L)).thenReturn(List.of(
+                takenSeat(flight, "1A"), takenSeat(flight, "1C"), takenSeat(flight, "2A")));
+
+        assertEquals(List.of("1B", "1D", "1E"), seatMapService.freeSeats(flight, 3));
+        assertFalse(seatMapService.isTaken(flight, "1B"));
+        assertEquals(9, seatMapService.freeSeats(flight, 20).size());
+    }
+
+    @Test
+    @DisplayName("Parallel selections of the same seat have exactly one winner")
+    void parallelSelectionsOfSameSeat() throws InterruptedException {
+        FlightInventory flight = flight(1L, 300);
+        when(seatRepository.findByFlightFlightId(1L)).thenReturn(List.of());
+
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+
+        for (int i = 0; i < 2000; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    seatMapService.assignSeats(flight, List.of("1A", "1B"));
+                    winners.incrementAndGet();
+                } catch (ValidationException e) {
+                    // lost the race
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1, winners.get());
+    }
+
+    private void completeTransaction(int status) {
+        try {
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    sync.afterCommit();
+                }
+                sync.afterCompletion(status);
+            });
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Seats assigned in a rolled back transaction become free again")
+    void rolledBackAssignmentFreesSeats() {
+        FlightInventory flight = flight(1L, 300);
+        when(seatRepository.findByFlightFlightId(1L)).thenReturn(List.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        seatMapService.assignSeats(flight, List.of("4C"));
+        assertTrue(seatMapService.isTaken(flight, "4C"));
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertFalse(seatMapService.isTaken(flight, "4C"));
+    }
+
+    @Test
+    @DisplayName("Released seats stay taken until the cancellation commits")
+    void releaseWaitsForCommit() {
+        FlightInventory flight = flight(1L, 300);
+        when(seatRepository.findByFlightFlightId(1L)).thenReturn(List.of(takenSeat(flight, "4C")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        seatMapService.releaseSeats(flight, List.of("4C"));
+        assertTrue(seatMapService.isTaken(flight, "4C"));
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(seatMapService.isTaken(flight, "4C"));
+    }
+}
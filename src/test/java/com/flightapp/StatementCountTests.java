@@ -0,0 +1,284 @@
+package com.flightapp;
+
+import com.flightapp.model.Airline;
+import com.flightapp.model.Booking;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.Passenger;
+import com.flightapp.model.Seat;
+import com.flightapp.model.TripType;
+import com.flightapp.repository.AirlineRepository;
+import com.flightapp.repository.BookingRepository;
+import com.flightapp.repository.FlightFare;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.PassengerRepository;
+import com.flightapp.repository.SeatRepository;
+import com.flightapp.response.BookingSummary;
+import com.flightapp.response.FlightLeg;
+import com.flightapp.response.FlightSummary;
+import com.flightapp.service.AirlineRegistry;
+import com.flightapp.response.TicketDetails;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// caps the statements behind each endpoint: the read endpoints are one statement whatever the number
+// of rows or airlines, and the entity loads used by booking and cancellation fetch their associations
+// in the same select instead of one select per row (airlines on those loads come from the registry)
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class StatementCountTests {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AirlineRepository airlineRepository;
+
+    @Autowired
+    private FlightInventoryRepository inventoryRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PassengerRepository passengerRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    private Long outboundFlightId;
+    private Long bookingId;
+
+    private Statistics statistics;
+
+    private Airline airline(String code) {
+        Airline airline = new Airline();
+        airline.setAirlineCode(code);
+        airline.setAirlineName(code + " Airways");
+        return entityManager.persist(airline);
+    }
+
+    private FlightInventory flight(Airline airline, String number, String from, String to, LocalDate date) {
+        FlightInventory flight = new FlightInventory();
+        flight.setAirline(airline);
+        flight.setFlightNumber(number);
+        flight.setSourceCity(from);
+        flight.setDestinationCity(to);
+        flight.setDepartureDate(date);
+        flight.setDepartureTime(LocalTime.of(9, 0));
+        flight.setArrivalDate(date);
+        flight.setArrivalTime(LocalTime.of(11, 0));
+        flight.setTotalSeats(60);
+        flight.setAvailableSeats(60);
+        flight.setPrice(4000.0);
+        return entityManager.persist(flight);
+    }
+
+    private Booking booking(String pnr, FlightInventory outbound, FlightInventory returning) {
+        Booking booking = new Booking();
+        booking.setPnrOutbound(pnr);
+        booking.setOutboundFlight(outbound);
+        booking.setReturnFlight(returning);
+        booking.setTripType(returning == null ? TripType.ONE_WAY : TripType.ROUND_TRIP);
+        booking.setContactName("Test User");
+        booking.setContactEmail("user@example.com");
+        booking.setTotalPassengers(1);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        return entityManager.persist(booking);
+    }
+
+    private void passengerAndSeat(Booking booking, FlightInventory flight, String seatNo) {
+        Passenger passenger = new Passenger();
+        passenger.setBooking(booking);
+        passenger.setName("Passenger " + seatNo);
+        passenger.setAge(30);
+        passenger.setSeatOutbound(seatNo);
+        entityManager.persist(passenger);
+
+        Seat seat = new Seat();
+        seat.setFlight(flight);
+        seat.setSeatNo(seatNo);
+        entityManager.persist(seat);
+    }
+
+    @BeforeEach
+    void setUp() {
+        Airline first = airline("AA");
+        Airline second = airline("BB");
+        Airline third = airline("CC");
+
+        FlightInventory out1 = flight(first, "AA101", "DELHI", "MUMBAI", DAY);
+        FlightInventory out2 = flight(second, "BB101", "DELHI", "MUMBAI", DAY);
+        flight(third, "CC101", "DELHI", "MUMBAI", DAY.plusDays(1));
+        FlightInventory back = flight(third, "CC202", "MUMBAI", "DELHI", DAY.plusDays(3));
+
+        Booking roundTrip = booking("PNR001", out1, back);
+        roundTrip.setPnrReturn("RET001");
+        booking("PNR002", out2, null);
+        booking("PNR003", out1, null);
+        for (String seatNo : List.of("1A", "1B", "1C", "2A")) {
+            passengerAndSeat(roundTrip, out1, seatNo);
+        }
+        outboundFlightId = out1.getFlightId();
+        bookingId = roundTrip.getBookingId();
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Search reads flights and their airlines in one statement")
+    void searchIsOneStatement() {
+        List<FlightSummary> flights = inventoryRepository.findFlights("DELHI", "MUMBAI", DAY);
+
+        assertEquals(2, flights.size());
+        assertEquals("AA Airways", flights.stream().filter(f -> f.flightNumber().equals("AA101"))
+                .findFirst().orElseThrow().airlineName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Round-trip search reads both legs in one statement")
+    void roundTripIsOneStatement() {
+        List<FlightSummary> legs = inventoryRepository.findRoundTripLegs(
+                "DELHI", "MUMBAI", DAY, DAY.plusDays(3));
+
+        assertEquals(3, legs.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Flexible date search reads only fares in one statement")
+    void faresAreOneStatement() {
+        List<FlightFare> fares = inventoryRepository.findFaresBetween(
+                "DELHI", "MUMBAI", DAY.minusDays(1), DAY.plusDays(1));
+
+        assertEquals(3, fares.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Ticket lookup reads the booking, both legs and airlines in one statement")
+    void ticketIsOneStatement() {
+        TicketDetails roundTrip = bookingRepository.findTicket("PNR001").orElseThrow();
+        assertEquals("CC202", roundTrip.returnFlight().flightNumber());
+        assertEquals("CC Airways", roundTrip.returnFlight().airlineName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        assertEquals("PNR001", bookingRepository.findTicket("RET001").orElseThrow().pnrOutbound());
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        TicketDetails oneWay = bookingRepository.findTicket("PNR002").orElseThrow();
+        assertNull(oneWay.returnFlight());
+        assertEquals("BB Airways", oneWay.outboundFlight().airlineName());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Booking history reads every booking in one statement")
+    void historyIsOneStatement() {
+        List<BookingSummary> history = bookingRepository.findHistory("user@example.com");
+        List<BookingSummary> page = bookingRepository.findHistoryPage(
+                "user@example.com", Long.MAX_VALUE, PageRequest.of(0, 2));
+
+        assertEquals(3, history.size());
+        assertEquals("PNR003", history.get(0).pnrOutbound());
+        assertEquals(2, page.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("The connection graph loads every route of several days in one statement")
+    void connectionDaysAreOneStatement() {
+        List<FlightSummary> flights = inventoryRepository.findFlightsDepartingBetween(DAY, DAY.plusDays(3));
+
+        assertEquals(4, flights.size());
+        assertEquals("CC Airways", flights.stream().filter(f -> f.flightNumber().equals("CC202"))
+                .findFirst().orElseThrow().airlineName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Booking loads a flight in one statement and takes its airline from the registry")
+    void flightByIdTakesAirlineFromRegistry() {
+        AirlineRegistry airlineRegistry = new AirlineRegistry(airlineRepository, 10_000);
+        airlineRegistry.refresh();
+        statistics.clear();
+
+        FlightInventory flight = inventoryRepository.findById(outboundFlightId).orElseThrow();
+        assertFalse(Hibernate.isInitialized(flight.getAirline()));
+        airlineRegistry.attach(flight);
+
+        assertEquals("AA Airways", FlightLeg.of(flight).airlineName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Cancellation loads the booking and both legs in one statement, airlines stay lazy")
+    void bookingByPnrFetchesBothLegs() {
+        Booking booking = bookingRepository.findByPnr("PNR001").orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(booking.getOutboundFlight()));
+        assertTrue(Hibernate.isInitialized(booking.getReturnFlight()));
+        assertEquals("CC202", booking.getReturnFlight().getFlightNumber());
+        assertFalse(Hibernate.isInitialized(booking.getOutboundFlight().getAirline()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        assertEquals("PNR001", bookingRepository.findByPnr("RET001").orElseThrow().getPnrOutbound());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Passengers of a booking load in one statement without reloading the booking")
+    void passengersDoNotLoadTheirBooking() {
+        List<Passenger> passengers = passengerRepository.findByBookingBookingId(bookingId);
+
+        assertEquals(4, passengers.size());
+        assertFalse(Hibernate.isInitialized(passengers.get(0).getBooking()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("A flight's seat map loads in one statement without reloading the flight")
+    void seatsDoNotLoadTheirFlight() {
+        List<Seat> seats = seatRepository.findByFlightFlightId(outboundFlightId);
+
+        assertEquals(4, seats.size());
+        assertFalse(Hibernate.isInitialized(seats.get(0).getFlight()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,33 @@
+package com.flightapp;
+
+import com.flightapp.model.City;
+import com.flightapp.service.CityRegistry;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+// the cities seeded by the V9 migration, for services that check cities against the registry
+final class TestCities {
+
+    private static final String[] CODES = {"DELHI", "MUMBAI", "CHENNAI", "BANGALORE", "KOLKATA"};
+
+    private TestCities() {
+    }
+
+    static List<City> cities() {
+        List<City> cities = new ArrayList<>();
+        for (String code : CODES) {
+            City city = new City();
+            city.setCityId((long) cities.size() + 1);
+            city.setCityCode(code);
+            city.setCityName(code.charAt(0) + code.substring(1).toLowerCase());
+            cities.add(city);
+        }
+        return cities;
+    }
+
+    static CityRegistry registry() {
+        return new CityRegistry(TestCities::cities, 10_000, Clock.systemUTC());
+    }
+}
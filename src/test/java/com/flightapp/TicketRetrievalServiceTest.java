@@ -1,25 +1,39 @@
 package com.flightapp;
 
+import com.flightapp.config.ReadYourWrites;
 import com.flightapp.exceptions.ResourceNotFoundException;
 import com.flightapp.model.Booking;
 import com.flightapp.model.BookingStatus;
+import com.flightapp.model.TripType;
 import com.flightapp.repository.BookingRepository;
 import com.flightapp.repository.FlightInventoryRepository;
 import com.flightapp.repository.PassengerRepository;
+import com.flightapp.response.TicketDetails;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.SeatAvailabilityStore;
+import com.flightapp.service.SeatMapService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +48,18 @@ class TicketRetrievalServiceTests {
     @Mock
     private PassengerRepository passengerRepository;
 
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SeatAvailabilityStore availabilityStore = new SeatAvailabilityStore();
+
+    @Spy
+    private ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), Clock.systemUTC());
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -47,7 +73,7 @@ class TicketRetrievalServiceTests {
         booking.setContactEmail("user@example.com");
         booking.setStatus(BookingStatus.CONFIRMED);
 
-        when(bookingRepository.findByPnrOutbound(pnr)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findByPnr(pnr)).thenReturn(Optional.of(booking));
 
         Booking result = bookingService.getTicket(pnr);
 
@@ -66,7 +92,7 @@ class TicketRetrievalServiceTests {
         booking.setContactName("Alice");
         booking.setContactEmail("alice@example.com");
 
-        when(bookingRepository.findByPnrOutbound(pnr)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findByPnr(pnr)).thenReturn(Optional.of(booking));
 
         Booking result = bookingService.getTicket(pnr);
 
@@ -77,16 +103,70 @@ class TicketRetrievalServiceTests {
     @Test
     @DisplayName("Reject retrieval when PNR does not exist")
     void rejectWhenPnrDoesNotExist() {
-        when(bookingRepository.findByPnrOutbound(anyString())).thenReturn(Optional.empty());
+        when(bookingRepository.findByPnr(anyString())).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> bookingService.getTicket("NOEXIST"));
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.getTicket("NOEXST"));
     }
 
     @Test
     @DisplayName("Treat invalid PNR format the same as a non-existent PNR")
     void invalidPnrFormatTreatedAsNotFound() {
-        when(bookingRepository.findByPnrOutbound(anyString())).thenReturn(Optional.empty());
-
         assertThrows(ResourceNotFoundException.class, () -> bookingService.getTicket("123"));
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.getTicketDetails("K7Q2Z!"));
+
+        verify(bookingRepository, never()).findByPnr(anyString());
+        verify(bookingRepository, never()).findTicket(anyString());
+    }
+
+    @Test
+    @DisplayName("Lower case or padded PNRs are looked up in their stored form")
+    void pnrIsNormalisedBeforeLookup() {
+        Booking booking = new Booking();
+        booking.setPnrOutbound("K7Q2ZX");
+
+        when(bookingRepository.findByPnr("K7Q2ZX")).thenReturn(Optional.of(booking));
+
+        assertEquals("K7Q2ZX", bookingService.getTicket(" k7q2zx ").getPnrOutbound());
+    }
+
+    @Test
+    @DisplayName("Ticket details come back as one projected row with both legs")
+    void ticketDetailsComeFromOneQuery() {
+        TicketDetails details = new TicketDetails(7L, "K7Q2ZX", null, TripType.ROUND_TRIP,
+                BookingStatus.CONFIRMED, "Test User", "user@example.com", 2,
+                11L, "AI201", "Air India", "DELHI", "MUMBAI",
+                LocalDate.now().plusDays(5), LocalTime.of(9, 0), LocalDate.now().plusDays(5), LocalTime.of(11, 0),
+                12L, "AI202", "Air India", "MUMBAI", "DELHI",
+                LocalDate.now().plusDays(8), LocalTime.of(18, 0), LocalDate.now().plusDays(8), LocalTime.of(20, 0));
+
+        when(bookingRepository.findTicket("K7Q2ZX")).thenReturn(Optional.of(details));
+
+        TicketDetails result = bookingService.getTicketDetails("K7Q2ZX");
+
+        assertEquals("AI201", result.outboundFlight().flightNumber());
+        assertEquals("DELHI", result.returnFlight().destinationCity());
+        verify(bookingRepository, never()).findByPnr(anyString());
+    }
+
+    @Test
+    @DisplayName("One-way ticket details have no return leg")
+    void oneWayTicketDetailsHaveNoReturnLeg() {
+        TicketDetails details = new TicketDetails(7L, "K7Q2ZX", null, TripType.ONE_WAY,
+                BookingStatus.CONFIRMED, "Test User", "user@example.com", 1,
+                11L, "AI201", "Air India", "DELHI", "MUMBAI",
+                LocalDate.now().plusDays(5), LocalTime.of(9, 0), LocalDate.now().plusDays(5), LocalTime.of(11, 0),
+                null, null, null, null, null, null, null, null, null);
+
+        when(bookingRepository.findTicket("K7Q2ZX")).thenReturn(Optional.of(details));
+
+        assertNull(bookingService.getTicketDetails("K7Q2ZX").returnFlight());
+    }
+
+    @Test
+    @DisplayName("Ticket details for an unknown PNR are not found")
+    void ticketDetailsForUnknownPnrNotFound() {
+        when(bookingRepository.findTicket(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.getTicketDetails("NOEXST"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package com.flightapp;
+
+import com.flightapp.config.ReadYourWrites;
+import com.flightapp.event.BookingChangedEvent;
+import com.flightapp.exceptions.ResourceNotFoundException;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.TripType;
+import com.flightapp.response.TicketDetails;
+import com.flightapp.service.BookingService;
+import com.flightapp.service.PnrFormat;
+import com.flightapp.service.TicketCache;
+import com.flightapp.service.TicketService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TicketServiceTests {
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2030-01-01T10:00:00Z");
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Mock
+    private BookingService bookingService;
+
+    private final MutableClock clock = new MutableClock();
+
+    private final TicketCache ticketCache = new TicketCache(100, Duration.ofSeconds(30), clock);
+
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), clock);
+
+    private TicketService service() {
+        return new TicketService(bookingService, ticketCache, readYourWrites);
+    }
+
+    private static TicketDetails ticket(String pnrOutbound, String pnrReturn) {
+        return new TicketDetails(7L, pnrOutbound, pnrReturn, TripType.ONE_WAY,
+                BookingStatus.CONFIRMED, "Test User", "user@example.com", 1,
+                11L, "AI201", "Air India", "DELHI", "MUMBAI",
+                LocalDate.now().plusDays(5), LocalTime.of(9, 0), LocalDate.now().plusDays(5), LocalTime.of(11, 0),
+                null, null, null, null, null, null, null, null, null);
+    }
+
+    @Test
+    @DisplayName("PNR format is checked by hand, lower case input is accepted")
+    void pnrFormat() {
+        assertEquals("K7Q2ZX", PnrFormat.normalize(" k7q2zx"));
+        assertNull(PnrFormat.normalize("K7Q2Z"));
+        assertNull(PnrFormat.normalize("K7Q-ZX"));
+        assertNull(PnrFormat.normalize("K7Q2Z\u0131"));
+        assertNull(PnrFormat.normalize(null));
+
+        assertEquals("PNR cannot be empty", assertThrows(ValidationException.class,
+                () -> service().getTicketByPnr(" ")).getMessage());
+        assertEquals("PNR must be exactly 6 characters", assertThrows(ValidationException.class,
+                () -> service().getTicketByPnr("K7Q2Z")).getMessage());
+        assertEquals("PNR must be alphanumeric", assertThrows(ValidationException.class,
+                () -> service().getTicketByPnr("K7Q2Z!")).getMessage());
+        verify(bookingService, never()).getTicket(anyString());
+    }
+
+    @Test
+    @DisplayName("A ticket is read once, then served from the cache under both of its PNRs")
+    void ticketCachedUnderBothPnrs() {
+        TicketDetails ticket = ticket("K7Q2ZX", "R7Q2ZX");
+        when(bookingService.getTicketDetails("K7Q2ZX")).thenReturn(ticket);
+
+        assertSame(ticket, service().getTicketDetails("k7q2zx"));
+        assertSame(ticket, service().getTicketDetails("K7Q2ZX"));
+        assertSame(ticket, service().getTicketDetails("R7Q2ZX"));
+
+        verify(bookingService, times(1)).getTicketDetails(anyString());
+    }
+
+    @Test
+    @DisplayName("A status change drops the ticket under both PNRs, expired entries are reloaded")
+    void changedAndExpiredTicketsReloaded() {
+        when(bookingService.getTicketDetails("K7Q2ZX")).thenReturn(ticket("K7Q2ZX", "R7Q2ZX"));
+
+        service().getTicketDetails("K7Q2ZX");
+        ticketCache.onBookingChanged(new BookingChangedEvent(List.of("R7Q2ZX")));
+        assertEquals(0, ticketCache.size());
+
+        service().getTicketDetails("K7Q2ZX");
+        clock.advance(Duration.ofSeconds(31));
+        service().getTicketDetails("K7Q2ZX");
+
+        verify(bookingService, times(3)).getTicketDetails("K7Q2ZX");
+    }
+
+    @Test
+    @DisplayName("A ticket read before a status change is returned but not cached, even under the other PNR")
+    void ticketReadBeforeChangeNotCached() {
+        TicketDetails held = ticket("K7Q2ZX", "R7Q2ZX");
+        TicketDetails confirmed = ticket("K7Q2ZX", "R7Q2ZX");
+        // the confirm commits while the lookup by the return PNR is still reading, its event
+        // only names the outbound PNR
+        when(bookingService.getTicketDetails("R7Q2ZX"))
+                .thenAnswer(inv -> {
+                    ticketCache.onBookingChanged(new BookingChangedEvent(List.of("K7Q2ZX")));
+                    return held;
+                })
+                .thenReturn(confirmed);
+
+        assertSame(held, service().getTicketDetails("R7Q2ZX"));
+        assertEquals(0, ticketCache.size());
+        assertSame(confirmed, service().getTicketDetails("R7Q2ZX"));
+        assertSame(confirmed, service().getTicketDetails("K7Q2ZX"));
+
+        verify(bookingService, times(2)).getTicketDetails("R7Q2ZX");
+        verify(bookingService, never()).getTicketDetails("K7Q2ZX");
+    }
+
+    @Test
+    @DisplayName("Bookings written a moment ago are not cached, the replica may still have the old row")
+    void recentWritesNotCached() {
+        when(bookingService.getTicketDetails("K7Q2ZX")).thenReturn(ticket("K7Q2ZX", null));
+        readYourWrites.recordWrite("K7Q2ZX");
+
+        service().getTicketDetails("K7Q2ZX");
+
+        assertEquals(0, ticketCache.size());
+    }
+
+    @Test
+    @DisplayName("Malformed PNRs are not found without a lookup")
+    void malformedPnrNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> service().getTicketDetails("NOEXIST"));
+        verify(bookingService, never()).getTicketDetails(anyString());
+    }
+}
@@ -0,0 +1,265 @@
+package com.flightapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.event.SeatsReleasedEvent;
+import com.flightapp.event.WaitlistPromotedEvent;
+import com.flightapp.exceptions.ValidationException;
+import com.flightapp.model.Booking;
+import com.flightapp.model.BookingStatus;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.TripType;
+import com.flightapp.model.WaitlistEntry;
+import com.flightapp.model.WaitlistStatus;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.repository.WaitlistRepository;
+import com.flightapp.request.BookingRequest;
+import com.flightapp.request.PassengerRequest;
+import com.flightapp.response.HoldDetails;
+import com.flightapp.response.TicketDetails;
+import com.flightapp.response.WaitlistDetails;
+import com.flightapp.service.SeatHoldService;
+import com.flightapp.service.SeatMapService;
+import com.flightapp.service.WaitlistService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTests {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T10:00:00Z");
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private FlightInventoryRepository inventoryRepository;
+
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private SeatHoldService seatHoldService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WaitlistService service(Executor executor) {
+        return new WaitlistService(waitlistRepository, inventoryRepository, seatMapService, seatHoldService,
+                transactionManager, eventPublisher, objectMapper, executor, 50, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    private static FlightInventory flight(int availableSeats) {
+        FlightInventory flight = new FlightInventory();
+        flight.setFlightId(5L);
+        flight.setFlightNumber("AI101");
+        flight.setSourceCity("DELHI");
+        flight.setDestinationCity("MUMBAI");
+        flight.setTotalSeats(180);
+        flight.setAvailableSeats(availableSeats);
+        return flight;
+    }
+
+    private static BookingRequest request(int passengers) {
+        List<PassengerRequest> list = new ArrayList<>();
+        for (int i = 0; i < passengers; i++) {
+            PassengerRequest p = new PassengerRequest();
+            p.setName("Passenger " + i);
+            p.setAge(30);
+            p.setGender("F");
+            p.setSeatOutbound("30A");
+            list.add(p);
+        }
+        BookingRequest req = new BookingRequest();
+        req.setTripType(TripType.ONE_WAY);
+        req.setContactName("Asha");
+        req.setContactEmail("asha@example.com");
+        req.setPassengers(list);
+        return req;
+    }
+
+    private WaitlistEntry entry(long id, int passengers) throws Exception {
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setEntryId(id);
+        entry.setFlight(flight(0));
+        entry.setPassengers(passengers);
+        entry.setContactEmail("asha@example.com");
+        BookingRequest req = request(passengers);
+        req.setOutboundFlightId(5L);
+        entry.setRequest(objectMapper.writeValueAsString(req));
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry.setCreatedAt(NOW);
+        return entry;
+    }
+
+    private static HoldDetails hold(String pnr, int passengers) {
+        Booking booking = new Booking();
+        booking.setPnrOutbound(pnr);
+        booking.setOutboundFlight(flight(0));
+        booking.setStatus(BookingStatus.HELD);
+        booking.setTotalPassengers(passengers);
+        return new HoldDetails(TicketDetails.of(booking), NOW.plusSeconds(900));
+    }
+
+    @Test
+    @DisplayName("Joining is refused while the flight still has enough seats")
+    void joinRefusedWhenSeatsAvailable() {
+        when(inventoryRepository.findById(5L)).thenReturn(Optional.of(flight(2)));
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> service(Runnable::run).join(5L, request(2)));
+
+        assertEquals("Seats are available, book the flight directly", e.getMessage());
+        verify(waitlistRepository, never()).save(any(WaitlistEntry.class));
+    }
+
+    @Test
+    @DisplayName("Joining a sold out flight stores the request without seat numbers")
+    void joinSoldOutFlight() throws Exception {
+        when(inventoryRepository.findById(5L)).thenReturn(Optional.of(flight(1)));
+        when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(inv -> {
+            WaitlistEntry saved = inv.getArgument(0);
+            saved.setEntryId(11L);
+            return saved;
+        });
+
+        WaitlistDetails details = service(Runnable::run).join(5L, request(2));
+
+        assertEquals(11L, details.entryId());
+        assertEquals(5L, details.flightId());
+        assertEquals(WaitlistStatus.WAITING, details.status());
+        assertEquals(0, details.priority());
+        assertEquals(2, details.passengers());
+        ArgumentCaptor<WaitlistEntry> saved = ArgumentCaptor.forClass(WaitlistEntry.class);
+        verify(waitlistRepository).save(saved.capture());
+        BookingRequest stored = objectMapper.readValue(saved.getValue().getRequest(), BookingRequest.class);
+        assertEquals(5L, stored.getOutboundFlightId());
+        assertNull(stored.getPassengers().get(0).getSeatOutbound());
+    }
+
+    @Test
+    @DisplayName("Round trips cannot be waitlisted")
+    void joinRoundTripRefused() {
+        BookingRequest req = request(1);
+        req.setTripType(TripType.ROUND_TRIP);
+        req.setReturnFlightId(6L);
+
+        assertThrows(ValidationException.class, () -> service(Runnable::run).join(5L, req));
+    }
+
+    @Test
+    @DisplayName("Promotion holds free seats in line order, smaller parties fill what a larger one cannot use")
+    void promoteInOrder() throws Exception {
+        WaitlistEntry first = entry(1L, 2);
+        WaitlistEntry tooBig = entry(2L, 2);
+        WaitlistEntry withdrawn = entry(3L, 1);
+        WaitlistEntry last = entry(4L, 1);
+        FlightInventory flight = flight(3);
+        when(inventoryRepository.findById(5L)).thenReturn(Optional.of(flight), Optional.of(flight(0)));
+        when(waitlistRepository.findWaiting(eq(5L), eq(3), any(Pageable.class)))
+                .thenReturn(List.of(first, tooBig, withdrawn, last));
+        when(waitlistRepository.claim(anyLong())).thenReturn(1);
+        when(waitlistRepository.claim(3L)).thenReturn(0);
+        when(seatMapService.freeSeats(flight, 2)).thenReturn(List.of("1A", "1B"));
+        when(seatMapService.freeSeats(flight, 1)).thenReturn(List.of("1C"));
+        when(seatHoldService.hold(eq(5L), any(BookingRequest.class)))
+                .thenReturn(hold("HOLD01", 2), hold("HOLD04", 1));
+
+        assertEquals(2, service(Runnable::run).promote(5L));
+
+        ArgumentCaptor<BookingRequest> held = ArgumentCaptor.forClass(BookingRequest.class);
+        verify(seatHoldService, times(2)).hold(eq(5L), held.capture());
+        assertEquals(List.of("1A", "1B"), held.getAllValues().get(0).getPassengers().stream()
+                .map(PassengerRequest::getSeatOutbound).toList());
+        assertEquals("1C", held.getAllValues().get(1).getPassengers().get(0).getSeatOutbound());
+        verify(waitlistRepository, never()).claim(2L);
+        verify(waitlistRepository).recordPnr(1L, "HOLD01");
+        verify(waitlistRepository).recordPnr(4L, "HOLD04");
+        verify(eventPublisher).publishEvent(new WaitlistPromotedEvent(4L, 5L, "asha@example.com", "HOLD04",
+                NOW.plusSeconds(900)));
+    }
+
+    @Test
+    @DisplayName("A seat taken in between rolls the entry back and ends the pass")
+    void promotionStopsWhenSeatsAreGone() throws Exception {
+        FlightInventory flight = flight(2);
+        when(inventoryRepository.findById(5L)).thenReturn(Optional.of(flight));
+        when(waitlistRepository.findWaiting(eq(5L), eq(2), any(Pageable.class)))
+                .thenReturn(List.of(entry(1L, 1), entry(2L, 1)));
+        when(waitlistRepository.claim(1L)).thenReturn(1);
+        when(seatMapService.freeSeats(flight, 1)).thenReturn(List.of("1A"));
+        when(seatHoldService.hold(eq(5L), any(BookingRequest.class)))
+                .thenThrow(new ValidationException("One or more selected seats are already taken"));
+
+        assertEquals(0, service(Runnable::run).promote(5L));
+
+        verify(waitlistRepository, never()).claim(2L);
+        verify(waitlistRepository, never()).recordPnr(any(), any());
+        verify(transactionManager).rollback(any());
+        verify(eventPublisher, never()).publishEvent(any(WaitlistPromotedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Releases for a flight with a pass already queued share that pass")
+    void releasesCoalescePerFlight() {
+        List<Runnable> queued = new ArrayList<>();
+        WaitlistService service = service(queued::add);
+        when(inventoryRepository.findById(anyLong())).thenReturn(Optional.of(flight(0)));
+
+        service.onSeatsReleased(new SeatsReleasedEvent(5L, 1));
+        service.onSeatsReleased(new SeatsReleasedEvent(5L, 2));
+        service.onSeatsReleased(new SeatsReleasedEvent(6L, 1));
+        assertEquals(2, queued.size());
+
+        queued.get(0).run();
+        service.onSeatsReleased(new SeatsReleasedEvent(5L, 1));
+        assertEquals(3, queued.size());
+        // sold out again by the time the pass ran, nothing to read
+        verify(inventoryRepository).findById(5L);
+        verify(waitlistRepository, never()).findWaiting(anyLong(), anyInt(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Withdrawing an entry that was already promoted is refused")
+    void withdrawPromotedEntry() throws Exception {
+        WaitlistEntry entry = entry(1L, 1);
+        entry.setStatus(WaitlistStatus.PROMOTED);
+        when(waitlistRepository.withdraw(1L)).thenReturn(0);
+        when(waitlistRepository.findById(1L)).thenReturn(Optional.of(entry));
+
+        ValidationException e = assertThrows(ValidationException.class, () -> service(Runnable::run).withdraw(1L));
+
+        assertEquals("Waitlist entry is already promoted", e.getMessage());
+    }
+}
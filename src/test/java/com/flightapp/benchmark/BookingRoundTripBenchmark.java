@@ -0,0 +1,188 @@
+package com.flightapp.benchmark;
+
+import com.flightapp.model.Airline;
+import com.flightapp.model.Booking;
+import com.flightapp.model.FlightInventory;
+import com.flightapp.model.TripType;
+import com.flightapp.repository.AirlineRepository;
+import com.flightapp.repository.FlightInventoryRepository;
+import com.flightapp.request.BookingRequest;
+import com.flightapp.request.PassengerRequest;
+import com.flightapp.service.BookingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// counts the statements and commits bookFlight sends to MySQL for 9 passenger group bookings, and how
+// long the flight row stays locked. needs a scratch
+// schema, with rewriteBatchedStatements=true in the url so a batch is one round trip:
+// PLAN_TEST_DB_URL="jdbc:mysql://localhost:3306/flight_plan_test?rewriteBatchedStatements=true" \
+//     mvn test -Dtest=BookingRoundTripBenchmark
+@EnabledIfEnvironmentVariable(named = "PLAN_TEST_DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${PLAN_TEST_DB_URL}",
+        "spring.datasource.username=${PLAN_TEST_DB_USER:root}",
+        "spring.datasource.password=${PLAN_TEST_DB_PASSWORD:}",
+        "spring.jpa.show-sql=false"
+})
+class BookingRoundTripBenchmark {
+
+    private static final int BOOKINGS = 20;
+    private static final int GROUP_SIZE = 9;
+
+    private static final AtomicLong ROUND_TRIPS = new AtomicLong();
+    private static final AtomicLong COMMITS = new AtomicLong();
+    private static final AtomicLong LOCK_NANOS = new AtomicLong();
+    private static final ThreadLocal<Long> LOCKED_AT = new ThreadLocal<>();
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? counting(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // every execute* and executeBatch on a statement is one trip to the server. the flight row is
+    // locked from the seat count update until the connection commits or rolls back
+    private static <T> T proxy(Class<T> type, T target, String sql) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                ROUND_TRIPS.incrementAndGet();
+                if (sql != null && sql.toLowerCase().startsWith("update flight_inventory") && LOCKED_AT.get() == null) {
+                    LOCKED_AT.set(System.nanoTime());
+                }
+            }
+            if (name.equals("commit") || name.equals("rollback")) {
+                if (name.equals("commit")) {
+                    COMMITS.incrementAndGet();
+                }
+                Long lockedAt = LOCKED_AT.get();
+                if (lockedAt != null) {
+                    LOCK_NANOS.addAndGet(System.nanoTime() - lockedAt);
+                    LOCKED_AT.remove();
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection, null);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, null);
+            }
+            return result;
+        }));
+    }
+
+    private static DataSource counting(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, null);
+    }
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private AirlineRepository airlineRepository;
+
+    @Autowired
+    private FlightInventoryRepository inventoryRepository;
+
+    private FlightInventory flight() {
+        Airline airline = new Airline();
+        airline.setAirlineCode("RT" + System.nanoTime() % 100_000);
+        airline.setAirlineName("Round Trip Benchmark");
+        airline = airlineRepository.save(airline);
+
+        FlightInventory flight = new FlightInventory();
+        flight.setAirline(airline);
+        flight.setFlightNumber(airline.getAirlineCode() + "01");
+        flight.setSourceCity("DELHI");
+        flight.setDestinationCity("MUMBAI");
+        flight.setDepartureDate(LocalDate.now().plusDays(30));
+        flight.setDepartureTime(LocalTime.of(9, 0));
+        flight.setArrivalDate(LocalDate.now().plusDays(30));
+        flight.setArrivalTime(LocalTime.of(11, 0));
+        flight.setTotalSeats(BOOKINGS * GROUP_SIZE);
+        flight.setAvailableSeats(BOOKINGS * GROUP_SIZE);
+        flight.setPrice(4500.0);
+        return inventoryRepository.save(flight);
+    }
+
+    private BookingRequest groupBooking(Long flightId, int booking) {
+        BookingRequest req = new BookingRequest();
+        req.setOutboundFlightId(flightId);
+        req.setContactName("Travel Desk");
+        req.setContactEmail("desk@example.com");
+        req.setTripType(TripType.ONE_WAY);
+
+        List<PassengerRequest> passengers = new ArrayList<>();
+        for (int i = 0; i < GROUP_SIZE; i++) {
+            int seat = booking * GROUP_SIZE + i;
+            PassengerRequest p = new PassengerRequest();
+            p.setName("Passenger " + seat);
+            p.setAge(30);
+            p.setGender("F");
+            p.setSeatOutbound((seat / 6 + 1) + String.valueOf("ABCDEF".charAt(seat % 6)));
+            passengers.add(p);
+        }
+        req.setPassengers(passengers);
+        return req;
+    }
+
+    @Test
+    @DisplayName("Group bookings take one transaction and fewer round trips than passengers")
+    void groupBookingRoundTrips() {
+        FlightInventory flight = flight();
+
+        ROUND_TRIPS.set(0);
+        COMMITS.set(0);
+        LOCK_NANOS.set(0);
+        for (int b = 0; b < BOOKINGS; b++) {
+            Booking booking = bookingService.bookFlight(flight.getFlightId(), groupBooking(flight.getFlightId(), b));
+            assertEquals(GROUP_SIZE, booking.getTotalPassengers());
+        }
+        double perBooking = (double) ROUND_TRIPS.get() / BOOKINGS;
+        double commitsPerBooking = (double) COMMITS.get() / BOOKINGS;
+
+        System.out.printf("%d passenger bookings: %.1f statements, %.2f commits, %d us flight row lock per booking%n",
+                GROUP_SIZE, perBooking, commitsPerBooking, LOCK_NANOS.get() / 1000 / BOOKINGS);
+        assertTrue(perBooking < GROUP_SIZE, "passenger and seat inserts are not batched");
+        // one booking transaction, plus the odd id block or PNR block reservation
+        assertTrue(commitsPerBooking < 2, "booking does not run as one transaction");
+    }
+}
@@ -0,0 +1,81 @@
+package com.flightapp.benchmark;
+
+import com.flightapp.model.PnrSequence;
+import com.flightapp.repository.PnrSequenceRepository;
+import com.flightapp.service.PnrGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// old UUID based PNR against PnrGenerator, run with -prof gc to compare allocations:
+// mvn test-compile, then run main() with the test classpath
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class PnrGeneratorBenchmark {
+
+    private PnrGenerator generator;
+
+    @Setup
+    public void setUp() {
+        // in-memory stand-in for pnr_sequence, a block reservation is one call per 1000 PNRs anyway
+        AtomicLong nextValue = new AtomicLong();
+        PnrSequenceRepository sequenceRepository = mock(PnrSequenceRepository.class);
+        when(sequenceRepository.lockByName(anyString())).thenAnswer(invocation -> {
+            PnrSequence row = new PnrSequence();
+            row.setName(invocation.getArgument(0));
+            row.setNextValue(nextValue.get());
+            return Optional.of(row);
+        });
+        when(sequenceRepository.advance(anyString(), anyLong(), anyLong()))
+                .thenAnswer(invocation -> nextValue.compareAndSet(
+                        invocation.getArgument(1), invocation.getArgument(2)) ? 1 : 0);
+        generator = new PnrGenerator(sequenceRepository, mock(PlatformTransactionManager.class), Runnable::run,
+                1000);
+    }
+
+    @Benchmark
+    public String uuidSubstring() {
+        return UUID.randomUUID().toString()
+                .replace("-", "")
+                .substring(0, 6)
+                .toUpperCase();
+    }
+
+    @Benchmark
+    public String pnrGenerator() {
+        return generator.next();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PnrGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.flightapp.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// closed-loop load against a running instance, to compare platform threads with
+// spring.threads.virtual.enabled=true on the same database:
+//   java -cp target/test-classes com.flightapp.benchmark.SearchLoadTest http://localhost:8080 2000 50000
+// prints throughput, latency percentiles and the status codes seen (503 = turned away by the limiter)
+public class SearchLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int total = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        // spread over dates so the search cache does not answer everything
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int d = 1; d <= 60; d++) {
+            String body = "{\"sourceCity\":\"DELHI\",\"destinationCity\":\"MUMBAI\",\"tripType\":\"ONE_WAY\","
+                    + "\"travelDate\":\"" + LocalDate.now().plusDays(d) + "\"}";
+            requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1.0/flight/search"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+        }
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(total));
+        ConcurrentHashMap<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        List<CompletableFuture<?>> pending = new ArrayList<>(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            pending.add(client.sendAsync(requests.get(i % requests.size()), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies.add(System.nanoTime() - sent);
+                        String outcome = error != null ? error.getClass().getSimpleName()
+                                : String.valueOf(response.statusCode());
+                        outcomes.computeIfAbsent(outcome, k -> new AtomicInteger()).incrementAndGet();
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).handle((v, e) -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%d requests, %d concurrent, %.1f s, %.0f req/s%n", total, concurrency, seconds, total / seconds);
+        System.out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                sorted.get(sorted.size() - 1) / 1e6);
+        System.out.println("outcomes " + outcomes);
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1e6;
+    }
+}